@@ -55,11 +55,24 @@ public class NacosConfigAutoConfiguration {
 	}
 
 	@Bean
-	public NacosConfigManager nacosConfigManager(
+	public NacosConfigManager nacosConfigManager(ApplicationContext context,
 			NacosConfigProperties nacosConfigProperties) {
+		// the one of the bootstrap context holds the property sources it loaded
+		if (context.getParent() != null
+				&& BeanFactoryUtils.beanNamesForTypeIncludingAncestors(
+						context.getParent(), NacosConfigManager.class).length > 0) {
+			return BeanFactoryUtils.beanOfTypeIncludingAncestors(context.getParent(),
+					NacosConfigManager.class);
+		}
 		return new NacosConfigManager(nacosConfigProperties);
 	}
 
+	@Bean
+	public NacosPropertySourceRegistry nacosPropertySourceRegistry(
+			NacosConfigManager nacosConfigManager) {
+		return nacosConfigManager.getPropertySourceRegistry();
+	}
+
 	@Bean
 	public NacosContextRefresher nacosContextRefresher(
 			NacosConfigManager nacosConfigManager,
@@ -36,6 +36,8 @@ public class NacosConfigManager {
 
 	private NacosConfigProperties nacosConfigProperties;
 
+	private final NacosPropertySourceRegistry propertySourceRegistry = new NacosPropertySourceRegistry();
+
 	public NacosConfigManager(NacosConfigProperties nacosConfigProperties) {
 		this.nacosConfigProperties = nacosConfigProperties;
 		// Compatible with older code in NacosConfigProperties,It will be deleted in the
@@ -77,4 +79,11 @@ public class NacosConfigManager {
 		return nacosConfigProperties;
 	}
 
+	/**
+	 * @return the Nacos property sources of the application
+	 */
+	public NacosPropertySourceRegistry getPropertySourceRegistry() {
+		return propertySourceRegistry;
+	}
+
 }
@@ -16,6 +16,7 @@
 
 package com.alibaba.cloud.nacos;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -234,6 +235,48 @@ public class NacosConfigProperties {
 	 */
 	private boolean refreshEnabled = true;
 
+	/**
+	 * whether a change of a dataId only replaces its own property source and notifies the
+	 * changed keys with an EnvironmentChangeEvent, instead of refreshing the whole
+	 * configuration and all refresh scoped beans.
+	 */
+	private boolean targetedRefreshEnabled = false;
+
+	/**
+	 * milliseconds to wait for further changes before refreshing the configuration, so
+	 * that changes of several dataIds published together cause a single refresh. 0
+	 * refreshes on every change.
+	 */
+	private long refreshDebounceWindow = 0;
+
+	/**
+	 * maximum milliseconds a refresh is delayed by further changes when debounced.
+	 */
+	private long refreshDebounceMaxDelay = 5000;
+
+	/**
+	 * whether to fetch and parse all dataIds at the same time on bootstrap, instead of
+	 * one after another. The property sources keep the same precedence.
+	 */
+	private boolean parallelLoadEnabled = false;
+
+	/**
+	 * maximum number of dataIds fetched at the same time when parallel load is enabled.
+	 */
+	private int parallelLoadThreads = 4;
+
+	/**
+	 * whether to keep a local snapshot of the loaded configs, validated against nacos
+	 * server in one request on bootstrap so that only the changed ones are downloaded.
+	 */
+	private boolean snapshotEnabled = false;
+
+	/**
+	 * directory of the local config snapshot.
+	 */
+	private String snapshotDir = System.getProperty("user.home") + File.separator
+			+ "nacos" + File.separator + "config-snapshot";
+
 	// todo sts support
 
 	public String getServerAddr() {
@@ -420,6 +463,62 @@ public class NacosConfigProperties {
 		this.refreshEnabled = refreshEnabled;
 	}
 
+	public boolean isTargetedRefreshEnabled() {
+		return targetedRefreshEnabled;
+	}
+
+	public void setTargetedRefreshEnabled(boolean targetedRefreshEnabled) {
+		this.targetedRefreshEnabled = targetedRefreshEnabled;
+	}
+
+	public long getRefreshDebounceWindow() {
+		return refreshDebounceWindow;
+	}
+
+	public void setRefreshDebounceWindow(long refreshDebounceWindow) {
+		this.refreshDebounceWindow = refreshDebounceWindow;
+	}
+
+	public long getRefreshDebounceMaxDelay() {
+		return refreshDebounceMaxDelay;
+	}
+
+	public void setRefreshDebounceMaxDelay(long refreshDebounceMaxDelay) {
+		this.refreshDebounceMaxDelay = refreshDebounceMaxDelay;
+	}
+
+	public boolean isParallelLoadEnabled() {
+		return parallelLoadEnabled;
+	}
+
+	public void setParallelLoadEnabled(boolean parallelLoadEnabled) {
+		this.parallelLoadEnabled = parallelLoadEnabled;
+	}
+
+	public int getParallelLoadThreads() {
+		return parallelLoadThreads;
+	}
+
+	public void setParallelLoadThreads(int parallelLoadThreads) {
+		this.parallelLoadThreads = parallelLoadThreads;
+	}
+
+	public boolean isSnapshotEnabled() {
+		return snapshotEnabled;
+	}
+
+	public void setSnapshotEnabled(boolean snapshotEnabled) {
+		this.snapshotEnabled = snapshotEnabled;
+	}
+
+	public String getSnapshotDir() {
+		return snapshotDir;
+	}
+
+	public void setSnapshotDir(String snapshotDir) {
+		this.snapshotDir = snapshotDir;
+	}
+
 	/**
 	 * recommend to use {@link NacosConfigProperties#sharedConfigs} .
 	 * @return string
@@ -600,7 +699,12 @@ public class NacosConfigProperties {
 				+ ", contextPath='" + contextPath + '\'' + ", clusterName='" + clusterName
 				+ '\'' + ", name='" + name + '\'' + '\'' + ", shares=" + sharedConfigs
 				+ ", extensions=" + extensionConfigs + ", refreshEnabled="
-				+ refreshEnabled + '}';
+				+ refreshEnabled + ", targetedRefreshEnabled=" + targetedRefreshEnabled
+				+ ", refreshDebounceWindow=" + refreshDebounceWindow
+				+ ", refreshDebounceMaxDelay=" + refreshDebounceMaxDelay
+				+ ", parallelLoadEnabled=" + parallelLoadEnabled
+				+ ", parallelLoadThreads=" + parallelLoadThreads + ", snapshotEnabled="
+				+ snapshotEnabled + ", snapshotDir='" + snapshotDir + '\'' + '}';
 	}
 
 	public static class Config {
@@ -620,6 +724,12 @@ public class NacosConfigProperties {
 		 */
 		private boolean refresh = false;
 
+		/**
+		 * the format of the content, e.g. properties, yaml, json or xml. If not set, the
+		 * file extension of the data id is used.
+		 */
+		private String fileExtension;
+
 		public Config() {
 		}
 
@@ -669,10 +779,20 @@ public class NacosConfigProperties {
 			return this;
 		}
 
+		public String getFileExtension() {
+			return fileExtension;
+		}
+
+		public Config setFileExtension(String fileExtension) {
+			this.fileExtension = fileExtension;
+			return this;
+		}
+
 		@Override
 		public String toString() {
 			return "Config{" + "dataId='" + dataId + '\'' + ", group='" + group + '\''
-					+ ", refresh=" + refresh + '}';
+					+ ", refresh=" + refresh + ", fileExtension='" + fileExtension + '\''
+					+ '}';
 		}
 
 		@Override
@@ -685,12 +805,13 @@ public class NacosConfigProperties {
 			}
 			Config config = (Config) o;
 			return refresh == config.refresh && Objects.equals(dataId, config.dataId)
-					&& Objects.equals(group, config.group);
+					&& Objects.equals(group, config.group)
+					&& Objects.equals(fileExtension, config.fileExtension);
 		}
 
 		@Override
 		public int hashCode() {
-			return Objects.hash(dataId, group, refresh);
+			return Objects.hash(dataId, group, refresh, fileExtension);
 		}
 
 	}
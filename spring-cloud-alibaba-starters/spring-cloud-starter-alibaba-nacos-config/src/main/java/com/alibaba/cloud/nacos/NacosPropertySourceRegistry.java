@@ -0,0 +1,187 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.alibaba.cloud.nacos.client.NacosPropertySource;
+
+import org.springframework.cloud.bootstrap.config.BootstrapPropertySource;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * The Nacos property sources of one application, held by its {@link NacosConfigManager},
+ * unlike the JVM wide {@link NacosPropertySourceRepository}. Readers get an immutable,
+ * versioned {@link Snapshot}; a source registered for the same dataId and group replaces
+ * the previous one. After the environment changed, such as by a refresh, the sources are
+ * registered again from the environment.
+ */
+public class NacosPropertySourceRegistry
+		implements ApplicationListener<EnvironmentChangeEvent> {
+
+	private volatile Snapshot snapshot = new Snapshot(0, Collections.emptyMap());
+
+	/**
+	 * @return the property sources registered so far
+	 */
+	public Snapshot getSnapshot() {
+		return snapshot;
+	}
+
+	public NacosPropertySource get(String dataId, String group) {
+		return snapshot.get(dataId, group);
+	}
+
+	public void register(NacosPropertySource nacosPropertySource) {
+		registerAll(Collections.singletonList(nacosPropertySource));
+	}
+
+	/**
+	 * Register property sources at once, creating a new snapshot if any of them was not
+	 * registered yet.
+	 * @param nacosPropertySources property sources replacing the ones of the same dataId
+	 * and group
+	 */
+	public synchronized void registerAll(
+			Collection<NacosPropertySource> nacosPropertySources) {
+		Map<Key, NacosPropertySource> sources = null;
+		for (NacosPropertySource nacosPropertySource : nacosPropertySources) {
+			Key key = new Key(nacosPropertySource.getDataId(),
+					nacosPropertySource.getGroup());
+			if (snapshot.sources.get(key) == nacosPropertySource) {
+				continue;
+			}
+			if (sources == null) {
+				sources = new LinkedHashMap<>(snapshot.sources);
+			}
+			sources.put(key, nacosPropertySource);
+		}
+		if (sources != null) {
+			snapshot = new Snapshot(snapshot.version + 1, sources);
+		}
+	}
+
+	@Override
+	public void onApplicationEvent(EnvironmentChangeEvent event) {
+		if (event.getSource() instanceof ConfigurableApplicationContext) {
+			List<NacosPropertySource> nacosPropertySources = new ArrayList<>();
+			for (PropertySource<?> propertySource : ((ConfigurableApplicationContext) event
+					.getSource()).getEnvironment().getPropertySources()) {
+				collect(propertySource, nacosPropertySources);
+			}
+			registerAll(nacosPropertySources);
+		}
+	}
+
+	private static void collect(PropertySource<?> propertySource,
+			List<NacosPropertySource> nacosPropertySources) {
+		if (propertySource instanceof BootstrapPropertySource) {
+			collect(((BootstrapPropertySource<?>) propertySource).getDelegate(),
+					nacosPropertySources);
+		}
+		else if (propertySource instanceof NacosPropertySource) {
+			nacosPropertySources.add((NacosPropertySource) propertySource);
+		}
+		else if (propertySource instanceof CompositePropertySource) {
+			for (PropertySource<?> nested : ((CompositePropertySource) propertySource)
+					.getPropertySources()) {
+				collect(nested, nacosPropertySources);
+			}
+		}
+	}
+
+	/**
+	 * Immutable view of the registered property sources.
+	 */
+	public static final class Snapshot {
+
+		private final long version;
+
+		private final Map<Key, NacosPropertySource> sources;
+
+		private Snapshot(long version, Map<Key, NacosPropertySource> sources) {
+			this.version = version;
+			this.sources = Collections.unmodifiableMap(sources);
+		}
+
+		/**
+		 * @return number of changes made to the registry before this snapshot
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * @return property sources in the order they were first registered
+		 */
+		public Collection<NacosPropertySource> getAll() {
+			return sources.values();
+		}
+
+		public NacosPropertySource get(String dataId, String group) {
+			return sources.get(new Key(dataId, group));
+		}
+
+	}
+
+	/**
+	 * Key of a property source, its dataId and group.
+	 */
+	private static final class Key {
+
+		private final String dataId;
+
+		private final String group;
+
+		private final int hash;
+
+		private Key(String dataId, String group) {
+			this.dataId = dataId;
+			this.group = group;
+			this.hash = Objects.hash(dataId, group);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			return Objects.equals(dataId, key.dataId) && Objects.equals(group, key.group);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+	}
+
+}
@@ -23,6 +23,10 @@ import java.util.concurrent.ConcurrentHashMap;
 import com.alibaba.cloud.nacos.client.NacosPropertySource;
 
 /**
+ * The Nacos property sources loaded in the JVM, shared by all application contexts. The
+ * sources of one application are in the {@link NacosPropertySourceRegistry} of its
+ * {@link NacosConfigManager}.
+ *
  * @author xiaojing
  * @author pbting
  */
@@ -63,11 +67,25 @@ public final class NacosPropertySourceRepository {
 		return NACOS_PROPERTY_SOURCE_REPOSITORY.get(dataId);
 	}
 
+	/**
+	 * Collect a property source, replacing the one collected for the same dataId and
+	 * group.
+	 * @param nacosPropertySource nacosPropertySource
+	 */
 	public static void collectNacosPropertySource(
 			NacosPropertySource nacosPropertySource) {
-		NACOS_PROPERTY_SOURCE_REPOSITORY
-				.putIfAbsent(getMapKey(nacosPropertySource.getDataId(),
-						nacosPropertySource.getGroup()), nacosPropertySource);
+		replaceNacosPropertySource(nacosPropertySource);
+	}
+
+	/**
+	 * Replace the property source collected for the same dataId and group, after it was
+	 * refreshed.
+	 * @param nacosPropertySource nacosPropertySource
+	 */
+	public static void replaceNacosPropertySource(
+			NacosPropertySource nacosPropertySource) {
+		NACOS_PROPERTY_SOURCE_REPOSITORY.put(getMapKey(nacosPropertySource.getDataId(),
+				nacosPropertySource.getGroup()), nacosPropertySource);
 	}
 
 	public static NacosPropertySource getNacosPropertySource(String dataId,
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import com.alibaba.nacos.api.common.Constants;
+import com.alibaba.nacos.client.config.http.ServerHttpAgent;
+import com.alibaba.nacos.common.http.HttpRestResult;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link NacosConfigSnapshot.ChangeChecker} sending all MD5s in one request to the
+ * listener API of Nacos server, the one the config client long polls, asking it not to
+ * hang so that it answers at once with the dataIds that changed.
+ */
+public class NacosConfigChangeChecker implements NacosConfigSnapshot.ChangeChecker {
+
+	private static final String LISTENER_PATH = "/v1/cs/configs/listener";
+
+	private static final String LISTENING_CONFIGS = "Listening-Configs";
+
+	private static final String LONG_POLLING_TIMEOUT = "Long-Pulling-Timeout";
+
+	private static final String LONG_POLLING_NO_HANGUP = "Long-Pulling-Timeout-No-Hangup";
+
+	private final Properties properties;
+
+	private final long timeout;
+
+	public NacosConfigChangeChecker(Properties properties, long timeout) {
+		this.properties = properties;
+		this.timeout = timeout;
+	}
+
+	@Override
+	public Set<String> getChangedKeys(Map<String, String> md5s) throws Exception {
+		ServerHttpAgent agent = new ServerHttpAgent(properties);
+		try {
+			agent.start();
+			String tenant = agent.getTenant();
+			StringBuilder listeningConfigs = new StringBuilder();
+			md5s.forEach((key, md5) -> {
+				int separator = key.indexOf(',');
+				listeningConfigs.append(key, 0, separator)
+						.append(Constants.WORD_SEPARATOR)
+						.append(key.substring(separator + 1))
+						.append(Constants.WORD_SEPARATOR).append(md5);
+				if (StringUtils.hasText(tenant)) {
+					listeningConfigs.append(Constants.WORD_SEPARATOR).append(tenant);
+				}
+				listeningConfigs.append(Constants.LINE_SEPARATOR);
+			});
+			Map<String, String> headers = new HashMap<>(4);
+			headers.put(LONG_POLLING_TIMEOUT, String.valueOf(timeout));
+			headers.put(LONG_POLLING_NO_HANGUP, "true");
+			Map<String, String> params = new HashMap<>(2);
+			params.put(LISTENING_CONFIGS, listeningConfigs.toString());
+			HttpRestResult<String> result = agent.httpPost(LISTENER_PATH, headers, params,
+					agent.getEncode(), timeout);
+			if (!result.ok()) {
+				throw new IllegalStateException(
+						"check config change failed, code: " + result.getCode());
+			}
+			return parseChangedKeys(result.getData());
+		}
+		finally {
+			agent.shutdown();
+		}
+	}
+
+	static Set<String> parseChangedKeys(String response) throws Exception {
+		Set<String> changed = new HashSet<>();
+		if (!StringUtils.hasLength(response)) {
+			return changed;
+		}
+		for (String line : URLDecoder.decode(response, "UTF-8")
+				.split(Constants.LINE_SEPARATOR)) {
+			String[] words = line.split(Constants.WORD_SEPARATOR);
+			if (words.length >= 2) {
+				changed.add(NacosPropertySourceRepository.getMapKey(words[0], words[1]));
+			}
+		}
+		return changed;
+	}
+
+}
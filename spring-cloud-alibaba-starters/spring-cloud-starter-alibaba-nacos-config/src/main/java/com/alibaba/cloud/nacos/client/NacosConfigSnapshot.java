@@ -0,0 +1,204 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * On-disk snapshot of the raw content of the dataIds loaded on bootstrap, stored per
+ * namespace, group and dataId together with its MD5. On the next bootstrap the snapshots
+ * are validated against the MD5 held by Nacos server in one batched request, and the
+ * dataIds found unchanged are built from the snapshot instead of being downloaded again.
+ */
+public class NacosConfigSnapshot {
+
+	private static final Logger log = LoggerFactory.getLogger(NacosConfigSnapshot.class);
+
+	private static final String DEFAULT_NAMESPACE = "public";
+
+	private static final String MD5_SUFFIX = ".md5";
+
+	private final File directory;
+
+	private final ChangeChecker changeChecker;
+
+	private final Map<String, String> validated = new ConcurrentHashMap<>(16);
+
+	public NacosConfigSnapshot(File directory, String namespace,
+			ChangeChecker changeChecker) {
+		this.directory = new File(directory,
+				StringUtils.hasText(namespace) ? encode(namespace) : DEFAULT_NAMESPACE);
+		this.changeChecker = changeChecker;
+	}
+
+	/**
+	 * Validate the snapshots of the given dataIds in one request to Nacos server. Any
+	 * failure leaves the snapshots unused, so that the dataIds are downloaded as usual.
+	 * @param keys keys of the dataIds, see
+	 * {@link NacosPropertySourceRepository#getMapKey(String, String)}
+	 */
+	public void validate(Collection<String> keys) {
+		Map<String, String> contents = new LinkedHashMap<>();
+		Map<String, String> md5s = new LinkedHashMap<>();
+		for (String key : keys) {
+			String content = read(key);
+			if (content != null) {
+				contents.put(key, content);
+				md5s.put(key, md5(content));
+			}
+		}
+		if (md5s.isEmpty()) {
+			return;
+		}
+		try {
+			Set<String> changed = changeChecker.getChangedKeys(md5s);
+			contents.keySet().removeAll(changed);
+			validated.putAll(contents);
+			log.info("[Nacos Config] {} of {} snapshots are up to date", contents.size(),
+					md5s.size());
+		}
+		catch (Exception e) {
+			log.warn("[Nacos Config] validate snapshots failed, fetch all configs", e);
+		}
+	}
+
+	/**
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @return content of the snapshot validated by {@link #validate(Collection)}, or
+	 * {@code null} if the dataId has to be downloaded
+	 */
+	public String getValidatedContent(String dataId, String group) {
+		return validated.get(NacosPropertySourceRepository.getMapKey(dataId, group));
+	}
+
+	/**
+	 * Store the content just downloaded for the given dataId, or delete its snapshot if
+	 * it is empty.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param content content of the dataId
+	 */
+	public void save(String dataId, String group, String content) {
+		File file = file(dataId, group);
+		File md5File = new File(file.getPath() + MD5_SUFFIX);
+		try {
+			if (!StringUtils.hasLength(content)) {
+				Files.deleteIfExists(md5File.toPath());
+				Files.deleteIfExists(file.toPath());
+				return;
+			}
+			Files.createDirectories(file.getParentFile().toPath());
+			write(file, content);
+			write(md5File, md5(content));
+		}
+		catch (IOException e) {
+			log.warn("[Nacos Config] save snapshot of dataId[{}] & group[{}] failed",
+					dataId, group, e);
+		}
+	}
+
+	private String read(String key) {
+		int separator = key.indexOf(',');
+		File file = file(key.substring(0, separator), key.substring(separator + 1));
+		File md5File = new File(file.getPath() + MD5_SUFFIX);
+		if (!file.isFile() || !md5File.isFile()) {
+			return null;
+		}
+		try {
+			String content = new String(Files.readAllBytes(file.toPath()),
+					StandardCharsets.UTF_8);
+			String md5 = new String(Files.readAllBytes(md5File.toPath()),
+					StandardCharsets.UTF_8);
+			// a snapshot written partially is ignored
+			return md5(content).equals(md5.trim()) ? content : null;
+		}
+		catch (IOException e) {
+			log.warn("[Nacos Config] read snapshot {} failed", file, e);
+			return null;
+		}
+	}
+
+	private File file(String dataId, String group) {
+		return new File(new File(directory, encode(group)), encode(dataId));
+	}
+
+	private static void write(File file, String content) throws IOException {
+		Path temp = Files.createTempFile(file.getParentFile().toPath(), file.getName(),
+				".tmp");
+		try {
+			Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+			Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static String encode(String name) {
+		try {
+			return URLEncoder.encode(name, StandardCharsets.UTF_8.name());
+		}
+		catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @param content content of a dataId
+	 * @return MD5 of the content, as computed by Nacos
+	 */
+	public static String md5(String content) {
+		return DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Asks Nacos server which dataIds changed.
+	 */
+	@FunctionalInterface
+	public interface ChangeChecker {
+
+		/**
+		 * @param md5s MD5 of the local content, keyed by the key of the dataId
+		 * @return keys of the dataIds whose content on Nacos server differs
+		 * @throws Exception if Nacos server could not be asked
+		 */
+		Set<String> getChangedKeys(Map<String, String> md5s) throws Exception;
+
+	}
+
+}
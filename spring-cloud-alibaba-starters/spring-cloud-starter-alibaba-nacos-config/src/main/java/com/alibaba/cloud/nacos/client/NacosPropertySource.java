@@ -18,11 +18,16 @@ package com.alibaba.cloud.nacos.client;
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.alibaba.cloud.nacos.NacosConfigProperties;
 
+import org.springframework.boot.origin.Origin;
+import org.springframework.boot.origin.OriginLookup;
+import org.springframework.boot.origin.OriginTrackedValue;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.PropertySource;
 import org.springframework.util.CollectionUtils;
@@ -31,7 +36,8 @@ import org.springframework.util.CollectionUtils;
  * @author xiaojing
  * @author pbting
  */
-public class NacosPropertySource extends MapPropertySource {
+public class NacosPropertySource extends MapPropertySource
+		implements OriginLookup<String> {
 
 	/**
 	 * Nacos Group.
@@ -53,19 +59,42 @@ public class NacosPropertySource extends MapPropertySource {
 	 */
 	private final boolean isRefreshable;
 
+	/**
+	 * File extension the content was parsed with.
+	 */
+	private final String fileExtension;
+
+	/**
+	 * Where in the content the values come from, for the formats tracking it.
+	 */
+	private final Map<String, Origin> origins;
+
 	NacosPropertySource(String group, String dataId, Map<String, Object> source,
 			Date timestamp, boolean isRefreshable) {
-		super(String.join(NacosConfigProperties.COMMAS, dataId, group), source);
+		this(group, dataId, source, timestamp, isRefreshable, null);
+	}
+
+	NacosPropertySource(String group, String dataId, Map<String, Object> source,
+			Date timestamp, boolean isRefreshable, String fileExtension) {
+		super(String.join(NacosConfigProperties.COMMAS, dataId, group),
+				withoutOrigins(source));
+		this.origins = getOrigins(source);
 		this.group = group;
 		this.dataId = dataId;
 		this.timestamp = timestamp;
 		this.isRefreshable = isRefreshable;
+		this.fileExtension = fileExtension;
 	}
 
 	NacosPropertySource(List<PropertySource<?>> propertySources, String group,
 			String dataId, Date timestamp, boolean isRefreshable) {
+		this(propertySources, group, dataId, timestamp, isRefreshable, null);
+	}
+
+	NacosPropertySource(List<PropertySource<?>> propertySources, String group,
+			String dataId, Date timestamp, boolean isRefreshable, String fileExtension) {
 		this(group, dataId, getSourceMap(group, dataId, propertySources), timestamp,
-				isRefreshable);
+				isRefreshable, fileExtension);
 	}
 
 	private static Map<String, Object> getSourceMap(String group, String dataId,
@@ -88,6 +117,40 @@ public class NacosPropertySource extends MapPropertySource {
 				propertySources);
 	}
 
+	/**
+	 * Unwrap the {@link OriginTrackedValue}s, so that the source keeps holding plain
+	 * values.
+	 */
+	private static Map<String, Object> withoutOrigins(Map<String, Object> source) {
+		if (source.values().stream().noneMatch(OriginTrackedValue.class::isInstance)) {
+			return source;
+		}
+		Map<String, Object> values = new LinkedHashMap<>(source.size() * 4 / 3 + 1);
+		source.forEach(
+				(name, value) -> values.put(name, value instanceof OriginTrackedValue
+						? ((OriginTrackedValue) value).getValue() : value));
+		return values;
+	}
+
+	private static Map<String, Origin> getOrigins(Map<String, Object> source) {
+		Map<String, Origin> origins = null;
+		for (Map.Entry<String, Object> entry : source.entrySet()) {
+			if (entry.getValue() instanceof OriginTrackedValue) {
+				if (origins == null) {
+					origins = new HashMap<>(source.size() * 4 / 3 + 1);
+				}
+				origins.put(entry.getKey(),
+						((OriginTrackedValue) entry.getValue()).getOrigin());
+			}
+		}
+		return origins == null ? Collections.emptyMap() : origins;
+	}
+
+	@Override
+	public Origin getOrigin(String name) {
+		return origins.get(name);
+	}
+
 	public String getGroup() {
 		return this.group;
 	}
@@ -104,4 +167,8 @@ public class NacosPropertySource extends MapPropertySource {
 		return isRefreshable;
 	}
 
+	public String getFileExtension() {
+		return fileExtension;
+	}
+
 }
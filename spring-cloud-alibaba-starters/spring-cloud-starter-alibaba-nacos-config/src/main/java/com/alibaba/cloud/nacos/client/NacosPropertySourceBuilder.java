@@ -16,10 +16,12 @@
 
 package com.alibaba.cloud.nacos.client;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
+import com.alibaba.cloud.nacos.NacosPropertySourceRegistry;
 import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
 import com.alibaba.cloud.nacos.parser.NacosDataParserHandler;
 import com.alibaba.nacos.api.config.ConfigService;
@@ -43,6 +45,10 @@ public class NacosPropertySourceBuilder {
 
 	private long timeout;
 
+	private NacosConfigSnapshot configSnapshot;
+
+	private NacosPropertySourceRegistry propertySourceRegistry;
+
 	public NacosPropertySourceBuilder(ConfigService configService, long timeout) {
 		this.configService = configService;
 		this.timeout = timeout;
@@ -64,6 +70,23 @@ public class NacosPropertySourceBuilder {
 		this.configService = configService;
 	}
 
+	public NacosConfigSnapshot getConfigSnapshot() {
+		return configSnapshot;
+	}
+
+	public void setConfigSnapshot(NacosConfigSnapshot configSnapshot) {
+		this.configSnapshot = configSnapshot;
+	}
+
+	public NacosPropertySourceRegistry getPropertySourceRegistry() {
+		return propertySourceRegistry;
+	}
+
+	public void setPropertySourceRegistry(
+			NacosPropertySourceRegistry propertySourceRegistry) {
+		this.propertySourceRegistry = propertySourceRegistry;
+	}
+
 	/**
 	 * @param dataId Nacos dataId
 	 * @param group Nacos group
@@ -73,16 +96,41 @@ public class NacosPropertySourceBuilder {
 		List<PropertySource<?>> propertySources = loadNacosData(dataId, group,
 				fileExtension);
 		NacosPropertySource nacosPropertySource = new NacosPropertySource(propertySources,
-				group, dataId, new Date(), isRefreshable);
+				group, dataId, new Date(), isRefreshable, fileExtension);
 		NacosPropertySourceRepository.collectNacosPropertySource(nacosPropertySource);
+		if (propertySourceRegistry != null) {
+			propertySourceRegistry.register(nacosPropertySource);
+		}
 		return nacosPropertySource;
 	}
 
+	/**
+	 * Build the property source of a dataId from the given content, such as the one
+	 * pushed by Nacos when the dataId changes. Unlike
+	 * {@link #build(String, String, String, boolean)}, it neither collects the result nor
+	 * ignores content that can not be parsed.
+	 * @param dataId Nacos dataId
+	 * @param group Nacos group
+	 * @param fileExtension file extension of the content
+	 * @param isRefreshable whether the property source can be refreshed
+	 * @param content content of the dataId
+	 * @return property source of the dataId
+	 * @throws IOException if the content can not be parsed
+	 */
+	public static NacosPropertySource build(String dataId, String group,
+			String fileExtension, boolean isRefreshable, String content)
+			throws IOException {
+		List<PropertySource<?>> propertySources = NacosDataParserHandler.getInstance()
+				.parseNacosData(dataId, content, fileExtension);
+		return new NacosPropertySource(propertySources, group, dataId, new Date(),
+				isRefreshable, fileExtension);
+	}
+
 	private List<PropertySource<?>> loadNacosData(String dataId, String group,
 			String fileExtension) {
 		String data = null;
 		try {
-			data = configService.getConfig(dataId, group, timeout);
+			data = loadNacosContent(dataId, group);
 			if (StringUtils.isEmpty(data)) {
 				log.warn(
 						"Ignore the empty nacos configuration and get it based on dataId[{}] & group[{}]",
@@ -106,4 +154,16 @@ public class NacosPropertySourceBuilder {
 		return Collections.emptyList();
 	}
 
+	private String loadNacosContent(String dataId, String group) throws NacosException {
+		if (configSnapshot == null) {
+			return configService.getConfig(dataId, group, timeout);
+		}
+		String data = configSnapshot.getValidatedContent(dataId, group);
+		if (data == null) {
+			data = configService.getConfig(dataId, group, timeout);
+			configSnapshot.save(dataId, group, data);
+		}
+		return data;
+	}
+
 }
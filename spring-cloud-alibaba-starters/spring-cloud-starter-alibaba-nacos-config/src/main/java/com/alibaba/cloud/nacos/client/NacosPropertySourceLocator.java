@@ -16,7 +16,13 @@
 
 package com.alibaba.cloud.nacos.client;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.NacosConfigProperties;
@@ -32,6 +38,7 @@ import org.springframework.core.annotation.Order;
 import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.PropertySource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
@@ -95,70 +102,76 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 			dataIdPrefix = env.getProperty("spring.application.name");
 		}
 
+		List<ConfigRequest> requests = new ArrayList<>();
+		loadSharedConfiguration(requests);
+		loadExtConfiguration(requests);
+		loadApplicationConfiguration(requests, dataIdPrefix, nacosConfigProperties, env);
+		nacosPropertySourceBuilder.setConfigSnapshot(createConfigSnapshot(requests));
+		nacosPropertySourceBuilder.setPropertySourceRegistry(
+				nacosConfigManager.getPropertySourceRegistry());
+
 		CompositePropertySource composite = new CompositePropertySource(
 				NACOS_PROPERTY_SOURCE_NAME);
-
-		loadSharedConfiguration(composite);
-		loadExtConfiguration(composite);
-		loadApplicationConfiguration(composite, dataIdPrefix, nacosConfigProperties, env);
+		// requests are in the order of increasing precedence
+		for (NacosPropertySource propertySource : loadNacosPropertySources(requests)) {
+			this.addFirstPropertySource(composite, propertySource, false);
+		}
 		return composite;
 	}
 
 	/**
 	 * load shared configuration.
 	 */
-	private void loadSharedConfiguration(
-			CompositePropertySource compositePropertySource) {
+	private void loadSharedConfiguration(List<ConfigRequest> requests) {
 		List<NacosConfigProperties.Config> sharedConfigs = nacosConfigProperties
 				.getSharedConfigs();
 		if (!CollectionUtils.isEmpty(sharedConfigs)) {
 			checkConfiguration(sharedConfigs, "shared-configs");
-			loadNacosConfiguration(compositePropertySource, sharedConfigs);
+			loadNacosConfiguration(requests, sharedConfigs);
 		}
 	}
 
 	/**
 	 * load extensional configuration.
 	 */
-	private void loadExtConfiguration(CompositePropertySource compositePropertySource) {
+	private void loadExtConfiguration(List<ConfigRequest> requests) {
 		List<NacosConfigProperties.Config> extConfigs = nacosConfigProperties
 				.getExtensionConfigs();
 		if (!CollectionUtils.isEmpty(extConfigs)) {
 			checkConfiguration(extConfigs, "extension-configs");
-			loadNacosConfiguration(compositePropertySource, extConfigs);
+			loadNacosConfiguration(requests, extConfigs);
 		}
 	}
 
 	/**
 	 * load configuration of application.
 	 */
-	private void loadApplicationConfiguration(
-			CompositePropertySource compositePropertySource, String dataIdPrefix,
-			NacosConfigProperties properties, Environment environment) {
+	private void loadApplicationConfiguration(List<ConfigRequest> requests,
+			String dataIdPrefix, NacosConfigProperties properties,
+			Environment environment) {
 		String fileExtension = properties.getFileExtension();
 		String nacosGroup = properties.getGroup();
 		// load directly once by default
-		loadNacosDataIfPresent(compositePropertySource, dataIdPrefix, nacosGroup,
-				fileExtension, true);
+		loadNacosDataIfPresent(requests, dataIdPrefix, nacosGroup, fileExtension, true);
 		// load with suffix, which have a higher priority than the default
-		loadNacosDataIfPresent(compositePropertySource,
-				dataIdPrefix + DOT + fileExtension, nacosGroup, fileExtension, true);
+		loadNacosDataIfPresent(requests, dataIdPrefix + DOT + fileExtension, nacosGroup,
+				fileExtension, true);
 		// Loaded with profile, which have a higher priority than the suffix
 		for (String profile : environment.getActiveProfiles()) {
 			String dataId = dataIdPrefix + SEP1 + profile + DOT + fileExtension;
-			loadNacosDataIfPresent(compositePropertySource, dataId, nacosGroup,
-					fileExtension, true);
+			loadNacosDataIfPresent(requests, dataId, nacosGroup, fileExtension, true);
 		}
 
 	}
 
-	private void loadNacosConfiguration(final CompositePropertySource composite,
+	private void loadNacosConfiguration(final List<ConfigRequest> requests,
 			List<NacosConfigProperties.Config> configs) {
 		for (NacosConfigProperties.Config config : configs) {
-			loadNacosDataIfPresent(composite, config.getDataId(), config.getGroup(),
-					NacosDataParserHandler.getInstance()
-							.getFileExtension(config.getDataId()),
-					config.isRefresh());
+			String fileExtension = StringUtils.hasText(config.getFileExtension())
+					? config.getFileExtension() : NacosDataParserHandler.getInstance()
+							.getFileExtension(config.getDataId());
+			loadNacosDataIfPresent(requests, config.getDataId(), config.getGroup(),
+					fileExtension, config.isRefresh());
 		}
 	}
 
@@ -174,7 +187,7 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		}
 	}
 
-	private void loadNacosDataIfPresent(final CompositePropertySource composite,
+	private void loadNacosDataIfPresent(final List<ConfigRequest> requests,
 			final String dataId, final String group, String fileExtension,
 			boolean isRefreshable) {
 		if (null == dataId || dataId.trim().length() < 1) {
@@ -183,14 +196,85 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		if (null == group || group.trim().length() < 1) {
 			return;
 		}
-		NacosPropertySource propertySource = this.loadNacosPropertySource(dataId, group,
-				fileExtension, isRefreshable);
-		this.addFirstPropertySource(composite, propertySource, false);
+		requests.add(new ConfigRequest(dataId, group, fileExtension, isRefreshable));
+	}
+
+	/**
+	 * Load the property sources of the given requests, keeping their order. In parallel
+	 * mode the dataIds are fetched and parsed at the same time, on at most
+	 * {@link NacosConfigProperties#getParallelLoadThreads()} threads.
+	 */
+	private List<NacosPropertySource> loadNacosPropertySources(
+			List<ConfigRequest> requests) {
+		List<NacosPropertySource> propertySources = new ArrayList<>(requests.size());
+		if (!nacosConfigProperties.isParallelLoadEnabled() || requests.size() < 2
+				|| nacosConfigProperties.getParallelLoadThreads() < 2) {
+			for (ConfigRequest request : requests) {
+				propertySources.add(loadNacosPropertySource(request));
+			}
+			return propertySources;
+		}
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"Nacos-Config-Loader-");
+		threadFactory.setDaemon(true);
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(nacosConfigProperties.getParallelLoadThreads(), requests.size()),
+				threadFactory);
+		try {
+			List<Future<NacosPropertySource>> futures = new ArrayList<>(requests.size());
+			for (ConfigRequest request : requests) {
+				futures.add(executor.submit(() -> loadNacosPropertySource(request)));
+			}
+			for (Future<NacosPropertySource> future : futures) {
+				propertySources.add(future.get());
+			}
+			return propertySources;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while loading nacos config", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("load nacos config failed", e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Create the snapshot of the requested dataIds and validate it against Nacos server,
+	 * if enabled.
+	 */
+	private NacosConfigSnapshot createConfigSnapshot(List<ConfigRequest> requests) {
+		if (!nacosConfigProperties.isSnapshotEnabled()) {
+			return null;
+		}
+		NacosConfigSnapshot snapshot = new NacosConfigSnapshot(
+				new File(nacosConfigProperties.getSnapshotDir()),
+				nacosConfigProperties.getNamespace(),
+				new NacosConfigChangeChecker(
+						nacosConfigProperties.assembleConfigServiceProperties(),
+						nacosConfigProperties.getTimeout()));
+		List<String> keys = new ArrayList<>(requests.size());
+		for (ConfigRequest request : requests) {
+			keys.add(NacosPropertySourceRepository.getMapKey(request.dataId,
+					request.group));
+		}
+		snapshot.validate(keys);
+		return snapshot;
+	}
+
+	private NacosPropertySource loadNacosPropertySource(ConfigRequest request) {
+		return loadNacosPropertySource(request.dataId, request.group,
+				request.fileExtension, request.refreshable);
 	}
 
 	private NacosPropertySource loadNacosPropertySource(final String dataId,
 			final String group, String fileExtension, boolean isRefreshable) {
 		if (NacosContextRefresher.getRefreshCount() != 0) {
+			// a refresh locates in a new bootstrap context, only the JVM wide
+			// repository has the sources loaded on startup
 			if (!isRefreshable) {
 				return NacosPropertySourceRepository.getNacosPropertySource(dataId,
 						group);
@@ -219,4 +303,24 @@ public class NacosPropertySourceLocator implements PropertySourceLocator {
 		this.nacosConfigManager = nacosConfigManager;
 	}
 
+	private static final class ConfigRequest {
+
+		private final String dataId;
+
+		private final String group;
+
+		private final String fileExtension;
+
+		private final boolean refreshable;
+
+		private ConfigRequest(String dataId, String group, String fileExtension,
+				boolean refreshable) {
+			this.dataId = dataId;
+			this.group = group;
+			this.fileExtension = fileExtension;
+			this.refreshable = refreshable;
+		}
+
+	}
+
 }
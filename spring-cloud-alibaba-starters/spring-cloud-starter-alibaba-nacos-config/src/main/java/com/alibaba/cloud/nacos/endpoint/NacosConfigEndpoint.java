@@ -19,11 +19,13 @@ package com.alibaba.cloud.nacos.endpoint;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.cloud.nacos.NacosPropertySourceRegistry;
 import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
 import com.alibaba.cloud.nacos.client.NacosPropertySource;
 import com.alibaba.cloud.nacos.refresh.NacosRefreshHistory;
@@ -43,13 +45,28 @@ public class NacosConfigEndpoint {
 
 	private final NacosRefreshHistory refreshHistory;
 
+	private final NacosPropertySourceRegistry propertySourceRegistry;
+
 	private ThreadLocal<DateFormat> dateFormat = ThreadLocal
 			.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"));
 
 	public NacosConfigEndpoint(NacosConfigProperties properties,
 			NacosRefreshHistory refreshHistory) {
+		this(properties, refreshHistory, null);
+	}
+
+	/**
+	 * @param properties nacos config properties
+	 * @param refreshHistory refresh history
+	 * @param propertySourceRegistry property sources of the application, or {@code null}
+	 * to show the ones of the JVM wide {@link NacosPropertySourceRepository}
+	 */
+	public NacosConfigEndpoint(NacosConfigProperties properties,
+			NacosRefreshHistory refreshHistory,
+			NacosPropertySourceRegistry propertySourceRegistry) {
 		this.properties = properties;
 		this.refreshHistory = refreshHistory;
+		this.propertySourceRegistry = propertySourceRegistry;
 	}
 
 	@ReadOperation
@@ -57,7 +74,9 @@ public class NacosConfigEndpoint {
 		Map<String, Object> result = new HashMap<>(16);
 		result.put("NacosConfigProperties", properties);
 
-		List<NacosPropertySource> all = NacosPropertySourceRepository.getAll();
+		Collection<NacosPropertySource> all = propertySourceRegistry != null
+				? propertySourceRegistry.getSnapshot().getAll()
+				: NacosPropertySourceRepository.getAll();
 
 		List<Map<String, Object>> sources = new ArrayList<>();
 		for (NacosPropertySource ps : all) {
@@ -69,6 +88,11 @@ public class NacosConfigEndpoint {
 		result.put("Sources", sources);
 		result.put("RefreshHistory", refreshHistory.getRecords());
 
+		Map<String, Object> refreshMetrics = new HashMap<>(4);
+		refreshMetrics.put("refreshes", refreshHistory.getRefreshes());
+		refreshMetrics.put("coalescedRefreshes", refreshHistory.getCoalescedRefreshes());
+		result.put("RefreshMetrics", refreshMetrics);
+
 		return result;
 	}
 
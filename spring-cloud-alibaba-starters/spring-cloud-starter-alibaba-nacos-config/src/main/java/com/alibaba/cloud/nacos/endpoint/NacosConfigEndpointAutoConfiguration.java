@@ -48,7 +48,7 @@ public class NacosConfigEndpointAutoConfiguration {
 	@Bean
 	public NacosConfigEndpoint nacosConfigEndpoint() {
 		return new NacosConfigEndpoint(nacosConfigManager.getNacosConfigProperties(),
-				nacosRefreshHistory);
+				nacosRefreshHistory, nacosConfigManager.getPropertySourceRegistry());
 	}
 
 	@Bean
@@ -17,12 +17,15 @@
 package com.alibaba.cloud.nacos.parser;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import com.alibaba.cloud.nacos.utils.NacosConfigUtils;
@@ -32,6 +35,7 @@ import org.springframework.boot.env.PropertiesPropertySourceLoader;
 import org.springframework.boot.env.PropertySourceLoader;
 import org.springframework.core.env.EnumerablePropertySource;
 import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.DescriptiveResource;
 import org.springframework.core.io.support.SpringFactoriesLoader;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
@@ -48,8 +52,17 @@ public final class NacosDataParserHandler {
 	 */
 	private static final String DEFAULT_EXTENSION = "properties";
 
+	private static final String PROPERTIES_EXTENSION = "properties";
+
 	private static List<PropertySourceLoader> propertySourceLoaders;
 
+	/**
+	 * loader resolved for each file extension, the extensions are few and come from the
+	 * configured dataIds, so the cache stays small.
+	 */
+	private final Map<String, Optional<PropertySourceLoader>> loaderCache = new ConcurrentHashMap<>(
+			8);
+
 	private NacosDataParserHandler() {
 		propertySourceLoaders = SpringFactoriesLoader
 				.loadFactories(PropertySourceLoader.class, getClass().getClassLoader());
@@ -71,46 +84,71 @@ public final class NacosDataParserHandler {
 		if (StringUtils.isEmpty(extension)) {
 			extension = this.getFileExtension(configName);
 		}
-		for (PropertySourceLoader propertySourceLoader : propertySourceLoaders) {
-			if (!canLoadFileExtension(propertySourceLoader, extension)) {
-				continue;
-			}
-			NacosByteArrayResource nacosByteArrayResource;
-			if (propertySourceLoader instanceof PropertiesPropertySourceLoader) {
-				// PropertiesPropertySourceLoader internal is to use the ISO_8859_1,
-				// the Chinese will be garbled, needs to transform into unicode.
-				nacosByteArrayResource = new NacosByteArrayResource(
-						NacosConfigUtils.selectiveConvertUnicode(configValue).getBytes(),
-						configName);
-			}
-			else {
-				nacosByteArrayResource = new NacosByteArrayResource(
-						configValue.getBytes(), configName);
-			}
-			nacosByteArrayResource.setFilename(getFileName(configName, extension));
-			List<PropertySource<?>> propertySourceList = propertySourceLoader
-					.load(configName, nacosByteArrayResource);
-			if (CollectionUtils.isEmpty(propertySourceList)) {
-				return Collections.emptyList();
-			}
-			return propertySourceList.stream().filter(Objects::nonNull)
-					.map(propertySource -> {
-						if (propertySource instanceof EnumerablePropertySource) {
-							String[] propertyNames = ((EnumerablePropertySource) propertySource)
-									.getPropertyNames();
-							if (propertyNames != null && propertyNames.length > 0) {
-								Map<String, Object> map = new LinkedHashMap<>();
-								Arrays.stream(propertyNames).forEach(name -> {
-									map.put(name, propertySource.getProperty(name));
-								});
-								return new OriginTrackedMapPropertySource(
-										propertySource.getName(), map, true);
-							}
+		PropertySourceLoader propertySourceLoader = getPropertySourceLoader(extension);
+		if (propertySourceLoader == null) {
+			return Collections.emptyList();
+		}
+		if (propertySourceLoader instanceof PropertiesPropertySourceLoader
+				&& StringUtils.endsWithIgnoreCase(extension, PROPERTIES_EXTENSION)) {
+			return parseProperties(configName, configValue);
+		}
+		NacosByteArrayResource nacosByteArrayResource;
+		if (propertySourceLoader instanceof PropertiesPropertySourceLoader) {
+			// PropertiesPropertySourceLoader internal is to use the ISO_8859_1,
+			// the Chinese will be garbled, needs to transform into unicode.
+			nacosByteArrayResource = new NacosByteArrayResource(
+					NacosConfigUtils.selectiveConvertUnicode(configValue).getBytes(),
+					configName);
+		}
+		else {
+			nacosByteArrayResource = new NacosByteArrayResource(
+					configValue.getBytes(StandardCharsets.UTF_8), configName);
+		}
+		nacosByteArrayResource.setFilename(getFileName(configName, extension));
+		List<PropertySource<?>> propertySourceList = propertySourceLoader.load(configName,
+				nacosByteArrayResource);
+		if (CollectionUtils.isEmpty(propertySourceList)) {
+			return Collections.emptyList();
+		}
+		return propertySourceList.stream().filter(Objects::nonNull)
+				.map(propertySource -> {
+					if (propertySource instanceof EnumerablePropertySource) {
+						String[] propertyNames = ((EnumerablePropertySource) propertySource)
+								.getPropertyNames();
+						if (propertyNames != null && propertyNames.length > 0) {
+							Map<String, Object> map = new LinkedHashMap<>();
+							Arrays.stream(propertyNames).forEach(name -> {
+								map.put(name, propertySource.getProperty(name));
+							});
+							return new OriginTrackedMapPropertySource(
+									propertySource.getName(), map, true);
 						}
-						return propertySource;
-					}).collect(Collectors.toList());
+					}
+					return propertySource;
+				}).collect(Collectors.toList());
+	}
+
+	/**
+	 * Parse properties content in a single pass, with the same result as the
+	 * {@link PropertiesPropertySourceLoader} but without escaping non ASCII characters
+	 * first and copying the properties afterwards.
+	 */
+	private List<PropertySource<?>> parseProperties(String configName,
+			String configValue) {
+		Map<String, Object> properties = NacosPropertiesParser.parse(configValue,
+				new DescriptiveResource(configName));
+		if (properties.isEmpty()) {
+			return Collections.emptyList();
 		}
-		return Collections.emptyList();
+		return Collections.singletonList(
+				new OriginTrackedMapPropertySource(configName, properties, true));
+	}
+
+	private PropertySourceLoader getPropertySourceLoader(String extension) {
+		return loaderCache
+				.computeIfAbsent(extension, key -> propertySourceLoaders.stream()
+						.filter(loader -> canLoadFileExtension(loader, key)).findFirst())
+				.orElse(null);
 	}
 
 	/**
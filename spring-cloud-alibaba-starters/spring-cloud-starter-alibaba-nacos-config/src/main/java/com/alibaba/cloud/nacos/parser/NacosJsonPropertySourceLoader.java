@@ -17,12 +17,18 @@
 package com.alibaba.cloud.nacos.parser;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 import org.springframework.boot.env.OriginTrackedMapPropertySource;
 import org.springframework.core.env.PropertySource;
@@ -38,6 +44,13 @@ public class NacosJsonPropertySourceLoader extends AbstractPropertySourceLoader
 	 */
 	private static final String VALUE = "value";
 
+	/**
+	 * estimated number of bytes of json per property, to size the result map.
+	 */
+	private static final int BYTES_PER_PROPERTY = 32;
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
 	/**
 	 * Returns the file extensions that the loader supports (excluding the '.').
 	 * @return the file extensions
@@ -60,19 +73,116 @@ public class NacosJsonPropertySourceLoader extends AbstractPropertySourceLoader
 	@Override
 	protected List<PropertySource<?>> doLoad(String name, Resource resource)
 			throws IOException {
-		Map<String, Object> result = new LinkedHashMap<>(32);
-		ObjectMapper mapper = new ObjectMapper();
-		Map<String, Object> nacosDataMap = mapper.readValue(resource.getInputStream(),
-				LinkedHashMap.class);
-		flattenedMap(result, nacosDataMap, null);
-		return Collections.singletonList(
-				new OriginTrackedMapPropertySource(name, this.reloadMap(result), true));
+		Map<String, Object> result = new LinkedHashMap<>(initialCapacity(resource));
+		try (InputStream inputStream = resource.getInputStream();
+				JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+			JsonToken token = parser.nextToken();
+			if (token != JsonToken.START_OBJECT) {
+				throw new JsonParseException(parser,
+						"the content of " + name + " is not a json object");
+			}
+			flattenObject(parser, new StringBuilder(64), result);
+		}
+		if (result.isEmpty()) {
+			return Collections.emptyList();
+		}
+		addValueAliases(result);
+		return Collections
+				.singletonList(new OriginTrackedMapPropertySource(name, result, true));
+	}
+
+	private static int initialCapacity(Resource resource) throws IOException {
+		long properties = resource.contentLength() / BYTES_PER_PROPERTY;
+		return (int) Math.min(Math.max(properties, 16), 1 << 16);
+	}
+
+	/**
+	 * Flatten the object the parser is at straight from the token stream into the result,
+	 * with the same keys as {@link #flattenedMap(Map, Map, String)}. The key of the
+	 * object is in the key builder, which is shared by all levels and truncated back
+	 * after each member.
+	 */
+	private static void flattenObject(JsonParser parser, StringBuilder key,
+			Map<String, Object> result) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			int length = key.length();
+			String fieldName = parser.getCurrentName();
+			if (length > 0 && !fieldName.startsWith("[")) {
+				key.append(DOT);
+			}
+			key.append(fieldName);
+			flattenValue(parser, parser.nextToken(), key, result);
+			key.setLength(length);
+		}
+	}
+
+	private static void flattenValue(JsonParser parser, JsonToken token,
+			StringBuilder key, Map<String, Object> result) throws IOException {
+		switch (token) {
+		case START_OBJECT:
+			flattenObject(parser, key, result);
+			break;
+		case START_ARRAY:
+			flattenArray(parser, key, result);
+			break;
+		case VALUE_NULL:
+			result.put(key.toString(), null);
+			break;
+		case VALUE_TRUE:
+		case VALUE_FALSE:
+			result.put(key.toString(), parser.getBooleanValue());
+			break;
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+			result.put(key.toString(), parser.getNumberValue());
+			break;
+		default:
+			result.put(key.toString(), parser.getText());
+		}
+	}
 
+	private static void flattenArray(JsonParser parser, StringBuilder key,
+			Map<String, Object> result) throws IOException {
+		int index = 0;
+		for (JsonToken element = parser
+				.nextToken(); element != JsonToken.END_ARRAY; element = parser
+						.nextToken()) {
+			int length = key.length();
+			key.append('[').append(index++).append(']');
+			flattenValue(parser, element, key, result);
+			key.setLength(length);
+		}
+	}
+
+	/**
+	 * Make the value of each key ending in `value` available without that suffix too.
+	 */
+	private static void addValueAliases(Map<String, Object> result) {
+		List<Map.Entry<String, Object>> aliases = null;
+		for (Map.Entry<String, Object> entry : result.entrySet()) {
+			String key = entry.getKey();
+			int idx = key.length() - VALUE.length() - 1;
+			if (idx >= 0 && key.charAt(idx) == DOT.charAt(0)
+					&& key.regionMatches(true, idx + 1, VALUE, 0, VALUE.length())) {
+				if (aliases == null) {
+					aliases = new ArrayList<>();
+				}
+				aliases.add(new AbstractMap.SimpleImmutableEntry<>(key.substring(0, idx),
+						entry.getValue()));
+			}
+		}
+		if (aliases != null) {
+			for (Map.Entry<String, Object> alias : aliases) {
+				result.put(alias.getKey(), alias.getValue());
+			}
+		}
 	}
 
 	/**
 	 * Reload the key ending in `value` if need.
+	 * @deprecated the value aliases are added while loading, this copies the whole map
 	 */
+	@Deprecated
 	protected Map<String, Object> reloadMap(Map<String, Object> map) {
 		if (map == null || map.isEmpty()) {
 			return null;
@@ -0,0 +1,402 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.parser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.origin.OriginTrackedValue;
+import org.springframework.boot.origin.TextResourceOrigin;
+import org.springframework.core.io.Resource;
+
+/**
+ * Parser of the content of a properties dataId, giving the same keys and values as
+ * {@link org.springframework.boot.env.PropertiesPropertySourceLoader}, including the
+ * expansion of {@code key[]=a,b} into {@code key[0]} and {@code key[1]}. It reads the
+ * content as characters, so non ASCII characters need no unicode escaping, and cuts the
+ * keys and values of lines without backslash directly out of the content. Lines with
+ * escapes or continuations are read character by character with the rules of Spring Boot.
+ */
+final class NacosPropertiesParser {
+
+	private static final byte OTHER = 0;
+
+	private static final byte WHITESPACE = 1;
+
+	private static final byte SEPARATOR = 2;
+
+	private static final byte LINE_END = 3;
+
+	private static final byte[] ASCII_TYPES = new byte[128];
+
+	private static final String LIST_SUFFIX = "[]";
+
+	private static final String ESCAPES = "trnf";
+
+	private static final String ESCAPED = "\t\r\n\f";
+
+	static {
+		ASCII_TYPES[' '] = WHITESPACE;
+		ASCII_TYPES['\t'] = WHITESPACE;
+		ASCII_TYPES['\f'] = WHITESPACE;
+		ASCII_TYPES['='] = SEPARATOR;
+		ASCII_TYPES[':'] = SEPARATOR;
+		ASCII_TYPES['\n'] = LINE_END;
+		ASCII_TYPES['\r'] = LINE_END;
+	}
+
+	private final String content;
+
+	private final Resource resource;
+
+	private final Map<String, Object> result = new LinkedHashMap<>();
+
+	/**
+	 * number of the current line, starting at 0.
+	 */
+	private int line;
+
+	/**
+	 * index of the first character of the current line.
+	 */
+	private int lineStart;
+
+	private NacosPropertiesParser(String content, Resource resource) {
+		this.content = content;
+		this.resource = resource;
+	}
+
+	/**
+	 * @param content content of a properties dataId
+	 * @param resource resource the origins of the values refer to
+	 * @return properties in the order they appear in the content, without the ones with
+	 * an empty key, with {@link OriginTrackedValue} values
+	 */
+	static Map<String, Object> parse(String content, Resource resource) {
+		NacosPropertiesParser parser = new NacosPropertiesParser(content, resource);
+		parser.parse();
+		return parser.result;
+	}
+
+	private void parse() {
+		int length = content.length();
+		int nextEscape = -1;
+		int pos = 0;
+		while (pos < length) {
+			char c = content.charAt(pos);
+			byte type = type(c);
+			if (type == LINE_END) {
+				pos = nextLine(pos);
+				continue;
+			}
+			if (type == WHITESPACE) {
+				pos++;
+				continue;
+			}
+			int lineEnd = lineEnd(content, pos);
+			if (c == '#' || c == '!') {
+				pos = lineEnd;
+				continue;
+			}
+			if (nextEscape < pos) {
+				nextEscape = content.indexOf('\\', pos);
+				if (nextEscape < 0) {
+					nextEscape = length;
+				}
+			}
+			if (nextEscape < lineEnd) {
+				pos = parseEscaped(pos, logicalLineEnd(content, lineEnd));
+				continue;
+			}
+			int keyEnd = pos;
+			while (keyEnd < lineEnd && type(content.charAt(keyEnd)) == OTHER) {
+				keyEnd++;
+			}
+			int valueStart = skipWhitespace(content, keyEnd, lineEnd);
+			if (valueStart < lineEnd && type(content.charAt(valueStart)) == SEPARATOR) {
+				valueStart = skipWhitespace(content, valueStart + 1, lineEnd);
+			}
+			if (keyEnd > pos) {
+				put(content.substring(pos, keyEnd), valueStart, lineEnd);
+			}
+			pos = lineEnd;
+		}
+	}
+
+	private void put(String key, int valueStart, int valueEnd) {
+		if (!key.endsWith(LIST_SUFFIX)) {
+			result.put(key, value(content.substring(valueStart, valueEnd), line,
+					valueStart - lineStart));
+			return;
+		}
+		String prefix = key.substring(0, key.length() - LIST_SUFFIX.length());
+		int index = 0;
+		int start = valueStart;
+		int end;
+		do {
+			start = skipWhitespace(content, start, valueEnd);
+			end = start;
+			while (end < valueEnd && content.charAt(end) != ',') {
+				end++;
+			}
+			result.put(prefix + "[" + index++ + "]",
+					value(content.substring(start, end), line, start - lineStart));
+			start = end + 1;
+		}
+		while (start < valueEnd);
+	}
+
+	private OriginTrackedValue value(String value, int line, int column) {
+		return OriginTrackedValue.of(value, new TextResourceOrigin(resource,
+				new TextResourceOrigin.Location(line, column)));
+	}
+
+	private int nextLine(int lineEnd) {
+		int pos = lineEnd + 1;
+		if (content.charAt(lineEnd) == '\r' && pos < content.length()
+				&& content.charAt(pos) == '\n') {
+			pos++;
+		}
+		line++;
+		lineStart = pos;
+		return pos;
+	}
+
+	private static byte type(char c) {
+		return c < ASCII_TYPES.length ? ASCII_TYPES[c] : OTHER;
+	}
+
+	private static int lineEnd(String content, int pos) {
+		int length = content.length();
+		while (pos < length && type(content.charAt(pos)) != LINE_END) {
+			pos++;
+		}
+		return pos;
+	}
+
+	private static int skipWhitespace(String content, int pos, int end) {
+		while (pos < end && type(content.charAt(pos)) == WHITESPACE) {
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 * A line ending with an odd number of backslashes continues on the next line.
+	 */
+	private static int logicalLineEnd(String content, int lineEnd) {
+		int length = content.length();
+		int end = lineEnd;
+		while (end < length && isContinued(content, end)) {
+			if (content.charAt(end) == '\r' && end + 1 < length
+					&& content.charAt(end + 1) == '\n') {
+				end++;
+			}
+			end = lineEnd(content, end + 1);
+		}
+		return end;
+	}
+
+	private static boolean isContinued(String content, int lineEnd) {
+		int backslashes = 0;
+		for (int i = lineEnd - 1; i >= 0 && content.charAt(i) == '\\'; i--) {
+			backslashes++;
+		}
+		return backslashes % 2 == 1;
+	}
+
+	/**
+	 * Parse a logical line with escapes or continuations like Spring Boot's
+	 * {@code OriginTrackedPropertiesLoader} does.
+	 */
+	private int parseEscaped(int pos, int end) {
+		EscapedLineReader reader = new EscapedLineReader(pos, end);
+		reader.read();
+		String key = loadKey(reader);
+		if (key.endsWith(LIST_SUFFIX)) {
+			String prefix = key.substring(0, key.length() - LIST_SUFFIX.length());
+			int index = 0;
+			do {
+				loadValue(prefix + "[" + index++ + "]", reader, true);
+				if (!reader.isEndOfLine()) {
+					reader.read();
+				}
+			}
+			while (!reader.isEndOfLine());
+		}
+		else {
+			loadValue(key, reader, false);
+		}
+		return end;
+	}
+
+	private static String loadKey(EscapedLineReader reader) {
+		StringBuilder key = new StringBuilder();
+		boolean previousWhitespace = false;
+		while (!reader.isEndOfLine()) {
+			if (reader.isSeparator()) {
+				reader.read();
+				break;
+			}
+			if (!reader.isWhitespace() && previousWhitespace) {
+				break;
+			}
+			previousWhitespace = reader.isWhitespace();
+			key.append((char) reader.character);
+			reader.read();
+		}
+		return key.toString().trim();
+	}
+
+	private void loadValue(String key, EscapedLineReader reader, boolean splitLists) {
+		while (reader.isWhitespace() && !reader.isEndOfLine()) {
+			reader.read();
+		}
+		int valueLine = reader.characterLine;
+		int valueColumn = reader.characterColumn;
+		StringBuilder value = new StringBuilder();
+		while (!reader.isEndOfLine() && !(splitLists && reader.isListDelimiter())) {
+			value.append((char) reader.character);
+			reader.read();
+		}
+		if (!key.isEmpty()) {
+			result.put(key, value(value.toString(), valueLine, valueColumn));
+		}
+	}
+
+	private static int hexDigit(int c) {
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+		if (c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		}
+		if (c >= 'A' && c <= 'F') {
+			return c - 'A' + 10;
+		}
+		return -1;
+	}
+
+	/**
+	 * Reads the characters of a logical line, resolving escapes and continuations, and
+	 * keeps {@link #line} and {@link #lineStart} up to date.
+	 */
+	private final class EscapedLineReader {
+
+		private final int end;
+
+		private int pos;
+
+		private int character;
+
+		private boolean escaped;
+
+		private int characterLine;
+
+		private int characterColumn;
+
+		private EscapedLineReader(int pos, int end) {
+			this.pos = pos;
+			this.end = end;
+		}
+
+		private void read() {
+			escaped = false;
+			character = next();
+			int startLine = characterLine;
+			int startColumn = characterColumn;
+			while (character == '\\') {
+				int escapedCharacter = next();
+				if (escapedCharacter == '\n') {
+					// continued, the leading whitespace of the next line is skipped
+					do {
+						character = next();
+					}
+					while (character == ' ' || character == '\t' || character == '\f');
+					startLine = characterLine;
+					startColumn = characterColumn;
+					continue;
+				}
+				escaped = true;
+				int escapeIndex = ESCAPES.indexOf(escapedCharacter);
+				if (escapeIndex != -1) {
+					character = ESCAPED.charAt(escapeIndex);
+				}
+				else if (escapedCharacter == 'u') {
+					character = readUnicode();
+				}
+				else {
+					character = escapedCharacter;
+				}
+				break;
+			}
+			characterLine = startLine;
+			characterColumn = startColumn;
+		}
+
+		private int next() {
+			characterLine = line;
+			characterColumn = pos - lineStart;
+			if (pos >= end) {
+				return -1;
+			}
+			char c = content.charAt(pos++);
+			if (c == '\r') {
+				if (pos < end && content.charAt(pos) == '\n') {
+					pos++;
+				}
+				c = '\n';
+			}
+			if (c == '\n') {
+				line++;
+				lineStart = pos;
+			}
+			return c;
+		}
+
+		private int readUnicode() {
+			int value = 0;
+			for (int i = 0; i < 4; i++) {
+				int digit = hexDigit(next());
+				if (digit < 0) {
+					throw new IllegalStateException("Malformed \\uxxxx encoding.");
+				}
+				value = (value << 4) + digit;
+			}
+			return value;
+		}
+
+		private boolean isEndOfLine() {
+			return character == -1 || (!escaped && character == '\n');
+		}
+
+		private boolean isWhitespace() {
+			return !escaped
+					&& (character == ' ' || character == '\t' || character == '\f');
+		}
+
+		private boolean isSeparator() {
+			return !escaped && (character == '=' || character == ':');
+		}
+
+		private boolean isListDelimiter() {
+			return !escaped && character == ',';
+		}
+
+	}
+
+}
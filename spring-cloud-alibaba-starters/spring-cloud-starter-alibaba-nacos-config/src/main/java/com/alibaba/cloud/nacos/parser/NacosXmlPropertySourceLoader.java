@@ -17,25 +17,23 @@
 package com.alibaba.cloud.nacos.parser;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.springframework.boot.env.OriginTrackedMapPropertySource;
 import org.springframework.boot.env.PropertiesPropertySourceLoader;
 import org.springframework.core.Ordered;
 import org.springframework.core.env.PropertySource;
 import org.springframework.core.io.Resource;
-import org.springframework.util.StringUtils;
 
 /**
  * Parsing for XML requires overwriting the default
@@ -48,6 +46,18 @@ import org.springframework.util.StringUtils;
 public class NacosXmlPropertySourceLoader extends AbstractPropertySourceLoader
 		implements Ordered {
 
+	/**
+	 * property of the JDK reader reporting cdata sections as events of their own.
+	 */
+	private static final String REPORT_CDATA_EVENT = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+	/**
+	 * shared by all loads, a configured factory is safe to use concurrently. DTDs and
+	 * external entities are not supported, and namespaces are not processed so prefixed
+	 * names keep their prefix.
+	 */
+	private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
 	/**
 	 * Get the order value of this object.
 	 * <p>
@@ -95,73 +105,118 @@ public class NacosXmlPropertySourceLoader extends AbstractPropertySourceLoader
 
 	private Map<String, Object> parseXml2Map(Resource resource) throws IOException {
 		Map<String, Object> map = new LinkedHashMap<>(32);
-		try {
-			DocumentBuilder documentBuilder = DocumentBuilderFactory.newInstance()
-					.newDocumentBuilder();
-			Document document = documentBuilder.parse(resource.getInputStream());
-			if (null == document) {
-				return null;
+		try (InputStream inputStream = resource.getInputStream()) {
+			XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+			try {
+				parseChildren(reader, new StringBuilder(64), map);
+			}
+			finally {
+				reader.close();
 			}
-			parseNodeList(document.getChildNodes(), map, "");
 		}
-		catch (Exception e) {
-			throw new IOException("The xml content parse error.", e.getCause());
+		catch (XMLStreamException e) {
+			throw new IOException("The xml content parse error.", e);
 		}
 		return map;
 	}
 
-	private void parseNodeList(NodeList nodeList, Map<String, Object> map,
-			String parentKey) {
-		if (nodeList == null || nodeList.getLength() < 1) {
-			return;
-		}
-		parentKey = parentKey == null ? "" : parentKey;
-		for (int i = 0; i < nodeList.getLength(); i++) {
-			Node node = nodeList.item(i);
-			String value = node.getNodeValue();
-			value = value == null ? "" : value.trim();
-			String name = node.getNodeName();
-			name = name == null ? "" : name.trim();
-
-			if (StringUtils.isEmpty(name)) {
-				continue;
-			}
-
-			String key = StringUtils.isEmpty(parentKey) ? name : parentKey + DOT + name;
-			NamedNodeMap nodeMap = node.getAttributes();
-			parseNodeAttr(nodeMap, map, key);
-			if (node.getNodeType() == Node.ELEMENT_NODE && node.hasChildNodes()) {
-				parseNodeList(node.getChildNodes(), map, key);
+	/**
+	 * Read the content of the element the reader is at, up to its end tag, in one pass.
+	 * The key of the element is in the key builder, which is shared by all levels and
+	 * truncated back after each child element. As before, each attribute is put under the
+	 * key of its element followed by its name, and every non blank text, cdata, comment
+	 * and processing instruction is put under the key of its element, so the last one
+	 * wins.
+	 */
+	private static void parseChildren(XMLStreamReader reader, StringBuilder key,
+			Map<String, Object> map) throws XMLStreamException {
+		StringBuilder text = new StringBuilder();
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.CHARACTERS
+					|| event == XMLStreamConstants.SPACE) {
+				// a text may be reported in several events
+				text.append(reader.getTextCharacters(), reader.getTextStart(),
+						reader.getTextLength());
 				continue;
 			}
-			if (value.length() < 1) {
-				continue;
+			putValue(text, key, map);
+			text.setLength(0);
+			switch (event) {
+			case XMLStreamConstants.START_ELEMENT:
+				parseElement(reader, key, map);
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+			case XMLStreamConstants.END_DOCUMENT:
+				return;
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.COMMENT:
+				putValue(reader.getText(), key, map);
+				break;
+			case XMLStreamConstants.PROCESSING_INSTRUCTION:
+				putValue(reader.getPIData(), key, map);
+				break;
+			default:
 			}
-			map.put(parentKey, value);
 		}
 	}
 
-	private void parseNodeAttr(NamedNodeMap nodeMap, Map<String, Object> map,
-			String parentKey) {
-		if (null == nodeMap || nodeMap.getLength() < 1) {
+	private static void parseElement(XMLStreamReader reader, StringBuilder key,
+			Map<String, Object> map) throws XMLStreamException {
+		int length = key.length();
+		if (length > 0) {
+			key.append(DOT);
+		}
+		key.append(reader.getLocalName());
+		putAttributes(reader, key, map);
+		parseChildren(reader, key, map);
+		key.setLength(length);
+	}
+
+	/**
+	 * Put the attributes in the order of their names, as the DOM based parsing did.
+	 */
+	private static void putAttributes(XMLStreamReader reader, StringBuilder key,
+			Map<String, Object> map) {
+		int count = reader.getAttributeCount();
+		if (count == 0) {
 			return;
 		}
-		for (int i = 0; i < nodeMap.getLength(); i++) {
-			Node node = nodeMap.item(i);
-			if (null == node) {
-				continue;
-			}
-			if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
-				if (StringUtils.isEmpty(node.getNodeName())) {
-					continue;
-				}
-				if (StringUtils.isEmpty(node.getNodeValue())) {
-					continue;
-				}
-				map.put(String.join(DOT, parentKey, node.getNodeName()),
-						node.getNodeValue());
+		Map<String, String> attributes = new TreeMap<>();
+		for (int i = 0; i < count; i++) {
+			String value = reader.getAttributeValue(i);
+			if (value != null && !value.isEmpty()) {
+				String prefix = reader.getAttributePrefix(i);
+				String name = reader.getAttributeLocalName(i);
+				attributes.put(
+						prefix == null || prefix.isEmpty() ? name : prefix + ':' + name,
+						value);
 			}
 		}
+		attributes.forEach((name, value) -> map.put(key + DOT + name, value));
+	}
+
+	private static void putValue(CharSequence value, StringBuilder key,
+			Map<String, Object> map) {
+		if (value == null || value.length() == 0) {
+			return;
+		}
+		String trimmed = value.toString().trim();
+		if (!trimmed.isEmpty()) {
+			map.put(key.toString(), trimmed);
+		}
+	}
+
+	private static XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+		if (factory.isPropertySupported(REPORT_CDATA_EVENT)) {
+			// a cdata section is a value of its own, not part of the text around it
+			factory.setProperty(REPORT_CDATA_EVENT, true);
+		}
+		return factory;
 	}
 
 }
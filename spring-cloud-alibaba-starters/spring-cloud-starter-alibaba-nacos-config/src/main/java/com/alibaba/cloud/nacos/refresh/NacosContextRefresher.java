@@ -16,15 +16,24 @@
 
 package com.alibaba.cloud.nacos.refresh;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.cloud.nacos.NacosPropertySourceRegistry;
 import com.alibaba.cloud.nacos.NacosPropertySourceRepository;
 import com.alibaba.cloud.nacos.client.NacosPropertySource;
+import com.alibaba.cloud.nacos.client.NacosPropertySourceBuilder;
 import com.alibaba.nacos.api.config.ConfigService;
 import com.alibaba.nacos.api.config.listener.AbstractSharedListener;
 import com.alibaba.nacos.api.config.listener.Listener;
@@ -32,22 +41,31 @@ import com.alibaba.nacos.api.exception.NacosException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.bootstrap.config.BootstrapPropertySource;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.cloud.endpoint.event.RefreshEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
  * On application start up, NacosContextRefresher add nacos listeners to all application
  * level dataIds, when there is a change in the data, listeners will refresh
- * configurations.
+ * configurations. With targeted refresh enabled, only the property source of the changed
+ * dataId is replaced. Refreshes of the whole configuration can be debounced, so that
+ * changes published together are applied at once.
  *
  * @author juven.xuxb
  * @author pbting
  */
-public class NacosContextRefresher
-		implements ApplicationListener<ApplicationReadyEvent>, ApplicationContextAware {
+public class NacosContextRefresher implements ApplicationListener<ApplicationReadyEvent>,
+		ApplicationContextAware, DisposableBean {
 
 	private final static Logger log = LoggerFactory
 			.getLogger(NacosContextRefresher.class);
@@ -62,17 +80,35 @@ public class NacosContextRefresher
 
 	private final ConfigService configService;
 
+	private final NacosPropertySourceRegistry propertySourceRegistry;
+
 	private ApplicationContext applicationContext;
 
 	private AtomicBoolean ready = new AtomicBoolean(false);
 
 	private Map<String, Listener> listenerMap = new ConcurrentHashMap<>(16);
 
+	private final Object debounceMonitor = new Object();
+
+	private ScheduledExecutorService debounceExecutor;
+
+	private long debounceGeneration;
+
+	private long debounceDeadline;
+
+	private int debouncedChanges;
+
+	/**
+	 * set once destroyed, pushes arriving afterwards are not scheduled any more.
+	 */
+	private boolean debounceDestroyed;
+
 	public NacosContextRefresher(NacosConfigManager nacosConfigManager,
 			NacosRefreshHistory refreshHistory) {
 		this.nacosConfigProperties = nacosConfigManager.getNacosConfigProperties();
 		this.nacosRefreshHistory = refreshHistory;
 		this.configService = nacosConfigManager.getConfigService();
+		this.propertySourceRegistry = nacosConfigManager.getPropertySourceRegistry();
 		this.isRefreshEnabled = this.nacosConfigProperties.isRefreshEnabled();
 	}
 
@@ -89,6 +125,7 @@ public class NacosContextRefresher
 		this.isRefreshEnabled = refreshProperties.isEnabled();
 		this.nacosRefreshHistory = refreshHistory;
 		this.configService = configService;
+		this.propertySourceRegistry = null;
 	}
 
 	@Override
@@ -109,8 +146,7 @@ public class NacosContextRefresher
 	 */
 	private void registerNacosListenersForApplications() {
 		if (isRefreshEnabled()) {
-			for (NacosPropertySource propertySource : NacosPropertySourceRepository
-					.getAll()) {
+			for (NacosPropertySource propertySource : getNacosPropertySources()) {
 				if (!propertySource.isRefreshable()) {
 					continue;
 				}
@@ -128,10 +164,13 @@ public class NacosContextRefresher
 					public void innerReceive(String dataId, String group,
 							String configInfo) {
 						refreshCountIncrement();
-						nacosRefreshHistory.addRefreshRecord(dataId, group, configInfo);
-						// todo feature: support single refresh for listening
-						applicationContext.publishEvent(
-								new RefreshEvent(this, null, "Refresh Nacos config"));
+						Set<String> changedKeys = refreshDataId(dataId, group,
+								configInfo);
+						nacosRefreshHistory.addRefreshRecord(dataId, group, configInfo,
+								changedKeys);
+						if (changedKeys == null) {
+							refresh();
+						}
 						if (log.isDebugEnabled()) {
 							log.debug(String.format(
 									"Refresh Nacos config group=%s,dataId=%s,configInfo=%s",
@@ -149,6 +188,165 @@ public class NacosContextRefresher
 		}
 	}
 
+	/**
+	 * Refresh the whole configuration, once the debounce window passed without further
+	 * changes if debounced.
+	 */
+	private void refresh() {
+		long window = nacosConfigProperties == null ? 0
+				: nacosConfigProperties.getRefreshDebounceWindow();
+		if (window <= 0) {
+			nacosRefreshHistory.recordRefresh(1);
+			applicationContext
+					.publishEvent(new RefreshEvent(this, null, "Refresh Nacos config"));
+			return;
+		}
+		synchronized (debounceMonitor) {
+			if (debounceDestroyed) {
+				return;
+			}
+			long now = System.currentTimeMillis();
+			if (debouncedChanges == 0) {
+				debounceDeadline = now + Math.max(window,
+						nacosConfigProperties.getRefreshDebounceMaxDelay());
+			}
+			debouncedChanges++;
+			long generation = ++debounceGeneration;
+			if (debounceExecutor == null) {
+				CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+						"Nacos-Config-Refresh-");
+				threadFactory.setDaemon(true);
+				debounceExecutor = Executors
+						.newSingleThreadScheduledExecutor(threadFactory);
+			}
+			debounceExecutor.schedule(() -> refreshDebounced(generation),
+					Math.min(now + window, debounceDeadline) - now,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void refreshDebounced(long generation) {
+		int changes;
+		synchronized (debounceMonitor) {
+			// superseded by a later change
+			if (generation != debounceGeneration) {
+				return;
+			}
+			changes = debouncedChanges;
+			debouncedChanges = 0;
+		}
+		nacosRefreshHistory.recordRefresh(changes);
+		applicationContext.publishEvent(new RefreshEvent(this, null,
+				"Refresh Nacos config, " + changes + " changes"));
+	}
+
+	@Override
+	public void destroy() {
+		synchronized (debounceMonitor) {
+			debounceDestroyed = true;
+			if (debounceExecutor != null) {
+				debounceExecutor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Replace the property source of the changed dataId with one parsed from the pushed
+	 * content, and publish an {@link EnvironmentChangeEvent} with the keys it changed.
+	 * @return the changed keys, or {@code null} if the whole configuration has to be
+	 * refreshed instead
+	 */
+	private synchronized Set<String> refreshDataId(String dataId, String group,
+			String configInfo) {
+		if (nacosConfigProperties == null
+				|| !nacosConfigProperties.isTargetedRefreshEnabled()
+				|| !(applicationContext
+						.getEnvironment() instanceof ConfigurableEnvironment)) {
+			return null;
+		}
+		NacosPropertySource previous = getNacosPropertySource(dataId, group);
+		if (previous == null || previous.containsProperty(previous.getName())) {
+			// content made of several documents is not flattened into keys
+			return null;
+		}
+		MutablePropertySources propertySources = ((ConfigurableEnvironment) applicationContext
+				.getEnvironment()).getPropertySources();
+		PropertySource<?> current = findPropertySource(propertySources,
+				previous.getName());
+		if (current == null) {
+			return null;
+		}
+		NacosPropertySource next;
+		try {
+			next = NacosPropertySourceBuilder.build(dataId, group,
+					previous.getFileExtension(), previous.isRefreshable(), configInfo);
+		}
+		catch (Exception e) {
+			log.warn(String.format(
+					"parse nacos config fail, refresh all, dataId=[%s],group=[%s]",
+					dataId, group), e);
+			return null;
+		}
+		if (next.containsProperty(next.getName())) {
+			return null;
+		}
+		Set<String> keys = changedKeys(previous.getSource(), next.getSource());
+		propertySources.replace(current.getName(),
+				current instanceof BootstrapPropertySource
+						? new BootstrapPropertySource<>(next) : next);
+		NacosPropertySourceRepository.replaceNacosPropertySource(next);
+		if (propertySourceRegistry != null) {
+			propertySourceRegistry.register(next);
+		}
+		if (!keys.isEmpty()) {
+			applicationContext
+					.publishEvent(new EnvironmentChangeEvent(applicationContext, keys));
+		}
+		return keys;
+	}
+
+	private Collection<NacosPropertySource> getNacosPropertySources() {
+		return propertySourceRegistry != null
+				? propertySourceRegistry.getSnapshot().getAll()
+				: NacosPropertySourceRepository.getAll();
+	}
+
+	private NacosPropertySource getNacosPropertySource(String dataId, String group) {
+		return propertySourceRegistry != null ? propertySourceRegistry.get(dataId, group)
+				: NacosPropertySourceRepository.getNacosPropertySource(dataId, group);
+	}
+
+	private static PropertySource<?> findPropertySource(
+			MutablePropertySources propertySources, String name) {
+		for (PropertySource<?> propertySource : propertySources) {
+			if (name.equals(propertySource.getName())) {
+				return propertySource;
+			}
+			if (propertySource instanceof BootstrapPropertySource
+					&& name.equals(((BootstrapPropertySource<?>) propertySource)
+							.getDelegate().getName())) {
+				return propertySource;
+			}
+		}
+		return null;
+	}
+
+	private static Set<String> changedKeys(Map<String, Object> previous,
+			Map<String, Object> next) {
+		Set<String> keys = new LinkedHashSet<>();
+		previous.forEach((key, value) -> {
+			if (!Objects.equals(value, next.get(key))) {
+				keys.add(key);
+			}
+		});
+		next.keySet().forEach(key -> {
+			if (!previous.containsKey(key)) {
+				keys.add(key);
+			}
+		});
+		return keys;
+	}
+
 	public NacosConfigProperties getNacosConfigProperties() {
 		return nacosConfigProperties;
 	}
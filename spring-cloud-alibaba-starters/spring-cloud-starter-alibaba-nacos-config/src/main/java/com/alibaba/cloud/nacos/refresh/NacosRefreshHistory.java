@@ -16,42 +16,41 @@
 
 package com.alibaba.cloud.nacos.refresh;
 
-import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
-import java.util.Map;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 
+/**
+ * The latest config changes received from Nacos, newest first. Listener threads add
+ * records to a fixed ring without locking, a record whose slot was taken by a newer one
+ * before it was read is skipped.
+ */
 public class NacosRefreshHistory {
 
-	private final static Logger log = LoggerFactory.getLogger(NacosRefreshHistory.class);
-
 	private static final int MAX_SIZE = 20;
 
-	private final LinkedList<Record> records = new LinkedList<>();
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter
+			.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-	private final ThreadLocal<DateFormat> DATE_FORMAT = ThreadLocal
-			.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"));
+	private final AtomicReferenceArray<Record> records = new AtomicReferenceArray<>(
+			MAX_SIZE);
 
-	private MessageDigest md;
+	private final AtomicLong sequence = new AtomicLong();
 
-	public NacosRefreshHistory() {
-		try {
-			md = MessageDigest.getInstance("MD5");
-		}
-		catch (NoSuchAlgorithmException e) {
-			log.error("failed to initialize MessageDigest : ", e);
-		}
-	}
+	private final LongAdder refreshes = new LongAdder();
+
+	private final LongAdder coalescedRefreshes = new LongAdder();
 
 	/**
 	 * recommend to use
@@ -61,43 +60,87 @@ public class NacosRefreshHistory {
 	 */
 	@Deprecated
 	public void add(String dataId, String md5) {
-		records.addFirst(
-				new Record(DATE_FORMAT.get().format(new Date()), dataId, "", md5, null));
-		if (records.size() > MAX_SIZE) {
-			records.removeLast();
-		}
+		addRecord(dataId, "", md5, null);
 	}
 
 	public void addRefreshRecord(String dataId, String group, String data) {
-		records.addFirst(new Record(DATE_FORMAT.get().format(new Date()), dataId, group,
-				md5(data), null));
-		if (records.size() > MAX_SIZE) {
-			records.removeLast();
-		}
+		addRefreshRecord(dataId, group, data, null);
 	}
 
+	/**
+	 * Record a config change.
+	 * @param dataId dataId
+	 * @param group group
+	 * @param data new content
+	 * @param changedKeys keys of the properties the change added, removed or modified, or
+	 * {@code null} if unknown
+	 */
+	public void addRefreshRecord(String dataId, String group, String data,
+			Collection<String> changedKeys) {
+		addRecord(dataId, group, md5(data), changedKeys);
+	}
+
+	/**
+	 * Record a refresh of the whole configuration.
+	 * @param changes number of config changes the refresh applies, more than one if
+	 * changes were coalesced
+	 */
+	public void recordRefresh(int changes) {
+		refreshes.increment();
+		coalescedRefreshes.add(Math.max(0, changes - 1));
+	}
+
+	/**
+	 * @return number of refreshes of the whole configuration
+	 */
+	public long getRefreshes() {
+		return refreshes.sum();
+	}
+
+	/**
+	 * @return number of refreshes saved by coalescing config changes
+	 */
+	public long getCoalescedRefreshes() {
+		return coalescedRefreshes.sum();
+	}
+
+	/**
+	 * @return copy of the latest records, newest first
+	 */
 	public LinkedList<Record> getRecords() {
-		return records;
+		LinkedList<Record> result = new LinkedList<>();
+		long last = sequence.get();
+		for (long i = last - 1; i >= 0 && i >= last - MAX_SIZE; i--) {
+			Record record = records.get(slot(i));
+			if (record != null && record.sequence == i) {
+				result.add(record);
+			}
+		}
+		return result;
+	}
+
+	private void addRecord(String dataId, String group, String md5,
+			Collection<String> changedKeys) {
+		long next = sequence.getAndIncrement();
+		records.set(slot(next), new Record(next, LocalDateTime.now().format(DATE_FORMAT),
+				dataId, group, md5, changedKeys));
+	}
+
+	private static int slot(long sequence) {
+		return (int) (sequence % MAX_SIZE);
 	}
 
-	private String md5(String data) {
+	private static String md5(String data) {
 		if (StringUtils.isEmpty(data)) {
 			return null;
 		}
-		if (null == md) {
-			try {
-				md = MessageDigest.getInstance("MD5");
-			}
-			catch (NoSuchAlgorithmException ignored) {
-				return "unable to get md5";
-			}
-		}
-		return new BigInteger(1, md.digest(data.getBytes(StandardCharsets.UTF_8)))
-				.toString(16);
+		return DigestUtils.md5DigestAsHex(data.getBytes(StandardCharsets.UTF_8));
 	}
 
 	static class Record {
 
+		private final long sequence;
+
 		private final String timestamp;
 
 		private final String dataId;
@@ -106,12 +149,17 @@ public class NacosRefreshHistory {
 
 		private final String md5;
 
-		Record(String timestamp, String dataId, String group, String md5,
-				Map<String, Object> last) {
+		private final Set<String> changedKeys;
+
+		Record(long sequence, String timestamp, String dataId, String group, String md5,
+				Collection<String> changedKeys) {
+			this.sequence = sequence;
 			this.timestamp = timestamp;
 			this.dataId = dataId;
 			this.group = group;
 			this.md5 = md5;
+			this.changedKeys = changedKeys == null ? null
+					: Collections.unmodifiableSet(new LinkedHashSet<>(changedKeys));
 		}
 
 		public String getTimestamp() {
@@ -130,6 +178,14 @@ public class NacosRefreshHistory {
 			return md5;
 		}
 
+		/**
+		 * @return keys of the properties the change added, removed or modified, or
+		 * {@code null} if unknown
+		 */
+		public Set<String> getChangedKeys() {
+			return changedKeys;
+		}
+
 	}
 
 }
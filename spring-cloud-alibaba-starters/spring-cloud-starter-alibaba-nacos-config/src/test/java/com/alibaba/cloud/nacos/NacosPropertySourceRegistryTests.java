@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import com.alibaba.cloud.nacos.client.NacosPropertySource;
+import com.alibaba.cloud.nacos.client.NacosPropertySourceBuilder;
+import org.junit.Test;
+
+import org.springframework.cloud.bootstrap.config.BootstrapPropertySource;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.CompositePropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NacosPropertySourceRegistryTests {
+
+	@Test
+	public void testReplaceCreatesNewSnapshot() throws Exception {
+		NacosPropertySourceRegistry registry = new NacosPropertySourceRegistry();
+		NacosPropertySource first = propertySource("app.properties", "1");
+		NacosPropertySource shared = propertySource("shared.properties", "1");
+		registry.register(first);
+		registry.register(shared);
+		NacosPropertySourceRegistry.Snapshot before = registry.getSnapshot();
+
+		NacosPropertySource replaced = propertySource("app.properties", "2");
+		registry.register(replaced);
+		registry.register(replaced);
+
+		assertThat(registry.getSnapshot().getVersion())
+				.isEqualTo(before.getVersion() + 1);
+		assertThat(registry.getSnapshot().getAll()).containsExactly(replaced, shared);
+		assertThat(registry.get("app.properties", "DEFAULT_GROUP")).isSameAs(replaced);
+		assertThat(before.get("app.properties", "DEFAULT_GROUP")).isSameAs(first);
+		assertThat(registry.get("app.properties", "OTHER_GROUP")).isNull();
+	}
+
+	@Test
+	public void testRegisterFromEnvironmentAfterChange() throws Exception {
+		NacosPropertySourceRegistry registry = new NacosPropertySourceRegistry();
+		registry.register(propertySource("app.properties", "1"));
+		NacosPropertySource refreshed = propertySource("app.properties", "2");
+		NacosPropertySource nested = propertySource("nested.properties", "1");
+		CompositePropertySource composite = new CompositePropertySource("NACOS");
+		composite.addPropertySource(nested);
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.getEnvironment().getPropertySources()
+				.addFirst(new BootstrapPropertySource<>(refreshed));
+		context.getEnvironment().getPropertySources().addLast(composite);
+
+		registry.onApplicationEvent(
+				new EnvironmentChangeEvent(context, Collections.singleton("key")));
+
+		assertThat(registry.get("app.properties", "DEFAULT_GROUP")).isSameAs(refreshed);
+		assertThat(registry.get("nested.properties", "DEFAULT_GROUP")).isSameAs(nested);
+	}
+
+	private static NacosPropertySource propertySource(String dataId, String value)
+			throws IOException {
+		return NacosPropertySourceBuilder.build(dataId, "DEFAULT_GROUP", "properties",
+				true, "key=" + value);
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import com.alibaba.nacos.api.common.Constants;
+import com.alibaba.nacos.api.config.ConfigService;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NacosConfigSnapshotTests {
+
+	/**
+	 * directory of the snapshots.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testOnlyChangedConfigsAreDownloaded() throws Exception {
+		NacosConfigSnapshot previous = new NacosConfigSnapshot(folder.getRoot(), "dev",
+				md5s -> Collections.emptySet());
+		previous.save("unchanged.properties", "DEFAULT_GROUP", "source=snapshot");
+		previous.save("changed.properties", "DEFAULT_GROUP", "source=snapshot");
+
+		NacosConfigSnapshot snapshot = new NacosConfigSnapshot(folder.getRoot(), "dev",
+				md5s -> {
+					assertThat(md5s).containsEntry("unchanged.properties,DEFAULT_GROUP",
+							NacosConfigSnapshot.md5("source=snapshot"));
+					return Collections.singleton("changed.properties,DEFAULT_GROUP");
+				});
+		snapshot.validate(Arrays.asList("unchanged.properties,DEFAULT_GROUP",
+				"changed.properties,DEFAULT_GROUP", "missing.properties,DEFAULT_GROUP"));
+
+		ConfigService configService = mock(ConfigService.class);
+		when(configService.getConfig(anyString(), anyString(), anyLong()))
+				.thenReturn("source=server");
+		NacosPropertySourceBuilder builder = new NacosPropertySourceBuilder(configService,
+				3000);
+		builder.setConfigSnapshot(snapshot);
+
+		assertThat(
+				builder.build("unchanged.properties", "DEFAULT_GROUP", "properties", true)
+						.getProperty("source")).isEqualTo("snapshot");
+		assertThat(
+				builder.build("changed.properties", "DEFAULT_GROUP", "properties", true)
+						.getProperty("source")).isEqualTo("server");
+		verify(configService, never()).getConfig("unchanged.properties", "DEFAULT_GROUP",
+				3000);
+		assertThat(snapshot.getValidatedContent("missing.properties", "DEFAULT_GROUP"))
+				.isNull();
+	}
+
+	@Test
+	public void testFailedValidationAndCorruptSnapshotAreIgnored() throws Exception {
+		NacosConfigSnapshot previous = new NacosConfigSnapshot(folder.getRoot(), null,
+				md5s -> Collections.emptySet());
+		previous.save("app.properties", "DEFAULT_GROUP", "source=snapshot");
+		previous.save("corrupt.properties", "DEFAULT_GROUP", "source=snapshot");
+		Files.write(folder.getRoot().toPath().resolve("public/DEFAULT_GROUP")
+				.resolve("corrupt.properties"), "source=partial".getBytes());
+
+		NacosConfigSnapshot failing = new NacosConfigSnapshot(folder.getRoot(), null,
+				md5s -> {
+					throw new IllegalStateException("unreachable");
+				});
+		failing.validate(Collections.singletonList("app.properties,DEFAULT_GROUP"));
+		assertThat(failing.getValidatedContent("app.properties", "DEFAULT_GROUP"))
+				.isNull();
+
+		NacosConfigSnapshot snapshot = new NacosConfigSnapshot(folder.getRoot(), null,
+				md5s -> {
+					assertThat(md5s).containsOnlyKeys("app.properties,DEFAULT_GROUP");
+					return Collections.emptySet();
+				});
+		snapshot.validate(Arrays.asList("app.properties,DEFAULT_GROUP",
+				"corrupt.properties,DEFAULT_GROUP"));
+		assertThat(snapshot.getValidatedContent("app.properties", "DEFAULT_GROUP"))
+				.isEqualTo("source=snapshot");
+	}
+
+	@Test
+	public void testParseChangedKeys() throws Exception {
+		String response = URLEncoder.encode("a.properties" + Constants.WORD_SEPARATOR
+				+ "DEFAULT_GROUP" + Constants.LINE_SEPARATOR + "b.yaml"
+				+ Constants.WORD_SEPARATOR + "GROUP" + Constants.WORD_SEPARATOR + "dev"
+				+ Constants.LINE_SEPARATOR, "UTF-8");
+
+		assertThat(NacosConfigChangeChecker.parseChangedKeys(response))
+				.isEqualTo(new HashSet<>(
+						Arrays.asList("a.properties,DEFAULT_GROUP", "b.yaml,GROUP")));
+		assertThat(NacosConfigChangeChecker.parseChangedKeys("")).isEmpty();
+	}
+
+}
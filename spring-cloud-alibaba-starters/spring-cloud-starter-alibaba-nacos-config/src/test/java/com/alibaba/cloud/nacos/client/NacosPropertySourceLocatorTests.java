@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.client;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.cloud.nacos.NacosPropertySourceRegistry;
+import com.alibaba.nacos.api.config.ConfigService;
+import org.junit.Test;
+
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NacosPropertySourceLocatorTests {
+
+	@Test
+	public void testParallelLoadKeepsPrecedence() throws Exception {
+		NacosConfigProperties properties = new NacosConfigProperties();
+		properties.setParallelLoadEnabled(true);
+		properties.setExtensionConfigs(Collections.singletonList(
+				new NacosConfigProperties.Config("parallel-ext.properties", true)));
+		MockEnvironment environment = new MockEnvironment();
+		environment.setProperty("spring.application.name", "parallel-app");
+		environment.setActiveProfiles("dev");
+
+		// each fetch only returns once all of them are in flight
+		CountDownLatch inFlight = new CountDownLatch(4);
+		ConfigService configService = mock(ConfigService.class);
+		when(configService.getConfig(anyString(), eq("DEFAULT_GROUP"), anyLong()))
+				.thenAnswer(invocation -> {
+					inFlight.countDown();
+					if (!inFlight.await(5, TimeUnit.SECONDS)) {
+						return "";
+					}
+					return "source=" + invocation.getArgument(0);
+				});
+		NacosConfigManager configManager = mock(NacosConfigManager.class);
+		when(configManager.getNacosConfigProperties()).thenReturn(properties);
+		when(configManager.getConfigService()).thenReturn(configService);
+
+		CompositePropertySource composite = (CompositePropertySource) new NacosPropertySourceLocator(
+				configManager).locate(environment);
+
+		assertThat(composite.getPropertySources()).extracting(PropertySource::getName)
+				.containsExactly("parallel-app-dev.properties,DEFAULT_GROUP",
+						"parallel-app.properties,DEFAULT_GROUP",
+						"parallel-app,DEFAULT_GROUP",
+						"parallel-ext.properties,DEFAULT_GROUP");
+		assertThat(composite.getProperty("source"))
+				.isEqualTo("parallel-app-dev.properties");
+		NacosPropertySource first = (NacosPropertySource) composite.getPropertySources()
+				.iterator().next();
+		assertThat(first.getSource().get("source"))
+				.isEqualTo("parallel-app-dev.properties");
+		assertThat(first.getOrigin("source"))
+				.hasToString("parallel-app-dev.properties:1:8");
+	}
+
+	@Test
+	public void testExtensionConfigFileExtension() throws Exception {
+		NacosConfigProperties properties = new NacosConfigProperties();
+		properties.setExtensionConfigs(Collections.singletonList(
+				new NacosConfigProperties.Config("ext-yaml").setFileExtension("yaml")));
+		MockEnvironment environment = new MockEnvironment();
+		environment.setProperty("spring.application.name", "format-app");
+
+		ConfigService configService = mock(ConfigService.class);
+		when(configService.getConfig(eq("ext-yaml"), eq("DEFAULT_GROUP"), anyLong()))
+				.thenReturn("server:\n  port: 8081\n");
+		NacosPropertySourceRegistry registry = new NacosPropertySourceRegistry();
+		NacosConfigManager configManager = mock(NacosConfigManager.class);
+		when(configManager.getNacosConfigProperties()).thenReturn(properties);
+		when(configManager.getConfigService()).thenReturn(configService);
+		when(configManager.getPropertySourceRegistry()).thenReturn(registry);
+
+		CompositePropertySource composite = (CompositePropertySource) new NacosPropertySourceLocator(
+				configManager).locate(environment);
+
+		assertThat(composite.getProperty("server.port")).isEqualTo(8081);
+		assertThat(registry.get("ext-yaml", "DEFAULT_GROUP").getFileExtension())
+				.isEqualTo("yaml");
+	}
+
+}
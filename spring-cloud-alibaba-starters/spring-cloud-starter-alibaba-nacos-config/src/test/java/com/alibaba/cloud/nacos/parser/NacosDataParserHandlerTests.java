@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.parser;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.utils.NacosConfigUtils;
+import org.junit.Test;
+
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.origin.OriginLookup;
+import org.springframework.boot.origin.TextResourceOrigin;
+import org.springframework.boot.origin.TextResourceOrigin.Location;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NacosDataParserHandlerTests {
+
+	private static final String CONTENT = "a=1\nb = 2\nc:3\nd 4\n  e\t=\t5  \n"
+			+ "# comment=1\n  ! comment=2\n\nempty=\nnovalue\n=nokey\n"
+			+ "key\\ with\\ space=v\\tx\\=y\nlong=first \\\n   second \\\\\n"
+			+ "escaped=\\u4e2d\\n\nzh=中文：值\nlatin=é\ncrlf=1\r\ncr=2\rdup=1\n"
+			+ "url=http://localhost:8848/nacos\ndup=2\nlast=\\";
+
+	@Test
+	public void testPropertiesAsPropertiesPropertySourceLoader() throws Exception {
+		List<PropertySource<?>> propertySources = NacosDataParserHandler.getInstance()
+				.parseNacosData("test.properties", CONTENT, "properties");
+
+		assertThat(propertySources).hasSize(1);
+		assertThat(toMap(propertySources.get(0)))
+				.containsExactlyEntriesOf(loadWithPropertiesLoader(CONTENT));
+		assertThat(propertySources.get(0).getProperty("zh")).isEqualTo("中文：值");
+		assertThat(propertySources.get(0).getProperty("long"))
+				.isEqualTo("first second \\");
+	}
+
+	@Test
+	public void testListsAsPropertiesPropertySourceLoader() throws Exception {
+		String content = "list[]=a, b ,c\nempty[]=\ntrailing[]=x,\nspaced[]=x, \n"
+				+ "gaps[]=x,,y\nescaped[]=a\\,b,c\\\n  d,\\u4e2d\nsingle[]=only\n"
+				+ "[]=nokey\nindexed[0]=kept\nplain=a,b\n";
+		List<PropertySource<?>> propertySources = NacosDataParserHandler.getInstance()
+				.parseNacosData("test.properties", content, "properties");
+
+		assertThat(toMap(propertySources.get(0)))
+				.containsExactlyEntriesOf(loadWithPropertiesLoader(content));
+		assertThat(propertySources.get(0).getProperty("list[1]")).isEqualTo("b ");
+		assertThat(propertySources.get(0).getProperty("escaped[0]")).isEqualTo("a,b");
+		assertThat(propertySources.get(0).getProperty("plain")).isEqualTo("a,b");
+	}
+
+	@Test
+	public void testOriginsAsPropertiesPropertySourceLoader() throws Exception {
+		String content = "a=1\n  b = 2\r\nlist[]=x, y\n# c\nlong=first \\\n"
+				+ "   second\nafter=3\n";
+		PropertySource<?> propertySource = NacosDataParserHandler.getInstance()
+				.parseNacosData("test.properties", content, "properties").get(0);
+		PropertySource<?> expected = new PropertiesPropertySourceLoader()
+				.load("test.properties", new ByteArrayResource(content.getBytes()))
+				.get(0);
+
+		for (String name : ((EnumerablePropertySource<?>) expected).getPropertyNames()) {
+			assertThat(location(propertySource, name)).as(name)
+					.isEqualTo(location(expected, name));
+		}
+	}
+
+	@Test
+	public void testEmptyProperties() throws Exception {
+		assertThat(NacosDataParserHandler.getInstance().parseNacosData("test.properties",
+				"# nothing\n\n", "properties")).isEmpty();
+	}
+
+	private static Map<String, Object> loadWithPropertiesLoader(String content)
+			throws Exception {
+		byte[] escaped = NacosConfigUtils.selectiveConvertUnicode(content).getBytes();
+		List<PropertySource<?>> propertySources = new PropertiesPropertySourceLoader()
+				.load("test.properties", new ByteArrayResource(escaped));
+		return toMap(propertySources.get(0));
+	}
+
+	private static String location(PropertySource<?> propertySource, String name) {
+		Location location = ((TextResourceOrigin) ((OriginLookup<String>) propertySource)
+				.getOrigin(name)).getLocation();
+		return location.getLine() + ":" + location.getColumn();
+	}
+
+	private static Map<String, Object> toMap(PropertySource<?> propertySource) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		for (String name : ((EnumerablePropertySource<?>) propertySource)
+				.getPropertyNames()) {
+			map.put(name, propertySource.getProperty(name));
+		}
+		return map;
+	}
+
+	@Test
+	public void testFormatFollowsExtension() throws Exception {
+		NacosDataParserHandler handler = NacosDataParserHandler.getInstance();
+
+		assertThat(handler.parseNacosData("test", "a: 1", "yaml").get(0).getProperty("a"))
+				.isEqualTo(1);
+		assertThat(
+				handler.parseNacosData("test.yaml", "a: 1", null).get(0).getProperty("a"))
+						.isEqualTo(1);
+		assertThat(handler.parseNacosData("test", "a: 1", "unknown")).isEmpty();
+	}
+
+}
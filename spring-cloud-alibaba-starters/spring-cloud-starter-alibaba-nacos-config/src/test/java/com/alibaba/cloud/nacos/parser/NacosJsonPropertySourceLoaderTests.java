@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NacosJsonPropertySourceLoaderTests {
+
+	private static final String CONTENT = "{\"server\":{\"port\":8080,\"ratio\":0.75,"
+			+ "\"big\":12345678901234,\"enabled\":true,\"name\":\"中文\",\"none\":null},"
+			+ "\"list\":[\"a\",{\"b\":1,\"c\":[1,[2,3]]},[],{}],\"empty\":{},"
+			+ "\"timeout\":{\"value\":30,\"unit\":\"s\"},\"retry\":{\"VALUE\":3},"
+			+ "\"dotted.key\":{\"[0]\":\"x\"},\"\":{\"root\":1},\"dup\":1,\"dup\":2}";
+
+	private final NacosJsonPropertySourceLoader loader = new NacosJsonPropertySourceLoader();
+
+	@Test
+	public void testSameKeysAndValuesAsFlattenedMap() throws Exception {
+		List<PropertySource<?>> propertySources = loader.load("test.json",
+				resource(CONTENT));
+
+		assertThat(propertySources).hasSize(1);
+		Map<String, Object> actual = ((MapPropertySource) propertySources.get(0))
+				.getSource();
+		assertThat(actual).containsExactlyEntriesOf(flattenWithObjectMapper(CONTENT));
+		assertThat(propertySources.get(0).getProperty("list[1].c[1][0]")).isEqualTo(2);
+		assertThat(propertySources.get(0).getProperty("timeout")).isEqualTo(30);
+	}
+
+	@Test
+	public void testEmptyObject() throws Exception {
+		assertThat(loader.load("test.json", resource("{ }"))).isEmpty();
+	}
+
+	@Test
+	public void testNotAnObject() {
+		assertThatThrownBy(() -> loader.load("test.json", resource("[1, 2]")))
+				.isInstanceOf(IOException.class);
+	}
+
+	@SuppressWarnings({ "unchecked", "deprecation" })
+	private Map<String, Object> flattenWithObjectMapper(String content) throws Exception {
+		Map<String, Object> result = new LinkedHashMap<>();
+		loader.flattenedMap(result,
+				new ObjectMapper().readValue(content, LinkedHashMap.class), null);
+		return loader.reloadMap(result);
+	}
+
+	private static NacosByteArrayResource resource(String content) {
+		return new NacosByteArrayResource(content.getBytes(StandardCharsets.UTF_8),
+				"test.json");
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.core.env.MapPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NacosXmlPropertySourceLoaderTests {
+
+	private final NacosXmlPropertySourceLoader loader = new NacosXmlPropertySourceLoader();
+
+	@Test
+	public void testKeys() throws Exception {
+		Map<String, Object> expected = new LinkedHashMap<>();
+		expected.put("top.first", "one");
+		expected.put("top.second.a", "1");
+		expected.put("top.second.value", "two");
+		expected.put("top.second.third", "三");
+
+		assertThat(load("<?xml version=\"1.0\" encoding=\"utf-8\"?><top>\n"
+				+ "  <first>one</first>\n  <second value=\"two\" a=\"1\" z=\"\">\n"
+				+ "    <third>三</third>\n  </second>\n  <empty/>\n</top>"))
+						.containsExactlyEntriesOf(expected);
+	}
+
+	@Test
+	public void testPrefixedNames() throws Exception {
+		Map<String, Object> expected = new LinkedHashMap<>();
+		expected.put("a.xmlns", "urn:d");
+		expected.put("a.xmlns:p", "urn:x");
+		expected.put("a.p:b.p:c", "1");
+		expected.put("a.p:b", "x & y");
+		expected.put("a.b.android:label", "app");
+
+		assertThat(
+				load("<a xmlns:p=\"urn:x\" xmlns=\"urn:d\"><p:b p:c=\"1\">x &amp; y</p:b>"
+						+ "<b android:label=\"app\"/></a>"))
+								.containsExactlyEntriesOf(expected);
+	}
+
+	@Test
+	public void testLastValueOfElementWins() throws Exception {
+		Map<String, Object> expected = new LinkedHashMap<>();
+		expected.put("a.c", "cdata");
+		expected.put("a.d", "note");
+		expected.put("a.e", "after");
+		expected.put("a.e.f", "in");
+
+		assertThat(load("<a><c>text<![CDATA[ cdata ]]></c><d>text<!-- note --></d>"
+				+ "<e>before<f>in</f>after</e></a>")).containsExactlyEntriesOf(expected);
+	}
+
+	@Test
+	public void testExternalEntitiesAreRejected() {
+		assertThatThrownBy(() -> load("<!DOCTYPE r [<!ENTITY x SYSTEM "
+				+ "\"file:///etc/hostname\">]><r>&x;</r>"))
+						.isInstanceOf(IOException.class);
+	}
+
+	private Map<String, Object> load(String content) throws IOException {
+		return ((MapPropertySource) loader
+				.load("test.xml",
+						new NacosByteArrayResource(
+								content.getBytes(StandardCharsets.UTF_8), "test.xml"))
+				.get(0)).getSource();
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.cloud.nacos.NacosPropertySourceRegistry;
+import com.alibaba.cloud.nacos.client.NacosPropertySource;
+import com.alibaba.cloud.nacos.client.NacosPropertySourceBuilder;
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.config.listener.AbstractSharedListener;
+import com.alibaba.nacos.api.config.listener.Listener;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.bootstrap.config.BootstrapPropertySource;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.endpoint.event.RefreshEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.support.GenericApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NacosContextRefresherTests {
+
+	private final NacosPropertySourceRegistry registry = new NacosPropertySourceRegistry();
+
+	private NacosContextRefresher refresher;
+
+	private AbstractSharedListener listener;
+
+	@Test
+	public void testTargetedRefreshReplacesOnlyChangedDataId() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		NacosConfigProperties properties = new NacosConfigProperties();
+		properties.setTargetedRefreshEnabled(true);
+		NacosRefreshHistory history = new NacosRefreshHistory();
+		List<ApplicationEvent> events = refresh(context, properties, history,
+				"targeted.properties", "kept=1\nchanged=1\nremoved=1",
+				"kept=1\nchanged=2\nadded=1");
+
+		assertThat(context.getEnvironment().getProperty("changed")).isEqualTo("2");
+		assertThat(context.getEnvironment().getProperty("removed")).isNull();
+
+		assertThat(events).noneMatch(RefreshEvent.class::isInstance);
+		assertThat(events).filteredOn(EnvironmentChangeEvent.class::isInstance).hasSize(1)
+				.first().extracting(event -> ((EnvironmentChangeEvent) event).getKeys())
+				.satisfies(keys -> assertThat(keys).containsExactlyInAnyOrder("changed",
+						"removed", "added"));
+		assertThat(registry.get("targeted.properties", "DEFAULT_GROUP")
+				.getProperty("changed")).isEqualTo("2");
+		assertThat(history.getRecords().getFirst().getChangedKeys())
+				.containsExactlyInAnyOrder("changed", "removed", "added");
+	}
+
+	@Test
+	public void testFullRefreshByDefault() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		List<ApplicationEvent> events = refresh(context, new NacosConfigProperties(),
+				new NacosRefreshHistory(), "full.properties", "changed=1", "changed=2");
+
+		assertThat(events).anyMatch(RefreshEvent.class::isInstance);
+		assertThat(events).noneMatch(EnvironmentChangeEvent.class::isInstance);
+	}
+
+	@Test
+	public void testDebounceCoalescesNotifications() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		NacosConfigProperties properties = new NacosConfigProperties();
+		properties.setRefreshDebounceWindow(500);
+		properties.setRefreshDebounceMaxDelay(2000);
+		NacosRefreshHistory history = new NacosRefreshHistory();
+		List<ApplicationEvent> events = refresh(context, properties, history,
+				"debounce.properties", "changed=1", "changed=2", "changed=3",
+				"changed=4");
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (history.getRefreshes() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(events).filteredOn(RefreshEvent.class::isInstance).hasSize(1);
+		assertThat(history.getRefreshes()).isEqualTo(1);
+		assertThat(history.getCoalescedRefreshes()).isEqualTo(2);
+	}
+
+	@Test
+	public void testIgnoreNotificationsAfterDestroy() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		NacosConfigProperties properties = new NacosConfigProperties();
+		properties.setRefreshDebounceWindow(200);
+		NacosRefreshHistory history = new NacosRefreshHistory();
+		List<ApplicationEvent> events = refresh(context, properties, history,
+				"destroyed.properties", "changed=1", "changed=2");
+
+		refresher.destroy();
+		listener.innerReceive("destroyed.properties", "DEFAULT_GROUP", "changed=3");
+
+		Thread.sleep(500);
+		assertThat(events).noneMatch(RefreshEvent.class::isInstance);
+		assertThat(history.getRefreshes()).isZero();
+	}
+
+	private List<ApplicationEvent> refresh(GenericApplicationContext context,
+			NacosConfigProperties properties, NacosRefreshHistory history, String dataId,
+			String previous, String... nexts) throws Exception {
+		NacosPropertySource propertySource = NacosPropertySourceBuilder.build(dataId,
+				"DEFAULT_GROUP", "properties", true, previous);
+		registry.register(propertySource);
+
+		List<ApplicationEvent> events = new CopyOnWriteArrayList<>();
+		context.getEnvironment().getPropertySources()
+				.addFirst(new BootstrapPropertySource<>(propertySource));
+		context.addApplicationListener(events::add);
+		context.refresh();
+
+		ConfigService configService = mock(ConfigService.class);
+		NacosConfigManager configManager = mock(NacosConfigManager.class);
+		when(configManager.getNacosConfigProperties()).thenReturn(properties);
+		when(configManager.getConfigService()).thenReturn(configService);
+		when(configManager.getPropertySourceRegistry()).thenReturn(registry);
+		refresher = new NacosContextRefresher(configManager, history);
+		refresher.setApplicationContext(context);
+		refresher.onApplicationEvent(mock(ApplicationReadyEvent.class));
+
+		ArgumentCaptor<Listener> listener = ArgumentCaptor.forClass(Listener.class);
+		verify(configService).addListener(eq(dataId), eq("DEFAULT_GROUP"),
+				listener.capture());
+		events.clear();
+		this.listener = (AbstractSharedListener) listener.getValue();
+		for (String next : nexts) {
+			this.listener.innerReceive(dataId, "DEFAULT_GROUP", next);
+		}
+		return events;
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.refresh;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NacosRefreshHistoryTests {
+
+	@Test
+	public void testKeepsLatestRecordsNewestFirst() {
+		NacosRefreshHistory history = new NacosRefreshHistory();
+		for (int i = 0; i < 25; i++) {
+			history.addRefreshRecord("data-" + i, "DEFAULT_GROUP", "key=" + i,
+					Collections.singleton("key"));
+		}
+
+		List<NacosRefreshHistory.Record> records = history.getRecords();
+		assertThat(records).hasSize(20);
+		assertThat(records.get(0).getDataId()).isEqualTo("data-24");
+		assertThat(records.get(19).getDataId()).isEqualTo("data-5");
+		assertThat(records.get(0).getChangedKeys()).containsExactly("key");
+		assertThat(records.get(0).getMd5()).hasSize(32);
+		assertThat(records.get(0).getTimestamp())
+				.matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}");
+	}
+
+	@Test
+	public void testConcurrentRecords() throws Exception {
+		NacosRefreshHistory history = new NacosRefreshHistory();
+		int threads = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			String dataId = "data-" + t;
+			Thread worker = new Thread(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < 1000; i++) {
+						history.addRefreshRecord(dataId, "DEFAULT_GROUP", "key=" + i);
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				finally {
+					done.countDown();
+				}
+			});
+			worker.start();
+		}
+		start.countDown();
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+
+		List<NacosRefreshHistory.Record> records = history.getRecords();
+		assertThat(records).hasSize(20).doesNotContainNull();
+		assertThat(records).extracting(NacosRefreshHistory.Record::getMd5)
+				.allMatch(md5 -> md5.length() == 32);
+	}
+
+}
@@ -37,6 +37,7 @@ import com.alibaba.spring.util.PropertySourcesUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -104,10 +105,37 @@ public class NacosDiscoveryProperties {
 	private String namespace;
 
 	/**
-	 * watch delay,duration to pull new service from nacos server.
+	 * watch delay,duration to pull new service from nacos server. A HeartbeatEvent is
+	 * published only if the service names changed.
 	 */
 	private long watchDelay = 30000;
 
+	/**
+	 * watch debounce, changes of the watched services within this duration are published
+	 * as one event. Time unit: millisecond.
+	 */
+	private long watchDebounce = 1000;
+
+	/**
+	 * page size used to fetch the names of all services from nacos server.
+	 */
+	private int servicePageSize = 1000;
+
+	/**
+	 * how long the fetched names of all services are cached, a value less than or equal
+	 * to 0 disables the cache, except that the names reloaded by the watch every watch
+	 * delay are served in between. Each reload fetches the whole catalog. Time unit:
+	 * millisecond.
+	 */
+	private long serviceIndexTtl = 0;
+
+	/**
+	 * how long an empty or failed instance lookup of a service is cached, so that
+	 * concurrent and repeated lookups of a missing service do not reach nacos server. A
+	 * value less than or equal to 0 disables the cache. Time unit: millisecond.
+	 */
+	private long negativeCacheTtl = 1000;
+
 	/**
 	 * nacos naming log file name.
 	 */
@@ -213,6 +241,72 @@ public class NacosDiscoveryProperties {
 	 */
 	private boolean failFast = true;
 
+	/**
+	 * how long a newly started instance takes to warm up, a value greater than 0
+	 * publishes its registration timestamp and warm-up duration as metadata so that
+	 * callers ramp up its weight. Time unit: millisecond.
+	 */
+	private long warmupDuration = 0;
+
+	/**
+	 * exponent of the curve callers ramp up the weight of warming instances along, 1
+	 * ramps up linearly, larger values start slower.
+	 */
+	private double warmupCurve = 1;
+
+	/**
+	 * register in the background instead of blocking the application start.
+	 */
+	private boolean registerAsync = false;
+
+	/**
+	 * how many times a failed background registration is retried.
+	 */
+	private int registerRetryTimes = 3;
+
+	/**
+	 * delay before the first retry of a failed background registration, doubled for every
+	 * further retry. Time unit: millisecond.
+	 */
+	private long registerRetryInterval = 1000;
+
+	/**
+	 * defer the registration until the application reports the readiness state
+	 * ACCEPTING_TRAFFIC and the {@code NacosRegistrationWarmupHook} beans have run.
+	 */
+	private boolean registerWhenReady = false;
+
+	/**
+	 * with register-when-ready, register as soon as the web server is up but disabled,
+	 * and enable the instance once ready instead of registering it then.
+	 */
+	private boolean registerDisabledUntilReady = false;
+
+	/**
+	 * how long the registration waits for the warm-up hooks before it goes on anyway.
+	 * Time unit: millisecond.
+	 */
+	private long warmupHookTimeout = 30000;
+
+	/**
+	 * register the management port as an instance of its own service if it differs from
+	 * the application port.
+	 */
+	private boolean managementRegisterEnabled = false;
+
+	/**
+	 * how long the health indicator reuses the server status it fetched last, a value
+	 * less than or equal to 0 fetches it on every check. Time unit: millisecond.
+	 */
+	private long serverStatusCacheTtl = 10000;
+
+	/**
+	 * how long the nacos discovery endpoint waits for the remote verification of the
+	 * subscribed services before it returns the results gathered so far. Time unit:
+	 * millisecond.
+	 */
+	private long endpointVerifyTimeout = 3000;
+
 	@Autowired
 	private InetUtils inetUtils;
 
@@ -279,6 +373,24 @@ public class NacosDiscoveryProperties {
 		}
 	}
 
+	/**
+	 * Return a copy of these properties connecting to another namespace of the same Nacos
+	 * server.
+	 * @param namespace the namespace, empty for the public one
+	 * @return a copy of these properties
+	 */
+	public NacosDiscoveryProperties withNamespace(String namespace) {
+		NacosDiscoveryProperties copy = new NacosDiscoveryProperties();
+		BeanUtils.copyProperties(this, copy);
+		copy.setMetadata(new HashMap<>(metadata));
+		copy.setNamespace(Objects.toString(namespace, ""));
+		copy.inetUtils = inetUtils;
+		copy.environment = environment;
+		copy.nacosServiceManager = nacosServiceManager;
+		copy.applicationEventPublisher = applicationEventPublisher;
+		return copy;
+	}
+
 	/**
 	 * recommend to use {@link NacosServiceManager#getNamingService(Properties)}.
 	 * @return NamingService
@@ -452,6 +564,38 @@ public class NacosDiscoveryProperties {
 		this.watchDelay = watchDelay;
 	}
 
+	public long getWatchDebounce() {
+		return watchDebounce;
+	}
+
+	public void setWatchDebounce(long watchDebounce) {
+		this.watchDebounce = watchDebounce;
+	}
+
+	public int getServicePageSize() {
+		return servicePageSize;
+	}
+
+	public void setServicePageSize(int servicePageSize) {
+		this.servicePageSize = servicePageSize;
+	}
+
+	public long getServiceIndexTtl() {
+		return serviceIndexTtl;
+	}
+
+	public void setServiceIndexTtl(long serviceIndexTtl) {
+		this.serviceIndexTtl = serviceIndexTtl;
+	}
+
+	public long getNegativeCacheTtl() {
+		return negativeCacheTtl;
+	}
+
+	public void setNegativeCacheTtl(long negativeCacheTtl) {
+		this.negativeCacheTtl = negativeCacheTtl;
+	}
+
 	public String getGroup() {
 		return group;
 	}
@@ -500,6 +644,94 @@ public class NacosDiscoveryProperties {
 		this.failFast = failFast;
 	}
 
+	public long getWarmupDuration() {
+		return warmupDuration;
+	}
+
+	public void setWarmupDuration(long warmupDuration) {
+		this.warmupDuration = warmupDuration;
+	}
+
+	public double getWarmupCurve() {
+		return warmupCurve;
+	}
+
+	public void setWarmupCurve(double warmupCurve) {
+		this.warmupCurve = warmupCurve;
+	}
+
+	public boolean isRegisterAsync() {
+		return registerAsync;
+	}
+
+	public void setRegisterAsync(boolean registerAsync) {
+		this.registerAsync = registerAsync;
+	}
+
+	public int getRegisterRetryTimes() {
+		return registerRetryTimes;
+	}
+
+	public void setRegisterRetryTimes(int registerRetryTimes) {
+		this.registerRetryTimes = registerRetryTimes;
+	}
+
+	public long getRegisterRetryInterval() {
+		return registerRetryInterval;
+	}
+
+	public void setRegisterRetryInterval(long registerRetryInterval) {
+		this.registerRetryInterval = registerRetryInterval;
+	}
+
+	public boolean isRegisterWhenReady() {
+		return registerWhenReady;
+	}
+
+	public void setRegisterWhenReady(boolean registerWhenReady) {
+		this.registerWhenReady = registerWhenReady;
+	}
+
+	public boolean isRegisterDisabledUntilReady() {
+		return registerDisabledUntilReady;
+	}
+
+	public void setRegisterDisabledUntilReady(boolean registerDisabledUntilReady) {
+		this.registerDisabledUntilReady = registerDisabledUntilReady;
+	}
+
+	public long getWarmupHookTimeout() {
+		return warmupHookTimeout;
+	}
+
+	public void setWarmupHookTimeout(long warmupHookTimeout) {
+		this.warmupHookTimeout = warmupHookTimeout;
+	}
+
+	public boolean isManagementRegisterEnabled() {
+		return managementRegisterEnabled;
+	}
+
+	public void setManagementRegisterEnabled(boolean managementRegisterEnabled) {
+		this.managementRegisterEnabled = managementRegisterEnabled;
+	}
+
+	public long getServerStatusCacheTtl() {
+		return serverStatusCacheTtl;
+	}
+
+	public void setServerStatusCacheTtl(long serverStatusCacheTtl) {
+		this.serverStatusCacheTtl = serverStatusCacheTtl;
+	}
+
+	public long getEndpointVerifyTimeout() {
+		return endpointVerifyTimeout;
+	}
+
+	public void setEndpointVerifyTimeout(long endpointVerifyTimeout) {
+		this.endpointVerifyTimeout = endpointVerifyTimeout;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
@@ -516,6 +748,7 @@ public class NacosDiscoveryProperties {
 				&& Objects.equals(namespace, that.namespace)
 				&& Objects.equals(logName, that.logName)
 				&& Objects.equals(service, that.service)
+				&& Objects.equals(weight, that.weight)
 				&& Objects.equals(clusterName, that.clusterName)
 				&& Objects.equals(group, that.group) && Objects.equals(ip, that.ip)
 				&& Objects.equals(port, that.port)
@@ -525,7 +758,10 @@ public class NacosDiscoveryProperties {
 				&& Objects.equals(heartBeatInterval, that.heartBeatInterval)
 				&& Objects.equals(heartBeatTimeout, that.heartBeatTimeout)
 				&& Objects.equals(failFast, that.failFast)
-				&& Objects.equals(ipDeleteTimeout, that.ipDeleteTimeout);
+				&& Objects.equals(ipDeleteTimeout, that.ipDeleteTimeout)
+				&& Objects.equals(metadata, that.metadata)
+				&& Objects.equals(instanceEnabled, that.instanceEnabled)
+				&& Objects.equals(ephemeral, that.ephemeral);
 	}
 
 	@Override
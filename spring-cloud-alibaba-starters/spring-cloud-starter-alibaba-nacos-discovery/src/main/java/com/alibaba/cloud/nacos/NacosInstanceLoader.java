@@ -0,0 +1,276 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+/**
+ * Looks up the healthy instances of a service through the naming client, coalescing
+ * concurrent identical lookups into a single one. Lookups returning no instance or
+ * failing are remembered for {@link NacosDiscoveryProperties#getNegativeCacheTtl()}, so
+ * that a missing service or an unreachable nacos server is not queried by every caller
+ * during cold start and failover.
+ *
+ * @see NacosServiceManager#getInstanceLoader()
+ */
+public class NacosInstanceLoader {
+
+	/**
+	 * Number of negative entries above which the expired ones are swept.
+	 */
+	private static final int SWEEP_THRESHOLD = 256;
+
+	private final Map<LookupKey, CompletableFuture<List<Instance>>> inFlight = new ConcurrentHashMap<>(
+			16);
+
+	private final Map<LookupKey, NegativeEntry> negativeCache = new ConcurrentHashMap<>(
+			16);
+
+	private final NacosDiscoveryMetrics discoveryMetrics;
+
+	public NacosInstanceLoader(NacosDiscoveryMetrics discoveryMetrics) {
+		this.discoveryMetrics = discoveryMetrics;
+	}
+
+	/**
+	 * Return the healthy instances of the given service in the group of the given
+	 * properties.
+	 * @param namingService naming service to look up with
+	 * @param properties discovery properties providing the group and negative cache ttl
+	 * @param serviceId id of service
+	 * @return list of instances
+	 * @throws NacosException nacosException
+	 */
+	public List<Instance> selectInstances(NamingService namingService,
+			NacosDiscoveryProperties properties, String serviceId) throws NacosException {
+		return selectInstances(namingService, properties, serviceId,
+				Collections.emptyList());
+	}
+
+	/**
+	 * Return the healthy instances of the given clusters of the given service in the
+	 * group of the given properties.
+	 * @param namingService naming service to look up with
+	 * @param properties discovery properties providing the group and negative cache ttl
+	 * @param serviceId id of service
+	 * @param clusters clusters to select from, all of them if empty
+	 * @return list of instances
+	 * @throws NacosException nacosException
+	 */
+	public List<Instance> selectInstances(NamingService namingService,
+			NacosDiscoveryProperties properties, String serviceId, List<String> clusters)
+			throws NacosException {
+		LookupKey key = new LookupKey(namingService, properties.getGroup(), serviceId,
+				clusters);
+		long now = System.currentTimeMillis();
+		NegativeEntry negative = negativeCache.get(key);
+		if (negative != null) {
+			if (negative.expires > now) {
+				discoveryMetrics.recordCacheHit(NacosDiscoveryMetrics.NEGATIVE_CACHE);
+				return negative.result();
+			}
+			negativeCache.remove(key, negative);
+		}
+
+		CompletableFuture<List<Instance>> flight = new CompletableFuture<>();
+		CompletableFuture<List<Instance>> leader = inFlight.putIfAbsent(key, flight);
+		if (leader != null) {
+			discoveryMetrics.recordCoalescedLookup(serviceId);
+			// every caller owns its list, as if it had looked up itself
+			return new ArrayList<>(await(leader));
+		}
+		discoveryMetrics.recordCacheMiss(NacosDiscoveryMetrics.NEGATIVE_CACHE);
+		try {
+			List<Instance> instances = lookup(key);
+			if (instances == null || instances.isEmpty()) {
+				instances = Collections.emptyList();
+				cacheNegative(key, new NegativeEntry(null, now, properties));
+			}
+			flight.complete(instances);
+			return instances;
+		}
+		catch (NacosException | RuntimeException e) {
+			cacheNegative(key, new NegativeEntry(e, now, properties));
+			flight.completeExceptionally(e);
+			throw e;
+		}
+		catch (Throwable e) {
+			// not remembered, but the callers waiting for it must not block forever
+			flight.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			inFlight.remove(key, flight);
+		}
+	}
+
+	/**
+	 * Forget the remembered empty or failed lookup of the given service in the group of
+	 * the given properties, e.g. once instances of it have been pushed.
+	 * @param namingService naming service the lookup was made with
+	 * @param properties discovery properties providing the group
+	 * @param serviceId id of service
+	 */
+	public void invalidate(NamingService namingService,
+			NacosDiscoveryProperties properties, String serviceId) {
+		invalidate(namingService, properties, serviceId, Collections.emptyList());
+	}
+
+	/**
+	 * Forget the remembered empty or failed lookup of the given clusters of the given
+	 * service in the group of the given properties. Lookups made through other naming
+	 * services, i.e. namespaces, groups or clusters are kept.
+	 * @param namingService naming service the lookup was made with
+	 * @param properties discovery properties providing the group
+	 * @param serviceId id of service
+	 * @param clusters clusters the lookup selected from, all of them if empty
+	 */
+	public void invalidate(NamingService namingService,
+			NacosDiscoveryProperties properties, String serviceId,
+			List<String> clusters) {
+		negativeCache.remove(
+				new LookupKey(namingService, properties.getGroup(), serviceId, clusters));
+	}
+
+	private List<Instance> lookup(LookupKey key) throws NacosException {
+		long start = System.nanoTime();
+		try {
+			// the overload without clusters is the one the callers used so far
+			return key.clusters.isEmpty()
+					? key.namingService.selectInstances(key.serviceId, key.group, true)
+					: key.namingService.selectInstances(key.serviceId, key.group,
+							key.clusters, true);
+		}
+		finally {
+			discoveryMetrics.recordLookup(key.serviceId, System.nanoTime() - start);
+		}
+	}
+
+	private void cacheNegative(LookupKey key, NegativeEntry entry) {
+		if (entry.expires <= entry.created) {
+			return;
+		}
+		negativeCache.put(key, entry);
+		if (negativeCache.size() > SWEEP_THRESHOLD) {
+			negativeCache.values().removeIf(cached -> cached.expires <= entry.created);
+		}
+	}
+
+	private static List<Instance> await(CompletableFuture<List<Instance>> flight)
+			throws NacosException {
+		try {
+			return flight.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NacosException(NacosException.SERVER_ERROR,
+					"interrupted while waiting for the instance lookup in flight", e);
+		}
+		catch (ExecutionException e) {
+			throw rethrow(e.getCause());
+		}
+	}
+
+	private static NacosException rethrow(Throwable failure) throws NacosException {
+		if (failure instanceof NacosException) {
+			NacosException cause = (NacosException) failure;
+			throw new NacosException(cause.getErrCode(), cause.getErrMsg(), cause);
+		}
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		throw new NacosException(NacosException.SERVER_ERROR, failure);
+	}
+
+	private static final class LookupKey {
+
+		private final NamingService namingService;
+
+		private final String group;
+
+		private final String serviceId;
+
+		private final List<String> clusters;
+
+		private LookupKey(NamingService namingService, String group, String serviceId,
+				List<String> clusters) {
+			this.namingService = namingService;
+			this.group = group;
+			this.serviceId = serviceId;
+			this.clusters = clusters == null ? Collections.emptyList() : clusters;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof LookupKey)) {
+				return false;
+			}
+			LookupKey that = (LookupKey) o;
+			return namingService == that.namingService
+					&& Objects.equals(group, that.group)
+					&& Objects.equals(serviceId, that.serviceId)
+					&& clusters.equals(that.clusters);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(namingService), group, serviceId,
+					clusters);
+		}
+
+	}
+
+	private static final class NegativeEntry {
+
+		private final Exception failure;
+
+		private final long created;
+
+		private final long expires;
+
+		private NegativeEntry(Exception failure, long created,
+				NacosDiscoveryProperties properties) {
+			this.failure = failure;
+			this.created = created;
+			this.expires = created + Math.max(0, properties.getNegativeCacheTtl());
+		}
+
+		private List<Instance> result() throws NacosException {
+			if (failure != null) {
+				throw rethrow(failure);
+			}
+			return Collections.emptyList();
+		}
+
+	}
+
+}
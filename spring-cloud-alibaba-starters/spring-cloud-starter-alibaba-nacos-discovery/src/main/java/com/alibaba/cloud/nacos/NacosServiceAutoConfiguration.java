@@ -16,6 +16,11 @@
 
 package com.alibaba.cloud.nacos;
 
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMeterBinder;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.cloud.client.ConditionalOnDiscoveryEnabled;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -33,4 +38,18 @@ public class NacosServiceAutoConfiguration {
 		return new NacosServiceManager();
 	}
 
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(MeterBinder.class)
+	static class NacosDiscoveryMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public NacosDiscoveryMeterBinder nacosDiscoveryMeterBinder(
+				NacosServiceManager nacosServiceManager) {
+			return new NacosDiscoveryMeterBinder(
+					nacosServiceManager.getDiscoveryMetrics());
+		}
+
+	}
+
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+/**
+ * Read-only metadata of a {@link NacosServiceInstance}, a view over the metadata of the
+ * Nacos {@link Instance} plus the {@code nacos.*} keys, which are computed on demand
+ * instead of being copied for every converted instance.
+ * <p>
+ * The metadata of the instance take precedence over the synthesized keys, except
+ * {@link #EPHEMERAL}.
+ */
+public final class NacosServiceInstanceMetadata extends AbstractMap<String, String> {
+
+	/**
+	 * The metadata key of instance id.
+	 */
+	public static final String INSTANCE_ID = "nacos.instanceId";
+
+	/**
+	 * The metadata key of weight.
+	 */
+	public static final String WEIGHT = "nacos.weight";
+
+	/**
+	 * The metadata key of healthy.
+	 */
+	public static final String HEALTHY = "nacos.healthy";
+
+	/**
+	 * The metadata key of cluster.
+	 */
+	public static final String CLUSTER = "nacos.cluster";
+
+	/**
+	 * The metadata key of ephemeral.
+	 */
+	public static final String EPHEMERAL = "nacos.ephemeral";
+
+	private static final String[] OVERRIDABLE_KEYS = { INSTANCE_ID, WEIGHT, HEALTHY,
+			CLUSTER };
+
+	private final Instance instance;
+
+	private final Map<String, String> source;
+
+	private Set<Entry<String, String>> entrySet;
+
+	public NacosServiceInstanceMetadata(Instance instance) {
+		this.instance = instance;
+		this.source = instance.getMetadata() == null ? Collections.emptyMap()
+				: instance.getMetadata();
+	}
+
+	@Override
+	public String get(Object key) {
+		if (EPHEMERAL.equals(key)) {
+			return String.valueOf(instance.isEphemeral());
+		}
+		if (source.containsKey(key)) {
+			return source.get(key);
+		}
+		return key instanceof String ? synthesize((String) key) : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return EPHEMERAL.equals(key) || source.containsKey(key) || isOverridable(key);
+	}
+
+	@Override
+	public int size() {
+		int size = source.containsKey(EPHEMERAL) ? source.size() : source.size() + 1;
+		for (String key : OVERRIDABLE_KEYS) {
+			if (!source.containsKey(key)) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return false;
+	}
+
+	@Override
+	public Set<Entry<String, String>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new AbstractSet<Entry<String, String>>() {
+				@Override
+				public Iterator<Entry<String, String>> iterator() {
+					return entries().iterator();
+				}
+
+				@Override
+				public int size() {
+					return NacosServiceInstanceMetadata.this.size();
+				}
+			};
+		}
+		return entrySet;
+	}
+
+	private List<Entry<String, String>> entries() {
+		List<Entry<String, String>> entries = new ArrayList<>(size());
+		for (String key : OVERRIDABLE_KEYS) {
+			if (!source.containsKey(key)) {
+				entries.add(new SimpleImmutableEntry<>(key, synthesize(key)));
+			}
+		}
+		for (Entry<String, String> entry : source.entrySet()) {
+			if (!EPHEMERAL.equals(entry.getKey())) {
+				entries.add(new SimpleImmutableEntry<>(entry));
+			}
+		}
+		entries.add(new SimpleImmutableEntry<>(EPHEMERAL, get(EPHEMERAL)));
+		return Collections.unmodifiableList(entries);
+	}
+
+	private String synthesize(String key) {
+		switch (key) {
+		case INSTANCE_ID:
+			return instance.getInstanceId();
+		case WEIGHT:
+			return String.valueOf(instance.getWeight());
+		case HEALTHY:
+			return String.valueOf(instance.isHealthy());
+		case CLUSTER:
+			return String.valueOf(instance.getClusterName());
+		default:
+			return null;
+		}
+	}
+
+	private static boolean isOverridable(Object key) {
+		for (String overridableKey : OVERRIDABLE_KEYS) {
+			if (overridableKey.equals(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
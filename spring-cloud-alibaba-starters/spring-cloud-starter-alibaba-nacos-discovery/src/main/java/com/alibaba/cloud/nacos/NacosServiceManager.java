@@ -16,16 +16,29 @@
 
 package com.alibaba.cloud.nacos;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
 import com.alibaba.cloud.nacos.registry.NacosRegistration;
+import com.alibaba.nacos.api.PropertyKeyConst;
 import com.alibaba.nacos.api.exception.NacosException;
 import com.alibaba.nacos.api.naming.NamingMaintainService;
 import com.alibaba.nacos.api.naming.NamingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cloud.client.discovery.event.InstancePreRegisteredEvent;
 import org.springframework.cloud.client.serviceregistry.Registration;
 import org.springframework.context.event.EventListener;
@@ -35,30 +48,99 @@ import static com.alibaba.nacos.api.NacosFactory.createNamingService;
 import static org.springframework.beans.BeanUtils.copyProperties;
 
 /**
+ * Registry of the naming services, one per Nacos server and namespace. The naming
+ * services are keyed by the connection properties among the given properties, created
+ * lazily without a global lock and shut down together.
+ *
  * @author yuhuangbin
  */
-public class NacosServiceManager {
+public class NacosServiceManager implements DisposableBean {
 
 	private static final Logger log = LoggerFactory.getLogger(NacosServiceManager.class);
 
+	/**
+	 * Properties telling apart the Nacos servers and namespaces, the others only tune the
+	 * client and do not require a naming service of their own.
+	 */
+	private static final String[] CONNECTION_KEYS = { PropertyKeyConst.SERVER_ADDR,
+			PropertyKeyConst.ENDPOINT, PropertyKeyConst.ENDPOINT_PORT,
+			PropertyKeyConst.NAMESPACE, PropertyKeyConst.USERNAME,
+			PropertyKeyConst.PASSWORD, PropertyKeyConst.ACCESS_KEY,
+			PropertyKeyConst.SECRET_KEY, PropertyKeyConst.RAM_ROLE_NAME,
+			PropertyKeyConst.CONTEXT_PATH };
+
 	private NacosDiscoveryProperties nacosDiscoveryPropertiesCache;
 
-	private NamingService namingService;
+	private final Map<Map<String, String>, LazyService<NamingService>> namingServices = new ConcurrentHashMap<>(
+			4);
+
+	private final Map<Map<String, String>, LazyService<NamingMaintainService>> namingMaintainServices = new ConcurrentHashMap<>(
+			4);
+
+	private final List<Consumer<NamingService>> shutDownListeners = new CopyOnWriteArrayList<>();
+
+	private final NacosDiscoveryMetrics discoveryMetrics = new NacosDiscoveryMetrics();
 
-	private NamingMaintainService namingMaintainService;
+	private final NacosInstanceLoader instanceLoader = new NacosInstanceLoader(
+			discoveryMetrics);
 
+	/**
+	 * Return the naming service of the Nacos server and namespace the given properties
+	 * connect to, creating it on first use.
+	 * @param properties nacos client properties
+	 * @return naming service
+	 */
 	public NamingService getNamingService(Properties properties) {
-		if (Objects.isNull(this.namingService)) {
-			buildNamingService(properties);
-		}
-		return namingService;
+		return namingServices
+				.computeIfAbsent(connectionKey(properties), key -> new LazyService<>())
+				.get(properties, this::createNewNamingService);
 	}
 
 	public NamingMaintainService getNamingMaintainService(Properties properties) {
-		if (Objects.isNull(namingMaintainService)) {
-			buildNamingMaintainService(properties);
+		return namingMaintainServices
+				.computeIfAbsent(connectionKey(properties), key -> new LazyService<>())
+				.get(properties, this::createNamingMaintainService);
+	}
+
+	/**
+	 * @return the naming services created so far
+	 */
+	public List<NamingService> getNamingServices() {
+		List<NamingService> result = new ArrayList<>(namingServices.size());
+		for (LazyService<NamingService> service : namingServices.values()) {
+			if (service.value != null) {
+				result.add(service.value);
+			}
 		}
-		return namingMaintainService;
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Add a listener notified with every naming service shut down, so that what has been
+	 * subscribed through it can be dropped or subscribed again.
+	 * @param listener callback receiving the naming service shut down
+	 */
+	public void addNamingServiceShutDownListener(Consumer<NamingService> listener) {
+		shutDownListeners.add(listener);
+	}
+
+	public void removeNamingServiceShutDownListener(Consumer<NamingService> listener) {
+		shutDownListeners.remove(listener);
+	}
+
+	/**
+	 * @return statistics shared by the Nacos discovery components
+	 */
+	public NacosDiscoveryMetrics getDiscoveryMetrics() {
+		return discoveryMetrics;
+	}
+
+	/**
+	 * @return loader of the instances of services shared by the Nacos discovery
+	 * components
+	 */
+	public NacosInstanceLoader getInstanceLoader() {
+		return instanceLoader;
 	}
 
 	public boolean isNacosDiscoveryInfoChanged(
@@ -68,32 +150,11 @@ public class NacosServiceManager {
 			return false;
 		}
 		copyProperties(nacosDiscoveryProperties, nacosDiscoveryPropertiesCache);
+		copyMetadata(nacosDiscoveryProperties, nacosDiscoveryPropertiesCache);
 		return true;
 	}
 
-	private NamingMaintainService buildNamingMaintainService(Properties properties) {
-		if (Objects.isNull(namingMaintainService)) {
-			synchronized (NacosServiceManager.class) {
-				if (Objects.isNull(namingMaintainService)) {
-					namingMaintainService = createNamingMaintainService(properties);
-				}
-			}
-		}
-		return namingMaintainService;
-	}
-
-	private NamingService buildNamingService(Properties properties) {
-		if (Objects.isNull(namingService)) {
-			synchronized (NacosServiceManager.class) {
-				if (Objects.isNull(namingService)) {
-					namingService = createNewNamingService(properties);
-				}
-			}
-		}
-		return namingService;
-	}
-
-	private NamingService createNewNamingService(Properties properties) {
+	NamingService createNewNamingService(Properties properties) {
 		try {
 			return createNamingService(properties);
 		}
@@ -102,7 +163,7 @@ public class NacosServiceManager {
 		}
 	}
 
-	private NamingMaintainService createNamingMaintainService(Properties properties) {
+	NamingMaintainService createNamingMaintainService(Properties properties) {
 		try {
 			return createMaintainService(properties);
 		}
@@ -111,10 +172,89 @@ public class NacosServiceManager {
 		}
 	}
 
+	/**
+	 * Shut down every naming service, they are created again on next use.
+	 * @throws NacosException the first failure to shut down a naming service
+	 */
 	public void nacosServiceShutDown() throws NacosException {
-		this.namingService.shutDown();
-		namingService = null;
-		namingMaintainService = null;
+		List<NacosException> failures = new ArrayList<>();
+		shutDown(namingServices, this::shutDown, failures);
+		shutDown(namingMaintainServices, NamingMaintainService::shutDown, failures);
+		if (!failures.isEmpty()) {
+			throw failures.get(0);
+		}
+	}
+
+	/**
+	 * Shut down the naming service of the Nacos server and namespace the given properties
+	 * connect to, if it was created.
+	 * @param properties nacos client properties
+	 * @throws NacosException if the naming service failed to shut down
+	 */
+	public void nacosServiceShutDown(Properties properties) throws NacosException {
+		Map<String, String> key = connectionKey(properties);
+		LazyService<NamingMaintainService> maintainService = namingMaintainServices
+				.remove(key);
+		if (maintainService != null && maintainService.value != null) {
+			maintainService.value.shutDown();
+		}
+		LazyService<NamingService> namingService = namingServices.remove(key);
+		if (namingService != null && namingService.value != null) {
+			shutDown(namingService.value);
+		}
+	}
+
+	private void shutDown(NamingService namingService) throws NacosException {
+		try {
+			namingService.shutDown();
+		}
+		finally {
+			for (Consumer<NamingService> listener : shutDownListeners) {
+				try {
+					listener.accept(namingService);
+				}
+				catch (Exception e) {
+					log.error("notify shutdown of naming service failed", e);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		try {
+			nacosServiceShutDown();
+		}
+		catch (NacosException e) {
+			log.warn("nacos naming service shutdown failed", e);
+		}
+	}
+
+	private static <T> void shutDown(Map<Map<String, String>, LazyService<T>> services,
+			ShutDown<T> shutDown, List<NacosException> failures) {
+		for (Map<String, String> key : new ArrayList<>(services.keySet())) {
+			LazyService<T> service = services.remove(key);
+			if (service == null || service.value == null) {
+				continue;
+			}
+			try {
+				shutDown.shutDown(service.value);
+			}
+			catch (NacosException e) {
+				failures.add(e);
+			}
+		}
+	}
+
+	private static Map<String, String> connectionKey(Properties properties) {
+		Map<String, String> key = new TreeMap<>();
+		for (String name : CONNECTION_KEYS) {
+			String value = properties.getProperty(name);
+			if (value != null && !value.isEmpty()) {
+				key.put(name, value);
+			}
+		}
+		return Collections.unmodifiableMap(key);
 	}
 
 	@EventListener
@@ -128,7 +268,47 @@ public class NacosServiceManager {
 
 			nacosDiscoveryPropertiesCache = new NacosDiscoveryProperties();
 			copyProperties(nacosDiscoveryProperties, nacosDiscoveryPropertiesCache);
+			copyMetadata(nacosDiscoveryProperties, nacosDiscoveryPropertiesCache);
 		}
 	}
 
+	/**
+	 * The metadata map may be changed in place, so the cache must not share it.
+	 */
+	private static void copyMetadata(NacosDiscoveryProperties source,
+			NacosDiscoveryProperties target) {
+		target.setMetadata(new HashMap<>(source.getMetadata()));
+	}
+
+	/**
+	 * A service created on first use, holding a lock of its own so that creating the
+	 * service of one connection does not block the others.
+	 */
+	private static final class LazyService<T> {
+
+		private volatile T value;
+
+		private T get(Properties properties, Function<Properties, T> factory) {
+			T result = value;
+			if (result == null) {
+				synchronized (this) {
+					result = value;
+					if (result == null) {
+						result = factory.apply(properties);
+						value = result;
+					}
+				}
+			}
+			return result;
+		}
+
+	}
+
+	@FunctionalInterface
+	private interface ShutDown<T> {
+
+		void shutDown(T service) throws NacosException;
+
+	}
+
 }
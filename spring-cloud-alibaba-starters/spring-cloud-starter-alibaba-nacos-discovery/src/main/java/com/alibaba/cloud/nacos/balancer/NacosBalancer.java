@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.NacosServiceInstanceMetadata;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.alibaba.nacos.client.naming.core.Balancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Weighted random choice among {@link ServiceInstance}s discovered from Nacos.
+ */
+public class NacosBalancer extends Balancer {
+
+	/**
+	 * Choose a service instance by its Nacos weight, scaled by its warm-up progress.
+	 * @param serviceInstances service instances to choose from
+	 * @param warmupCurve exponent of the warm-up curve, see {@link NacosWarmup}
+	 * @return the chosen service instance, or {@code null} if there is none healthy
+	 */
+	public static ServiceInstance getHostByRandomWeight3(
+			List<ServiceInstance> serviceInstances, double warmupCurve) {
+		return getHostByRandomWeight3(serviceInstances, warmupCurve, null);
+	}
+
+	/**
+	 * Choose a service instance by its Nacos weight, scaled by its warm-up progress and
+	 * by the share of its weight the outlier detector leaves it.
+	 * @param serviceInstances service instances to choose from
+	 * @param warmupCurve exponent of the warm-up curve, see {@link NacosWarmup}
+	 * @param outlierDetector outlier detector, may be {@code null}
+	 * @return the chosen service instance, or {@code null} if there is none healthy
+	 */
+	public static ServiceInstance getHostByRandomWeight3(
+			List<ServiceInstance> serviceInstances, double warmupCurve,
+			NacosOutlierDetector outlierDetector) {
+		long now = System.currentTimeMillis();
+		Map<Instance, ServiceInstance> instanceMap = new IdentityHashMap<>(
+				serviceInstances.size());
+		List<Instance> instances = new ArrayList<>(serviceInstances.size());
+		for (ServiceInstance serviceInstance : serviceInstances) {
+			Map<String, String> metadata = serviceInstance.getMetadata();
+			Instance instance = new Instance();
+			instance.setIp(serviceInstance.getHost());
+			instance.setPort(serviceInstance.getPort());
+			instance.setHealthy(
+					!"false".equals(metadata.get(NacosServiceInstanceMetadata.HEALTHY)));
+			instance.setWeight(NacosWarmup.getWeight(getWeight(metadata), metadata,
+					warmupCurve, now));
+			instanceMap.put(instance, serviceInstance);
+			instances.add(instance);
+		}
+		if (outlierDetector != null) {
+			double[] ratios = outlierDetector.getWeightRatios(instances);
+			if (ratios != null && hasInlier(ratios)) {
+				List<Instance> inliers = new ArrayList<>(instances.size());
+				for (int i = 0; i < ratios.length; i++) {
+					if (ratios[i] > 0D) {
+						Instance inlier = instances.get(i);
+						inlier.setWeight(inlier.getWeight() * ratios[i]);
+						inliers.add(inlier);
+					}
+				}
+				instances = inliers;
+			}
+		}
+		Instance instance = getHostByRandomWeight(instances);
+		return instance == null ? null : instanceMap.get(instance);
+	}
+
+	private static boolean hasInlier(double[] ratios) {
+		for (double ratio : ratios) {
+			if (ratio > 0D) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param serviceInstance a service instance discovered from Nacos
+	 * @return its Nacos weight, {@code 1} if unknown
+	 */
+	public static double getWeight(ServiceInstance serviceInstance) {
+		return getWeight(serviceInstance.getMetadata());
+	}
+
+	private static double getWeight(Map<String, String> metadata) {
+		String weight = metadata.get(NacosServiceInstanceMetadata.WEIGHT);
+		if (weight == null) {
+			return 1D;
+		}
+		try {
+			return Double.parseDouble(weight);
+		}
+		catch (NumberFormatException e) {
+			return 1D;
+		}
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration
+ * Auto-configuration} of the consistent hash balancing, which hands the hash key of the
+ * calls of the load-balanced {@link RestTemplate}s and {@link WebClient}s over to the
+ * balancers.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnNacosDiscoveryEnabled
+@EnableConfigurationProperties(NacosConsistentHashProperties.class)
+public class NacosConsistentHashAutoConfiguration {
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(RestTemplate.class)
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.consistent-hash.enabled",
+			havingValue = "true")
+	static class RestTemplateHashKeyConfiguration {
+
+		@LoadBalanced
+		@Autowired(required = false)
+		private List<RestTemplate> restTemplates = Collections.emptyList();
+
+		@Bean
+		public SmartInitializingSingleton nacosHashKeyRestTemplateInitializer(
+				NacosConsistentHashProperties properties) {
+			return () -> {
+				for (RestTemplate restTemplate : restTemplates) {
+					List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(
+							restTemplate.getInterceptors());
+					interceptors.add(new NacosHashKeyInterceptor(properties));
+					restTemplate.setInterceptors(interceptors);
+				}
+			};
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(WebClient.class)
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.consistent-hash.enabled",
+			havingValue = "true")
+	static class WebClientHashKeyConfiguration {
+
+		@Bean
+		public static BeanPostProcessor nacosHashKeyWebClientBuilderPostProcessor(
+				ObjectProvider<NacosConsistentHashProperties> properties,
+				ApplicationContext context) {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName)
+						throws BeansException {
+					if (bean instanceof WebClient.Builder && context
+							.findAnnotationOnBean(beanName, LoadBalanced.class) != null) {
+						NacosHashKeyFilterFunction filterFunction = new NacosHashKeyFilterFunction(
+								properties.getObject());
+						((WebClient.Builder) bean)
+								.filters(filters -> filters.add(0, filterFunction));
+					}
+					return bean;
+				}
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties of the consistent hash balancing, see {@link NacosConsistentHashRing}.
+ */
+@ConfigurationProperties(NacosConsistentHashProperties.PREFIX)
+public class NacosConsistentHashProperties {
+
+	/**
+	 * Prefix of {@link NacosConsistentHashProperties}.
+	 */
+	public static final String PREFIX = "spring.cloud.nacos.discovery.consistent-hash";
+
+	/**
+	 * extract the hash key of the load-balanced calls and balance the calls of spring
+	 * cloud loadbalancer by consistent hashing.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * request header the hash key is read from.
+	 */
+	private String header = "X-Nacos-Hash-Key";
+
+	/**
+	 * request parameter the hash key is read from if the header is absent.
+	 */
+	private String parameter;
+
+	/**
+	 * points on the hash ring of an instance of weight 1, more points spread the keys
+	 * more evenly.
+	 */
+	private int virtualNodes = 160;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getHeader() {
+		return header;
+	}
+
+	public void setHeader(String header) {
+		this.header = header;
+	}
+
+	public String getParameter() {
+		return parameter;
+	}
+
+	public void setParameter(String parameter) {
+		this.parameter = parameter;
+	}
+
+	public int getVirtualNodes() {
+		return virtualNodes;
+	}
+
+	public void setVirtualNodes(int virtualNodes) {
+		this.virtualNodes = virtualNodes;
+	}
+
+	@Override
+	public String toString() {
+		return "NacosConsistentHashProperties{" + "enabled=" + enabled + ", header='"
+				+ header + '\'' + ", parameter='" + parameter + '\'' + ", virtualNodes="
+				+ virtualNodes + '}';
+	}
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Consistent hash ring with virtual nodes over a snapshot of instances. Every instance
+ * owns a number of points on the ring in proportion to its weight, and a key is served by
+ * the owner of the first point at or after its hash, so adding or removing an instance
+ * only moves the keys of its own points. The ring is immutable: {@link #update} returns a
+ * new ring, reusing the points of the unchanged instances and merging in those of the
+ * added ones instead of rehashing every instance.
+ *
+ * @param <T> type of instance
+ */
+public final class NacosConsistentHashRing<T> {
+
+	/**
+	 * Upper bound of the number of points of an instance, as a multiple of the number of
+	 * virtual nodes, so a huge weight cannot blow up the ring.
+	 */
+	private static final int MAX_WEIGHT_FACTOR = 10;
+
+	private final int virtualNodes;
+
+	private final Map<String, Member<T>> members;
+
+	private final long[] points;
+
+	private final String[] owners;
+
+	private final List<T> source;
+
+	private NacosConsistentHashRing(int virtualNodes, Map<String, Member<T>> members,
+			long[] points, String[] owners, List<T> source) {
+		this.virtualNodes = virtualNodes;
+		this.members = members;
+		this.points = points;
+		this.owners = owners;
+		this.source = source;
+	}
+
+	/**
+	 * @param virtualNodes number of points of an instance of weight 1
+	 * @param <T> type of instance
+	 * @return an empty ring
+	 */
+	public static <T> NacosConsistentHashRing<T> empty(int virtualNodes) {
+		return new NacosConsistentHashRing<>(Math.max(1, virtualNodes),
+				Collections.emptyMap(), new long[0], new String[0], null);
+	}
+
+	/**
+	 * Return a ring over the given instances. The points of the instances whose address
+	 * and weight did not change are reused.
+	 * @param instances the current instances
+	 * @param address function returning the {@code host:port} of an instance
+	 * @param weight function returning the weight of an instance
+	 * @return this ring if it was built from the very same list, a new ring otherwise
+	 */
+	public NacosConsistentHashRing<T> update(List<T> instances,
+			Function<T, String> address, ToDoubleFunction<T> weight) {
+		if (instances == source) {
+			return this;
+		}
+		Map<String, Member<T>> current = new HashMap<>(instances.size() * 2);
+		List<Member<T>> added = new ArrayList<>();
+		for (T instance : instances) {
+			String key = address.apply(instance);
+			if (current.containsKey(key)) {
+				// the same address listed twice owns its points once
+				continue;
+			}
+			int replicas = replicas(weight.applyAsDouble(instance));
+			Member<T> previous = members.get(key);
+			Member<T> member;
+			if (previous != null && previous.replicas == replicas) {
+				member = new Member<>(instance, replicas, previous.points);
+			}
+			else {
+				member = new Member<>(instance, replicas, points(key, replicas));
+				added.add(member);
+			}
+			current.put(key, member);
+		}
+
+		Set<String> kept = new HashSet<>(current.keySet());
+		for (Member<T> member : added) {
+			kept.remove(address.apply(member.instance));
+		}
+		if (added.isEmpty() && kept.size() == members.size()) {
+			return new NacosConsistentHashRing<>(virtualNodes, current, points, owners,
+					instances);
+		}
+		return merge(current, kept, added, address, instances);
+	}
+
+	/**
+	 * @param key the hash key
+	 * @return the instance serving the key, or {@code null} if the ring is empty
+	 */
+	public T select(String key) {
+		if (points.length == 0) {
+			return null;
+		}
+		int index = Arrays.binarySearch(points, hash(key));
+		if (index < 0) {
+			index = -index - 1;
+		}
+		if (index == points.length) {
+			index = 0;
+		}
+		return members.get(owners[index]).instance;
+	}
+
+	/**
+	 * @return number of points on the ring
+	 */
+	public int size() {
+		return points.length;
+	}
+
+	private NacosConsistentHashRing<T> merge(Map<String, Member<T>> current,
+			Set<String> kept, List<Member<T>> added, Function<T, String> address,
+			List<T> instances) {
+		int addedCount = 0;
+		for (Member<T> member : added) {
+			addedCount += member.points.length;
+		}
+		long[] addedPoints = new long[addedCount];
+		String[] addedOwners = new String[addedCount];
+		Integer[] order = new Integer[addedCount];
+		int offset = 0;
+		for (Member<T> member : added) {
+			String owner = address.apply(member.instance);
+			for (long point : member.points) {
+				addedPoints[offset] = point;
+				addedOwners[offset] = owner;
+				order[offset] = offset;
+				offset++;
+			}
+		}
+		Arrays.sort(order, (a, b) -> Long.compare(addedPoints[a], addedPoints[b]));
+
+		// merge the kept points, already sorted, with the sorted added ones
+		int keptCount = 0;
+		for (String owner : owners) {
+			if (kept.contains(owner)) {
+				keptCount++;
+			}
+		}
+		long[] mergedPoints = new long[keptCount + addedCount];
+		String[] mergedOwners = new String[keptCount + addedCount];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < points.length || j < addedCount) {
+			if (i < points.length && !kept.contains(owners[i])) {
+				i++;
+				continue;
+			}
+			if (j == addedCount
+					|| (i < points.length && points[i] <= addedPoints[order[j]])) {
+				mergedPoints[k] = points[i];
+				mergedOwners[k++] = owners[i++];
+			}
+			else {
+				mergedPoints[k] = addedPoints[order[j]];
+				mergedOwners[k++] = addedOwners[order[j++]];
+			}
+		}
+		return new NacosConsistentHashRing<>(virtualNodes, current, mergedPoints,
+				mergedOwners, instances);
+	}
+
+	private int replicas(double weight) {
+		if (!(weight > 0D)) {
+			return 1;
+		}
+		long replicas = Math.round(virtualNodes * Math.min(weight, MAX_WEIGHT_FACTOR));
+		return (int) Math.max(1, replicas);
+	}
+
+	private static long[] points(String address, int replicas) {
+		long[] points = new long[replicas];
+		for (int i = 0; i < replicas; i++) {
+			points[i] = hash(address + "#" + i);
+		}
+		return points;
+	}
+
+	/**
+	 * 64-bit FNV-1a followed by the finalizer of MurmurHash3, which spreads the similar
+	 * keys of the virtual nodes evenly over the ring.
+	 */
+	static long hash(String key) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	private static final class Member<T> {
+
+		private final T instance;
+
+		private final int replicas;
+
+		private final long[] points;
+
+		private Member(T instance, int replicas, long[] points) {
+			this.instance = instance;
+			this.replicas = replicas;
+			this.points = points;
+		}
+
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.net.URI;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Hash key of the load-balanced call in progress. The balancers only see the service
+ * name, so the key is read from the outgoing request beforehand and handed over in a
+ * thread local for blocking calls, or in the Reactor context under {@link #CONTEXT_KEY}
+ * for reactive calls.
+ */
+public final class NacosHashKey {
+
+	/**
+	 * Key of the hash key in the Reactor context.
+	 */
+	public static final String CONTEXT_KEY = NacosHashKey.class.getName();
+
+	private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+	private NacosHashKey() {
+	}
+
+	/**
+	 * @return hash key of the blocking call in progress on this thread, or {@code null}
+	 */
+	public static String get() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Set the hash key of the blocking call in progress on this thread.
+	 * @param key the hash key, may be {@code null}
+	 * @return the previous hash key, to restore once the call is over
+	 */
+	public static String set(String key) {
+		String previous = CURRENT.get();
+		if (key == null) {
+			CURRENT.remove();
+		}
+		else {
+			CURRENT.set(key);
+		}
+		return previous;
+	}
+
+	/**
+	 * Read the hash key of an outgoing request from the configured header, or else from
+	 * the configured parameter.
+	 * @param headers headers of the request
+	 * @param uri URI of the request
+	 * @param properties consistent hash properties
+	 * @return the hash key, or {@code null} if the request has none
+	 */
+	public static String extract(HttpHeaders headers, URI uri,
+			NacosConsistentHashProperties properties) {
+		if (StringUtils.hasText(properties.getHeader())) {
+			String key = headers.getFirst(properties.getHeader());
+			if (StringUtils.hasText(key)) {
+				return key;
+			}
+		}
+		if (StringUtils.hasText(properties.getParameter()) && uri.getRawQuery() != null) {
+			String key = UriComponentsBuilder.fromUri(uri).build().getQueryParams()
+					.getFirst(properties.getParameter());
+			if (StringUtils.hasText(key)) {
+				return key;
+			}
+		}
+		return null;
+	}
+
+}
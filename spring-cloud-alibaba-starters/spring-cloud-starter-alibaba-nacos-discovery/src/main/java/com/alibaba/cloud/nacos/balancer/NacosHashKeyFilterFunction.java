@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+/**
+ * Hands the hash key of the calls of a load-balanced
+ * {@link org.springframework.web.reactive.function.client.WebClient} over to the balancer
+ * through the Reactor context. It must be the first filter, so that the context reaches
+ * the load balancer filter.
+ */
+public class NacosHashKeyFilterFunction implements ExchangeFilterFunction {
+
+	private final NacosConsistentHashProperties properties;
+
+	public NacosHashKeyFilterFunction(NacosConsistentHashProperties properties) {
+		this.properties = properties;
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		String key = NacosHashKey.extract(request.headers(), request.url(), properties);
+		if (key == null) {
+			return next.exchange(request);
+		}
+		return next.exchange(request)
+				.subscriberContext(context -> context.put(NacosHashKey.CONTEXT_KEY, key));
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Hands the hash key of the calls of a load-balanced
+ * {@link org.springframework.web.client.RestTemplate} over to the balancer through
+ * {@link NacosHashKey}. It is ordered first, so it runs before the load balancer
+ * interceptor.
+ */
+public class NacosHashKeyInterceptor implements ClientHttpRequestInterceptor, Ordered {
+
+	private final NacosConsistentHashProperties properties;
+
+	public NacosHashKeyInterceptor(NacosConsistentHashProperties properties) {
+		this.properties = properties;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+			ClientHttpRequestExecution execution) throws IOException {
+		String previous = NacosHashKey.set(
+				NacosHashKey.extract(request.getHeaders(), request.getURI(), properties));
+		try {
+			return execution.execute(request, body);
+		}
+		finally {
+			NacosHashKey.set(previous);
+		}
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerAutoConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration
+ * Auto-configuration} of the client-side outlier detection, which records the calls of
+ * the load-balanced {@link RestTemplate}s and {@link WebClient}s.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnNacosDiscoveryEnabled
+@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.outlier-detection.enabled",
+		havingValue = "true")
+@EnableConfigurationProperties(NacosOutlierDetectionProperties.class)
+@AutoConfigureAfter(LoadBalancerAutoConfiguration.class)
+public class NacosOutlierDetectionAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean
+	public NacosOutlierDetector nacosOutlierDetector(
+			NacosOutlierDetectionProperties properties) {
+		return new NacosOutlierDetector(properties);
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(RestTemplate.class)
+	static class RestTemplateOutlierDetectionConfiguration {
+
+		@LoadBalanced
+		@Autowired(required = false)
+		private List<RestTemplate> restTemplates = Collections.emptyList();
+
+		/**
+		 * Runs after the initializer of {@link LoadBalancerAutoConfiguration}, so the
+		 * interceptor comes after the load balancer interceptor.
+		 */
+		@Bean
+		public SmartInitializingSingleton nacosOutlierDetectionRestTemplateInitializer(
+				NacosOutlierDetector nacosOutlierDetector) {
+			return () -> {
+				for (RestTemplate restTemplate : restTemplates) {
+					List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(
+							restTemplate.getInterceptors());
+					interceptors.add(
+							new NacosOutlierDetectionInterceptor(nacosOutlierDetector));
+					restTemplate.setInterceptors(interceptors);
+				}
+			};
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(WebClient.class)
+	static class WebClientOutlierDetectionConfiguration {
+
+		@Bean
+		public static BeanPostProcessor nacosOutlierDetectionWebClientBuilderPostProcessor(
+				ObjectProvider<NacosOutlierDetector> nacosOutlierDetector,
+				ApplicationContext context) {
+			NacosOutlierDetectionFilterFunction filterFunction = new NacosOutlierDetectionFilterFunction(
+					nacosOutlierDetector);
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName)
+						throws BeansException {
+					// the load balancer filter is added before initialization
+					if (bean instanceof WebClient.Builder && context
+							.findAnnotationOnBean(beanName, LoadBalanced.class) != null) {
+						((WebClient.Builder) bean).filter(filterFunction);
+					}
+					return bean;
+				}
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.net.URI;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+/**
+ * Records the outcome of the calls of a load-balanced
+ * {@link org.springframework.web.reactive.function.client.WebClient} in a
+ * {@link NacosOutlierDetector}. It must be added after the load balancer filter, which
+ * resolves the service name to an instance.
+ */
+public class NacosOutlierDetectionFilterFunction implements ExchangeFilterFunction {
+
+	private final ObjectProvider<NacosOutlierDetector> outlierDetectorProvider;
+
+	public NacosOutlierDetectionFilterFunction(
+			ObjectProvider<NacosOutlierDetector> outlierDetectorProvider) {
+		this.outlierDetectorProvider = outlierDetectorProvider;
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		NacosOutlierDetector outlierDetector = outlierDetectorProvider.getIfAvailable();
+		if (outlierDetector == null) {
+			return next.exchange(request);
+		}
+		URI uri = request.url();
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			return next.exchange(request)
+					.doOnSuccess(response -> outlierDetector.record(uri,
+							System.nanoTime() - start,
+							response == null || response.rawStatusCode() < 500))
+					.doOnError(e -> outlierDetector.record(uri, System.nanoTime() - start,
+							false));
+		});
+	}
+
+}
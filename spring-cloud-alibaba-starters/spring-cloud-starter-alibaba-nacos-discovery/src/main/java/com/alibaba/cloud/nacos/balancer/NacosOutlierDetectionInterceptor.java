@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Records the outcome of the calls of a load-balanced
+ * {@link org.springframework.web.client.RestTemplate} in a {@link NacosOutlierDetector}.
+ * It must run after the load balancer interceptor, which resolves the service name to an
+ * instance.
+ */
+public class NacosOutlierDetectionInterceptor implements ClientHttpRequestInterceptor {
+
+	private final NacosOutlierDetector outlierDetector;
+
+	public NacosOutlierDetectionInterceptor(NacosOutlierDetector outlierDetector) {
+		this.outlierDetector = outlierDetector;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+			ClientHttpRequestExecution execution) throws IOException {
+		URI uri = request.getURI();
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			ClientHttpResponse response = execution.execute(request, body);
+			success = response.getRawStatusCode() < 500;
+			return response;
+		}
+		finally {
+			outlierDetector.record(uri, System.nanoTime() - start, success);
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties of the client-side outlier detection, see {@link NacosOutlierDetector}.
+ */
+@ConfigurationProperties(NacosOutlierDetectionProperties.PREFIX)
+public class NacosOutlierDetectionProperties {
+
+	/**
+	 * Prefix of {@link NacosOutlierDetectionProperties}.
+	 */
+	public static final String PREFIX = "spring.cloud.nacos.discovery.outlier-detection";
+
+	/**
+	 * track the outcome of load-balanced calls and eject or down-weight the instances
+	 * that fail or respond slowly.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * moving average of the error rate at which an instance is ejected, between 0 and 1.
+	 */
+	private double errorRateThreshold = 0.5;
+
+	/**
+	 * calls an instance must have served before it can be ejected or down-weighted.
+	 */
+	private int minRequests = 10;
+
+	/**
+	 * an instance whose moving average latency exceeds this multiple of the median of the
+	 * instances chosen from is down-weighted, a value less than or equal to 0 disables
+	 * the latency check.
+	 */
+	private double slowRatio = 3;
+
+	/**
+	 * how long an instance is ejected for, multiplied by the number of times in a row it
+	 * was ejected. Time unit: millisecond.
+	 */
+	private long ejectionDuration = 30000;
+
+	/**
+	 * maximum percentage of the instances chosen from that can be ejected at the same
+	 * time, the others are kept with a minimal weight.
+	 */
+	private int maxEjectionPercent = 50;
+
+	/**
+	 * how long an instance takes to get back its full weight once its ejection is over.
+	 * Time unit: millisecond.
+	 */
+	private long recoveryDuration = 30000;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public double getErrorRateThreshold() {
+		return errorRateThreshold;
+	}
+
+	public void setErrorRateThreshold(double errorRateThreshold) {
+		this.errorRateThreshold = errorRateThreshold;
+	}
+
+	public int getMinRequests() {
+		return minRequests;
+	}
+
+	public void setMinRequests(int minRequests) {
+		this.minRequests = minRequests;
+	}
+
+	public double getSlowRatio() {
+		return slowRatio;
+	}
+
+	public void setSlowRatio(double slowRatio) {
+		this.slowRatio = slowRatio;
+	}
+
+	public long getEjectionDuration() {
+		return ejectionDuration;
+	}
+
+	public void setEjectionDuration(long ejectionDuration) {
+		this.ejectionDuration = ejectionDuration;
+	}
+
+	public int getMaxEjectionPercent() {
+		return maxEjectionPercent;
+	}
+
+	public void setMaxEjectionPercent(int maxEjectionPercent) {
+		this.maxEjectionPercent = maxEjectionPercent;
+	}
+
+	public long getRecoveryDuration() {
+		return recoveryDuration;
+	}
+
+	public void setRecoveryDuration(long recoveryDuration) {
+		this.recoveryDuration = recoveryDuration;
+	}
+
+	@Override
+	public String toString() {
+		return "NacosOutlierDetectionProperties{" + "enabled=" + enabled
+				+ ", errorRateThreshold=" + errorRateThreshold + ", minRequests="
+				+ minRequests + ", slowRatio=" + slowRatio + ", ejectionDuration="
+				+ ejectionDuration + ", maxEjectionPercent=" + maxEjectionPercent
+				+ ", recoveryDuration=" + recoveryDuration + '}';
+	}
+
+}
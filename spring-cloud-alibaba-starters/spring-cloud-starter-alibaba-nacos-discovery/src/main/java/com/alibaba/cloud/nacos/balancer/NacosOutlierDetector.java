@@ -0,0 +1,321 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client-side outlier detection. The outcome and latency of every load-balanced call are
+ * recorded per instance address as exponentially weighted moving averages, which Nacos
+ * heartbeats know nothing about. An instance whose error rate crosses
+ * {@link NacosOutlierDetectionProperties#getErrorRateThreshold()} is ejected from the
+ * instances chosen from, then ramps up to its full weight again over
+ * {@link NacosOutlierDetectionProperties#getRecoveryDuration()}. An instance much slower
+ * than its peers is down-weighted in proportion.
+ * {@link com.alibaba.cloud.nacos.ribbon.NacosRule} and
+ * {@link com.alibaba.cloud.nacos.loadbalancer.NacosLoadBalancer} share one detector.
+ */
+public class NacosOutlierDetector {
+
+	private static final Logger log = LoggerFactory.getLogger(NacosOutlierDetector.class);
+
+	/**
+	 * Weight of the latest call in the moving averages.
+	 */
+	private static final double ALPHA = 0.2D;
+
+	/**
+	 * Lowest share of its weight an outlier keeps, so it receives some traffic to prove
+	 * itself with.
+	 */
+	private static final double MIN_WEIGHT_RATIO = 0.01D;
+
+	/**
+	 * Upper bound of the ejection duration multiplier.
+	 */
+	private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+	/**
+	 * Statistics of instances no call was recorded for within this duration are dropped.
+	 */
+	private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+	private static final int SWEEP_INTERVAL = 1024;
+
+	private final NacosOutlierDetectionProperties properties;
+
+	private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>(16);
+
+	private final AtomicLong records = new AtomicLong();
+
+	public NacosOutlierDetector(NacosOutlierDetectionProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Record the outcome of a call.
+	 * @param host host of the instance called
+	 * @param port port of the instance called
+	 * @param latencyNanos duration of the call
+	 * @param success false if the call failed or the instance answered with a server
+	 * error
+	 */
+	public void record(String host, int port, long latencyNanos, boolean success) {
+		record(host, port, latencyNanos, success, System.currentTimeMillis());
+	}
+
+	/**
+	 * Record the outcome of a call to the instance the given URI points at.
+	 * @param uri URI called, resolved to an instance by the load balancer
+	 * @param latencyNanos duration of the call
+	 * @param success false if the call failed or the instance answered with a server
+	 * error
+	 */
+	public void record(URI uri, long latencyNanos, boolean success) {
+		if (uri.getHost() == null) {
+			return;
+		}
+		int port = uri.getPort();
+		if (port < 0) {
+			port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+		}
+		record(uri.getHost(), port, latencyNanos, success);
+	}
+
+	void record(String host, int port, long latencyNanos, boolean success, long now) {
+		String address = address(host, port);
+		InstanceStats instanceStats = stats.computeIfAbsent(address,
+				key -> new InstanceStats());
+		if (instanceStats.record(latencyNanos, success, now, properties)) {
+			log.warn("instance {} is ejected for {} ms, error rate: {}", address,
+					instanceStats.getEjectedUntil() - now, instanceStats.getErrorRate());
+		}
+		if (records.incrementAndGet() % SWEEP_INTERVAL == 0) {
+			stats.values().removeIf(value -> now - value.lastRecorded > IDLE_TIMEOUT);
+		}
+	}
+
+	/**
+	 * Return the given instances without the ejected ones and with the weights of the
+	 * recovering and slow ones scaled down. Adjusted instances are copied, the given
+	 * instances are never modified.
+	 * @param instances instances to choose from
+	 * @return the given list if no instance is an outlier, a new list otherwise
+	 */
+	public List<Instance> apply(List<Instance> instances) {
+		return apply(instances, System.currentTimeMillis());
+	}
+
+	List<Instance> apply(List<Instance> instances, long now) {
+		double[] ratios = getWeightRatios(instances, now);
+		if (ratios == null) {
+			return instances;
+		}
+		List<Instance> result = new ArrayList<>(instances.size());
+		for (int i = 0; i < instances.size(); i++) {
+			Instance instance = instances.get(i);
+			if (ratios[i] <= 0D) {
+				continue;
+			}
+			result.add(ratios[i] < 1D ? NacosWarmup.copyWithWeight(instance,
+					instance.getWeight() * ratios[i]) : instance);
+		}
+		return result;
+	}
+
+	/**
+	 * Return the share of its weight each of the given instances keeps, {@code 0} if it
+	 * is ejected. At most {@link NacosOutlierDetectionProperties#getMaxEjectionPercent()}
+	 * of the instances are ejected, the others keep a minimal share instead.
+	 * @param instances instances to choose from
+	 * @return the share of each instance, or {@code null} if every instance keeps its
+	 * full weight
+	 */
+	public double[] getWeightRatios(List<Instance> instances) {
+		return getWeightRatios(instances, System.currentTimeMillis());
+	}
+
+	double[] getWeightRatios(List<Instance> instances, long now) {
+		if (stats.isEmpty() || instances.isEmpty()) {
+			return null;
+		}
+		InstanceStats[] snapshot = new InstanceStats[instances.size()];
+		boolean found = false;
+		for (int i = 0; i < snapshot.length; i++) {
+			Instance instance = instances.get(i);
+			snapshot[i] = stats.get(address(instance.getIp(), instance.getPort()));
+			found |= snapshot[i] != null;
+		}
+		if (!found) {
+			return null;
+		}
+
+		double medianLatency = medianLatency(snapshot);
+		int maxEjected = snapshot.length * properties.getMaxEjectionPercent() / 100;
+		int ejected = 0;
+		double[] ratios = null;
+		for (int i = 0; i < snapshot.length; i++) {
+			if (snapshot[i] == null) {
+				continue;
+			}
+			double ratio = snapshot[i].getWeightRatio(now, medianLatency, properties);
+			if (ratio <= 0D) {
+				ratio = ejected < maxEjected ? 0D : MIN_WEIGHT_RATIO;
+				ejected++;
+			}
+			if (ratio < 1D) {
+				if (ratios == null) {
+					ratios = new double[snapshot.length];
+					Arrays.fill(ratios, 1D);
+				}
+				ratios[i] = ratio;
+			}
+		}
+		return ratios;
+	}
+
+	/**
+	 * @return statistics per instance, keyed by {@code host:port}
+	 */
+	public Map<String, InstanceStats> getStats() {
+		return Collections.unmodifiableMap(stats);
+	}
+
+	private double medianLatency(InstanceStats[] snapshot) {
+		if (properties.getSlowRatio() <= 0D) {
+			return 0D;
+		}
+		double[] latencies = new double[snapshot.length];
+		int count = 0;
+		for (InstanceStats instanceStats : snapshot) {
+			if (instanceStats != null
+					&& instanceStats.requests >= properties.getMinRequests()) {
+				latencies[count++] = instanceStats.latencyNanos;
+			}
+		}
+		// a median of less than three instances tells nothing about which one is slow
+		if (count < 3) {
+			return 0D;
+		}
+		Arrays.sort(latencies, 0, count);
+		return latencies[count / 2];
+	}
+
+	private static String address(String host, int port) {
+		return host + ":" + port;
+	}
+
+	/**
+	 * Statistics of one instance.
+	 */
+	public static final class InstanceStats {
+
+		private long requests;
+
+		private double errorRate;
+
+		private double latencyNanos = -1D;
+
+		private int ejections;
+
+		private volatile long ejectedUntil;
+
+		private volatile long lastRecorded;
+
+		/**
+		 * @return true if the instance got ejected
+		 */
+		private synchronized boolean record(long nanos, boolean success, long now,
+				NacosOutlierDetectionProperties properties) {
+			lastRecorded = now;
+			double error = success ? 0D : 1D;
+			errorRate = requests == 0 ? error : errorRate + ALPHA * (error - errorRate);
+			latencyNanos = latencyNanos < 0D ? nanos
+					: latencyNanos + ALPHA * (nanos - latencyNanos);
+			requests++;
+
+			if (now < ejectedUntil) {
+				return false;
+			}
+			if (ejections > 0 && now - ejectedUntil > properties.getRecoveryDuration()
+					+ properties.getEjectionDuration()) {
+				ejections = 0;
+			}
+			if (requests >= properties.getMinRequests()
+					&& errorRate >= properties.getErrorRateThreshold()) {
+				ejections = Math.min(ejections + 1, MAX_EJECTION_MULTIPLIER);
+				ejectedUntil = now + properties.getEjectionDuration() * ejections;
+				// the instance has to prove itself again once it is back
+				requests = 0;
+				return true;
+			}
+			return false;
+		}
+
+		private synchronized double getWeightRatio(long now, double medianLatency,
+				NacosOutlierDetectionProperties properties) {
+			if (now < ejectedUntil) {
+				return 0D;
+			}
+			double ratio = 1D;
+			long recovery = properties.getRecoveryDuration();
+			if (ejectedUntil > 0 && recovery > 0 && now - ejectedUntil < recovery) {
+				ratio = Math.max((double) (now - ejectedUntil) / recovery,
+						MIN_WEIGHT_RATIO);
+			}
+			if (medianLatency > 0D && requests >= properties.getMinRequests()
+					&& latencyNanos > medianLatency * properties.getSlowRatio()) {
+				ratio *= Math.max(medianLatency / latencyNanos, MIN_WEIGHT_RATIO);
+			}
+			return ratio;
+		}
+
+		public synchronized double getErrorRate() {
+			return errorRate;
+		}
+
+		public synchronized double getLatencyMillis() {
+			return latencyNanos < 0D ? 0D : latencyNanos / 1e6;
+		}
+
+		public synchronized int getEjections() {
+			return ejections;
+		}
+
+		/**
+		 * @return time in milliseconds the current or last ejection ends at, {@code 0} if
+		 * the instance was never ejected
+		 */
+		public long getEjectedUntil() {
+			return ejectedUntil;
+		}
+
+	}
+
+}
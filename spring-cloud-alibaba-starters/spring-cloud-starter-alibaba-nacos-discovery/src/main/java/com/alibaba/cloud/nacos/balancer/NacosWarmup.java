@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+/**
+ * Warm-up of newly started instances. An instance publishes its start timestamp and
+ * warm-up duration as metadata, see
+ * {@link com.alibaba.cloud.nacos.NacosDiscoveryProperties#getWarmupDuration()}, and the
+ * callers scale its weight by {@code (uptime / duration) ^ curve} until the warm-up is
+ * over. The uptime is computed against the local clock of the caller, so clock skew
+ * between hosts shortens or lengthens the warm-up accordingly.
+ */
+public final class NacosWarmup {
+
+	/**
+	 * The metadata key of the instance start timestamp, in epoch milliseconds.
+	 */
+	public static final String START_TIMESTAMP = "warmup.start-timestamp";
+
+	/**
+	 * The metadata key of the instance warm-up duration, in milliseconds.
+	 */
+	public static final String DURATION = "warmup.duration";
+
+	/**
+	 * Lowest share of its weight a warming instance gets, so it receives some traffic to
+	 * warm up with.
+	 */
+	private static final double MIN_WEIGHT_RATIO = 0.01D;
+
+	private NacosWarmup() {
+	}
+
+	/**
+	 * Return the weight of an instance scaled by its warm-up progress.
+	 * @param weight registered weight of the instance
+	 * @param metadata metadata of the instance
+	 * @param curve exponent of the warm-up curve, 1 ramps up linearly
+	 * @param now current time in epoch milliseconds
+	 * @return effective weight, the registered weight once the warm-up is over
+	 */
+	public static double getWeight(double weight, Map<String, String> metadata,
+			double curve, long now) {
+		double ratio = getWeightRatio(metadata, curve, now);
+		return ratio < 1D ? weight * ratio : weight;
+	}
+
+	/**
+	 * Return the given instances with their weights scaled by their warm-up progress.
+	 * Warming instances are copied, the given instances are never modified.
+	 * @param instances instances to choose from
+	 * @param curve exponent of the warm-up curve, 1 ramps up linearly
+	 * @return the given list if no instance is warming up, a new list otherwise
+	 */
+	public static List<Instance> warmup(List<Instance> instances, double curve) {
+		long now = System.currentTimeMillis();
+		List<Instance> result = null;
+		for (int i = 0; i < instances.size(); i++) {
+			Instance instance = instances.get(i);
+			double ratio = getWeightRatio(instance.getMetadata(), curve, now);
+			if (ratio < 1D) {
+				if (result == null) {
+					result = new ArrayList<>(instances);
+				}
+				result.set(i, copyWithWeight(instance, instance.getWeight() * ratio));
+			}
+		}
+		return result == null ? instances : result;
+	}
+
+	private static double getWeightRatio(Map<String, String> metadata, double curve,
+			long now) {
+		if (metadata == null) {
+			return 1D;
+		}
+		String startTimestamp = metadata.get(START_TIMESTAMP);
+		String duration = metadata.get(DURATION);
+		if (startTimestamp == null || duration == null) {
+			return 1D;
+		}
+		try {
+			long warmup = Long.parseLong(duration);
+			long uptime = now - Long.parseLong(startTimestamp);
+			if (warmup <= 0 || uptime >= warmup) {
+				return 1D;
+			}
+			if (uptime <= 0) {
+				return MIN_WEIGHT_RATIO;
+			}
+			return Math.max(Math.pow((double) uptime / warmup, curve), MIN_WEIGHT_RATIO);
+		}
+		catch (NumberFormatException e) {
+			return 1D;
+		}
+	}
+
+	static Instance copyWithWeight(Instance source, double weight) {
+		Instance instance = new Instance();
+		instance.setInstanceId(source.getInstanceId());
+		instance.setIp(source.getIp());
+		instance.setPort(source.getPort());
+		instance.setWeight(weight);
+		instance.setHealthy(source.isHealthy());
+		instance.setEnabled(source.isEnabled());
+		instance.setEphemeral(source.isEphemeral());
+		instance.setClusterName(source.getClusterName());
+		instance.setServiceName(source.getServiceName());
+		instance.setMetadata(source.getMetadata() == null ? new HashMap<>()
+				: new HashMap<>(source.getMetadata()));
+		return instance;
+	}
+
+}
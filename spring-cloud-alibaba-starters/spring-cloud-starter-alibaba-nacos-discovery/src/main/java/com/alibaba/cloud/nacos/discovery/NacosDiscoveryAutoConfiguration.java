@@ -47,4 +47,12 @@ public class NacosDiscoveryAutoConfiguration {
 		return new NacosServiceDiscovery(discoveryProperties, nacosServiceManager);
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	public NacosInstanceCache nacosInstanceCache(
+			NacosDiscoveryProperties discoveryProperties,
+			NacosServiceManager nacosServiceManager) {
+		return new NacosInstanceCache(discoveryProperties, nacosServiceManager);
+	}
+
 }
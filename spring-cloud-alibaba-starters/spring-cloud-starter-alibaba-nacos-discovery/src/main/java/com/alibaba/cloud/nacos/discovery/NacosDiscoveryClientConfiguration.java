@@ -51,13 +51,24 @@ public class NacosDiscoveryClientConfiguration {
 		return new NacosDiscoveryClient(nacosServiceDiscovery);
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	public NacosNamespaceDiscoveryClients nacosNamespaceDiscoveryClients(
+			NacosDiscoveryProperties nacosDiscoveryProperties,
+			NacosServiceManager nacosServiceManager) {
+		return new NacosNamespaceDiscoveryClients(nacosDiscoveryProperties,
+				nacosServiceManager);
+	}
+
 	@Bean
 	@ConditionalOnMissingBean
 	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.watch.enabled",
 			matchIfMissing = true)
 	public NacosWatch nacosWatch(NacosServiceManager nacosServiceManager,
-			NacosDiscoveryProperties nacosDiscoveryProperties) {
-		return new NacosWatch(nacosServiceManager, nacosDiscoveryProperties);
+			NacosDiscoveryProperties nacosDiscoveryProperties,
+			NacosServiceDiscovery nacosServiceDiscovery) {
+		return new NacosWatch(nacosServiceManager, nacosDiscoveryProperties,
+				nacosServiceDiscovery);
 	}
 
 }
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Local cache of the healthy instances per service, filled on the first lookup and kept
+ * up to date by the naming events Nacos pushes afterwards. The services subscribed
+ * through a naming service that is shut down are dropped, and loaded and subscribed again
+ * through a new one on their next lookup.
+ *
+ * @see NacosServiceDiscovery
+ */
+public class NacosInstanceCache implements DisposableBean {
+
+	private static final Logger log = LoggerFactory.getLogger(NacosInstanceCache.class);
+
+	private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>(16);
+
+	private final List<BiConsumer<String, List<Instance>>> listeners = new CopyOnWriteArrayList<>();
+
+	private final NacosDiscoveryProperties discoveryProperties;
+
+	private final NacosServiceManager nacosServiceManager;
+
+	private final Consumer<NamingService> shutDownListener = this::evict;
+
+	public NacosInstanceCache(NacosDiscoveryProperties discoveryProperties,
+			NacosServiceManager nacosServiceManager) {
+		this.discoveryProperties = discoveryProperties;
+		this.nacosServiceManager = nacosServiceManager;
+		nacosServiceManager.addNamingServiceShutDownListener(shutDownListener);
+	}
+
+	/**
+	 * Return the cached healthy instances of the given service without any remote call.
+	 * @param serviceId id of service
+	 * @return cached instances, or {@code null} if the service is not cached yet
+	 */
+	public List<Instance> getIfPresent(String serviceId) {
+		CacheEntry entry = cache.get(serviceId);
+		return entry == null ? null : entry.instances;
+	}
+
+	/**
+	 * Return the healthy instances of the given service, loading them from the Nacos
+	 * server and subscribing to their changes on a cache miss.
+	 * @param serviceId id of service
+	 * @return list of instances
+	 * @throws NacosException nacosException
+	 */
+	public List<Instance> getInstances(String serviceId) throws NacosException {
+		CacheEntry entry = cache.get(serviceId);
+		if (entry != null) {
+			discoveryMetrics().recordCacheHit(NacosDiscoveryMetrics.INSTANCE_CACHE);
+			return entry.instances;
+		}
+		discoveryMetrics().recordCacheMiss(NacosDiscoveryMetrics.INSTANCE_CACHE);
+		return load(serviceId);
+	}
+
+	/**
+	 * Return the time the instances of the given service were last updated.
+	 * @param serviceId id of service
+	 * @return timestamp in milliseconds, or {@code -1} if the service is not cached
+	 */
+	public long getLastUpdated(String serviceId) {
+		CacheEntry entry = cache.get(serviceId);
+		return entry == null ? -1 : entry.lastUpdated;
+	}
+
+	/**
+	 * @return names of the cached services
+	 */
+	public Set<String> getServices() {
+		return Collections.unmodifiableSet(cache.keySet());
+	}
+
+	/**
+	 * Add a listener notified with the new healthy instances every time a cached service
+	 * is updated by Nacos.
+	 * @param listener callback receiving the service name and its instances
+	 */
+	public void addListener(BiConsumer<String, List<Instance>> listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(BiConsumer<String, List<Instance>> listener) {
+		listeners.remove(listener);
+	}
+
+	private List<Instance> load(String serviceId) throws NacosException {
+		String group = discoveryProperties.getGroup();
+		NamingService namingService = namingService();
+		List<Instance> instances = unmodifiable(nacosServiceManager.getInstanceLoader()
+				.selectInstances(namingService, discoveryProperties, serviceId));
+		discoveryMetrics().recordInstanceCount(serviceId, instances.size());
+		EventListener listener = event -> {
+			if (event instanceof NamingEvent) {
+				update(serviceId, ((NamingEvent) event).getInstances());
+			}
+		};
+		CacheEntry entry = new CacheEntry(instances, listener, namingService);
+		CacheEntry previous = cache.putIfAbsent(serviceId, entry);
+		if (previous != null) {
+			return previous.instances;
+		}
+		try {
+			namingService.subscribe(serviceId, group, entry.listener);
+		}
+		catch (NacosException e) {
+			cache.remove(serviceId, entry);
+			throw e;
+		}
+		return instances;
+	}
+
+	private void update(String serviceId, List<Instance> allInstances) {
+		CacheEntry entry = cache.get(serviceId);
+		if (entry == null) {
+			return;
+		}
+		List<Instance> instances = selectHealthy(allInstances);
+		entry.instances = instances;
+		entry.lastUpdated = System.currentTimeMillis();
+		discoveryMetrics().recordInstanceCount(serviceId, instances.size());
+		if (!instances.isEmpty()) {
+			nacosServiceManager.getInstanceLoader().invalidate(entry.namingService,
+					discoveryProperties, serviceId);
+		}
+		for (BiConsumer<String, List<Instance>> listener : listeners) {
+			try {
+				listener.accept(serviceId, instances);
+			}
+			catch (Exception e) {
+				log.error("notify instances change of service {} failed", serviceId, e);
+			}
+		}
+	}
+
+	/**
+	 * Drop the services subscribed through the given naming service, which no longer
+	 * receives pushes once shut down.
+	 */
+	private void evict(NamingService namingService) {
+		cache.forEach((serviceId, entry) -> {
+			if (entry.namingService == namingService && cache.remove(serviceId, entry)) {
+				log.info("naming service shut down, drop cached instances of service {}",
+						serviceId);
+			}
+		});
+	}
+
+	/**
+	 * Keep the same instances as {@link NamingService#selectInstances} does when only
+	 * healthy ones are requested.
+	 */
+	private static List<Instance> selectHealthy(List<Instance> instances) {
+		if (instances == null || instances.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Collections
+				.unmodifiableList(instances.stream()
+						.filter(instance -> instance.isHealthy() && instance.isEnabled()
+								&& instance.getWeight() > 0)
+						.collect(Collectors.toList()));
+	}
+
+	private static List<Instance> unmodifiable(List<Instance> instances) {
+		if (instances == null || instances.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(instances);
+	}
+
+	@Override
+	public void destroy() {
+		nacosServiceManager.removeNamingServiceShutDownListener(shutDownListener);
+		String group = discoveryProperties.getGroup();
+		cache.forEach((serviceId, entry) -> {
+			try {
+				entry.namingService.unsubscribe(serviceId, group, entry.listener);
+			}
+			catch (Exception e) {
+				log.warn("namingService unsubscribe failed, service:{}", serviceId, e);
+			}
+		});
+		cache.clear();
+	}
+
+	private NacosDiscoveryMetrics discoveryMetrics() {
+		return nacosServiceManager.getDiscoveryMetrics();
+	}
+
+	private NamingService namingService() {
+		return nacosServiceManager
+				.getNamingService(discoveryProperties.getNacosProperties());
+	}
+
+	private static class CacheEntry {
+
+		private volatile List<Instance> instances;
+
+		private volatile long lastUpdated;
+
+		private final EventListener listener;
+
+		private final NamingService namingService;
+
+		CacheEntry(List<Instance> instances, EventListener listener,
+				NamingService namingService) {
+			this.instances = instances;
+			this.lastUpdated = System.currentTimeMillis();
+			this.listener = listener;
+			this.namingService = namingService;
+		}
+
+	}
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+/**
+ * Immutable view of the instances of one service, keyed by the address and cluster that
+ * identify an instance, together with a fingerprint of everything else consumers care
+ * about. Comparing two snapshots costs one hash lookup per instance.
+ */
+public final class NacosInstancesSnapshot {
+
+	private static final NacosInstancesSnapshot EMPTY = new NacosInstancesSnapshot(
+			Collections.emptyMap());
+
+	private final Map<String, Entry> entries;
+
+	private NacosInstancesSnapshot(Map<String, Entry> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * @param instances instances of a service, may be {@code null}
+	 * @return snapshot of the instances
+	 */
+	public static NacosInstancesSnapshot of(List<Instance> instances) {
+		if (instances == null || instances.isEmpty()) {
+			return EMPTY;
+		}
+		Map<String, Entry> entries = new HashMap<>(instances.size() * 4 / 3 + 1);
+		for (Instance instance : instances) {
+			entries.put(identity(instance), new Entry(instance, fingerprint(instance)));
+		}
+		return new NacosInstancesSnapshot(entries);
+	}
+
+	/**
+	 * Compare this snapshot with an earlier one of the same service.
+	 * @param previous earlier snapshot, {@code null} if there is none
+	 * @return instances added, removed and modified since the earlier snapshot
+	 */
+	public Diff diff(NacosInstancesSnapshot previous) {
+		Map<String, Entry> before = previous == null ? Collections.emptyMap()
+				: previous.entries;
+		List<Instance> added = new ArrayList<>();
+		List<Instance> modified = new ArrayList<>();
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			Entry old = before.get(entry.getKey());
+			if (old == null) {
+				added.add(entry.getValue().instance);
+			}
+			else if (old.fingerprint != entry.getValue().fingerprint) {
+				modified.add(entry.getValue().instance);
+			}
+		}
+		List<Instance> removed = new ArrayList<>();
+		// each instance is either in both snapshots or counted above
+		if (before.size() > entries.size() - added.size()) {
+			for (Map.Entry<String, Entry> entry : before.entrySet()) {
+				if (!entries.containsKey(entry.getKey())) {
+					removed.add(entry.getValue().instance);
+				}
+			}
+		}
+		return new Diff(added, removed, modified);
+	}
+
+	/**
+	 * @return instances of the snapshot, in no particular order
+	 */
+	public List<Instance> getInstances() {
+		List<Instance> instances = new ArrayList<>(entries.size());
+		for (Entry entry : entries.values()) {
+			instances.add(entry.instance);
+		}
+		return instances;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @param instance instance of a service
+	 * @return key telling apart the instances of a service
+	 */
+	public static String identity(Instance instance) {
+		return instance.getIp() + ':' + instance.getPort() + '@'
+				+ instance.getClusterName();
+	}
+
+	/**
+	 * 64-bit fingerprint of the mutable state of an instance. Metadata entries are summed
+	 * so that the fingerprint does not depend on the iteration order of the map.
+	 * @param instance instance of a service
+	 * @return fingerprint of the instance
+	 */
+	public static long fingerprint(Instance instance) {
+		long hash = mix(Double.doubleToLongBits(instance.getWeight()));
+		hash = hash * 31 + (instance.isHealthy() ? 1 : 0);
+		hash = hash * 31 + (instance.isEnabled() ? 1 : 0);
+		hash = hash * 31 + (instance.isEphemeral() ? 1 : 0);
+		hash = hash * 31 + hashCode(instance.getInstanceId());
+		long metadata = 0;
+		if (instance.getMetadata() != null) {
+			metadata = instance.getMetadata().size();
+			for (Map.Entry<String, String> entry : instance.getMetadata().entrySet()) {
+				metadata += mix(((long) hashCode(entry.getKey()) << 32)
+						^ (hashCode(entry.getValue()) & 0xFFFFFFFFL));
+			}
+		}
+		return mix(hash ^ mix(metadata));
+	}
+
+	private static int hashCode(String value) {
+		return value == null ? 0 : value.hashCode();
+	}
+
+	/**
+	 * Finalizer of MurmurHash3, spreads every input bit over the whole result.
+	 */
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	private static final class Entry {
+
+		private final Instance instance;
+
+		private final long fingerprint;
+
+		private Entry(Instance instance, long fingerprint) {
+			this.instance = instance;
+			this.fingerprint = fingerprint;
+		}
+
+	}
+
+	/**
+	 * Instances added, removed and modified between two snapshots.
+	 */
+	public static final class Diff {
+
+		private final List<Instance> added;
+
+		private final List<Instance> removed;
+
+		private final List<Instance> modified;
+
+		private Diff(List<Instance> added, List<Instance> removed,
+				List<Instance> modified) {
+			this.added = Collections.unmodifiableList(added);
+			this.removed = Collections.unmodifiableList(removed);
+			this.modified = Collections.unmodifiableList(modified);
+		}
+
+		public List<Instance> getAdded() {
+			return added;
+		}
+
+		public List<Instance> getRemoved() {
+			return removed;
+		}
+
+		public List<Instance> getModified() {
+			return modified;
+		}
+
+		public boolean isEmpty() {
+			return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+		}
+
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+/**
+ * Discovery clients of the namespaces of the Nacos server, so that one application can
+ * discover the services of several tenants. The clients are created on first use and
+ * share the naming service of their namespace through {@link NacosServiceManager}, which
+ * also shuts them down.
+ */
+public class NacosNamespaceDiscoveryClients {
+
+	private final NacosDiscoveryProperties discoveryProperties;
+
+	private final NacosServiceManager nacosServiceManager;
+
+	private final Map<String, NacosServiceDiscovery> serviceDiscoveries = new ConcurrentHashMap<>(
+			4);
+
+	private final Map<String, DiscoveryClient> discoveryClients = new ConcurrentHashMap<>(
+			4);
+
+	public NacosNamespaceDiscoveryClients(NacosDiscoveryProperties discoveryProperties,
+			NacosServiceManager nacosServiceManager) {
+		this.discoveryProperties = discoveryProperties;
+		this.nacosServiceManager = nacosServiceManager;
+	}
+
+	/**
+	 * @param namespace the namespace, empty for the public one
+	 * @return the discovery client of the namespace
+	 */
+	public DiscoveryClient getDiscoveryClient(String namespace) {
+		return discoveryClients.computeIfAbsent(Objects.toString(namespace, ""),
+				key -> new NacosDiscoveryClient(getServiceDiscovery(key)));
+	}
+
+	/**
+	 * @param namespace the namespace, empty for the public one
+	 * @return the service discovery of the namespace
+	 */
+	public NacosServiceDiscovery getServiceDiscovery(String namespace) {
+		return serviceDiscoveries.computeIfAbsent(Objects.toString(namespace, ""),
+				key -> new NacosServiceDiscovery(discoveryProperties.withNamespace(key),
+						nacosServiceManager));
+	}
+
+}
@@ -17,13 +17,21 @@
 package com.alibaba.cloud.nacos.discovery;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceInstance;
+import com.alibaba.cloud.nacos.NacosServiceInstanceMetadata;
 import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
 import com.alibaba.nacos.api.exception.NacosException;
 import com.alibaba.nacos.api.naming.NamingService;
 import com.alibaba.nacos.api.naming.pojo.Instance;
@@ -40,6 +48,28 @@ public class NacosServiceDiscovery {
 
 	private NacosServiceManager nacosServiceManager;
 
+	/**
+	 * names of the services that have been looked up through this discovery.
+	 */
+	private final Set<String> lookedUpServices = ConcurrentHashMap.newKeySet();
+
+	private final List<Consumer<String>> serviceLookupListeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * names of all services in the order of the server, see
+	 * {@link #refreshServiceIndex(Consumer)}.
+	 */
+	private volatile List<String> serviceIndex;
+
+	private volatile long serviceIndexRefreshed = -1;
+
+	private final AtomicBoolean serviceIndexRefreshing = new AtomicBoolean(false);
+
+	/**
+	 * whether {@link NacosWatch} reloads the index every watch delay.
+	 */
+	private volatile boolean serviceIndexWatched;
+
 	public NacosServiceDiscovery(NacosDiscoveryProperties discoveryProperties,
 			NacosServiceManager nacosServiceManager) {
 		this.discoveryProperties = discoveryProperties;
@@ -53,22 +83,132 @@ public class NacosServiceDiscovery {
 	 * @throws NacosException nacosException
 	 */
 	public List<ServiceInstance> getInstances(String serviceId) throws NacosException {
-		String group = discoveryProperties.getGroup();
-		List<Instance> instances = namingService().selectInstances(serviceId, group,
-				true);
+		List<Instance> instances = nacosServiceManager.getInstanceLoader()
+				.selectInstances(namingService(), discoveryProperties, serviceId);
+		if (lookedUpServices.add(serviceId)) {
+			serviceLookupListeners.forEach(listener -> listener.accept(serviceId));
+		}
 		return hostToServiceInstanceList(instances, serviceId);
 	}
 
+	/**
+	 * Return the names of the services that have been looked up so far.
+	 * @return unmodifiable view of service names
+	 */
+	public Set<String> getLookedUpServices() {
+		return Collections.unmodifiableSet(lookedUpServices);
+	}
+
+	/**
+	 * Add a listener that is notified once for every service looked up through this
+	 * discovery, including the services that have already been looked up.
+	 * @param listener callback receiving the service name
+	 */
+	public void addServiceLookupListener(Consumer<String> listener) {
+		serviceLookupListeners.add(listener);
+		lookedUpServices.forEach(listener);
+	}
+
+	public void removeServiceLookupListener(Consumer<String> listener) {
+		serviceLookupListeners.remove(listener);
+	}
+
 	/**
 	 * Return the names of all services.
 	 * @return list of service names
 	 * @throws NacosException nacosException
 	 */
 	public List<String> getServices() throws NacosException {
-		String group = discoveryProperties.getGroup();
-		ListView<String> services = namingService().getServicesOfServer(1,
-				Integer.MAX_VALUE, group);
-		return services.getData();
+		List<String> services = getCachedServices();
+		if (services != null) {
+			discoveryMetrics().recordCacheHit(NacosDiscoveryMetrics.SERVICE_INDEX);
+			return services;
+		}
+		discoveryMetrics().recordCacheMiss(NacosDiscoveryMetrics.SERVICE_INDEX);
+		return new ArrayList<>(refreshServiceIndex(page -> {
+		}));
+	}
+
+	/**
+	 * Return the names of all services from the local index, without any remote call.
+	 * @return list of service names, or {@code null} if the index is disabled or stale
+	 */
+	public List<String> getCachedServices() {
+		long ttl = serviceIndexTtl();
+		List<String> index = serviceIndex;
+		if (ttl <= 0 || index == null
+				|| System.currentTimeMillis() - serviceIndexRefreshed > ttl) {
+			return null;
+		}
+		return new ArrayList<>(index);
+	}
+
+	/**
+	 * Fetch the names of all services page by page and replace the local index with them
+	 * once the last page has been fetched. Nacos has no way to list only the services
+	 * changed since, so every refresh is a full reload of the catalog. While the index is
+	 * enabled and one caller is refreshing it, the other callers get the previous index
+	 * as a single page instead of fetching it again.
+	 * @param pageConsumer callback receiving every fetched page
+	 * @return unmodifiable list of service names
+	 * @throws NacosException nacosException
+	 */
+	public List<String> refreshServiceIndex(Consumer<List<String>> pageConsumer)
+			throws NacosException {
+		List<String> index = serviceIndex;
+		boolean refreshing = serviceIndexRefreshing.compareAndSet(false, true);
+		if (!refreshing && index != null && serviceIndexTtl() > 0) {
+			pageConsumer.accept(index);
+			return index;
+		}
+		try {
+			String group = discoveryProperties.getGroup();
+			int pageSize = discoveryProperties.getServicePageSize();
+			if (pageSize <= 0) {
+				pageSize = Integer.MAX_VALUE;
+			}
+			NamingService namingService = namingService();
+			Set<String> fetched = new LinkedHashSet<>();
+			for (int pageNo = 1;; pageNo++) {
+				ListView<String> services = namingService.getServicesOfServer(pageNo,
+						pageSize, group);
+				List<String> page = services == null || services.getData() == null
+						? Collections.emptyList() : services.getData();
+				fetched.addAll(page);
+				pageConsumer.accept(page);
+				if (page.size() < pageSize
+						|| (long) pageNo * pageSize >= services.getCount()) {
+					break;
+				}
+			}
+			index = Collections.unmodifiableList(new ArrayList<>(fetched));
+			serviceIndex = index;
+			serviceIndexRefreshed = System.currentTimeMillis();
+			return index;
+		}
+		finally {
+			if (refreshing) {
+				serviceIndexRefreshing.set(false);
+			}
+		}
+	}
+
+	/**
+	 * While {@link NacosWatch} reloads the index every watch delay, it is served in
+	 * between even without a ttl, so that the listeners of the events it publishes, e.g.
+	 * Dubbo subscribe-all, do not reload the whole catalog once more.
+	 */
+	void setServiceIndexWatched(boolean serviceIndexWatched) {
+		this.serviceIndexWatched = serviceIndexWatched;
+	}
+
+	private long serviceIndexTtl() {
+		long ttl = discoveryProperties.getServiceIndexTtl();
+		if (ttl <= 0 && serviceIndexWatched) {
+			// one late reload of the watch is tolerated
+			return 2 * discoveryProperties.getWatchDelay();
+		}
+		return ttl;
 	}
 
 	public static List<ServiceInstance> hostToServiceInstanceList(
@@ -93,15 +233,7 @@ public class NacosServiceDiscovery {
 		nacosServiceInstance.setPort(instance.getPort());
 		nacosServiceInstance.setServiceId(serviceId);
 
-		Map<String, String> metadata = new HashMap<>();
-		metadata.put("nacos.instanceId", instance.getInstanceId());
-		metadata.put("nacos.weight", instance.getWeight() + "");
-		metadata.put("nacos.healthy", instance.isHealthy() + "");
-		metadata.put("nacos.cluster", instance.getClusterName() + "");
-		if (instance.getMetadata() != null) {
-			metadata.putAll(instance.getMetadata());
-		}
-		metadata.put("nacos.ephemeral", String.valueOf(instance.isEphemeral()));
+		Map<String, String> metadata = new NacosServiceInstanceMetadata(instance);
 		nacosServiceInstance.setMetadata(metadata);
 
 		if (metadata.containsKey("secure")) {
@@ -116,4 +248,8 @@ public class NacosServiceDiscovery {
 				.getNamingService(discoveryProperties.getNacosProperties());
 	}
 
+	private NacosDiscoveryMetrics discoveryMetrics() {
+		return nacosServiceManager.getDiscoveryMetrics();
+	}
+
 }
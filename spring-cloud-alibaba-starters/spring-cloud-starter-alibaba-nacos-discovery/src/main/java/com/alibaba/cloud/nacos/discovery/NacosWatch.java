@@ -17,16 +17,23 @@
 package com.alibaba.cloud.nacos.discovery;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.event.NacosServiceInstancesChangedEvent;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
 import com.alibaba.nacos.api.naming.NamingService;
 import com.alibaba.nacos.api.naming.listener.Event;
 import com.alibaba.nacos.api.naming.listener.EventListener;
@@ -43,6 +50,16 @@ import org.springframework.context.SmartLifecycle;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
+ * Subscribes to Nacos naming events of the services looked up through
+ * {@link NacosServiceDiscovery} and publishes a {@link HeartbeatEvent} as soon as the
+ * instances of one of them really changed. Changes arriving within
+ * {@link NacosDiscoveryProperties#getWatchDebounce()} milliseconds are coalesced into a
+ * single event. As Nacos doesn't push new services, the service names are reloaded every
+ * {@link NacosDiscoveryProperties#getWatchDelay()} milliseconds, and a
+ * {@link HeartbeatEvent} is published only if they differ from the last ones. Every
+ * change is also published right away as a {@link NacosServiceInstancesChangedEvent} of
+ * the service, carrying what changed.
+ *
  * @author xiaojing
  * @author yuhuangbin
  */
@@ -52,16 +69,37 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 
 	private Map<String, EventListener> listenerMap = new ConcurrentHashMap<>(16);
 
+	private final Map<String, EventListener> serviceListenerMap = new ConcurrentHashMap<>(
+			16);
+
+	private final Map<String, NacosInstancesSnapshot> serviceSnapshots = new ConcurrentHashMap<>(
+			16);
+
+	private final Map<String, AtomicLong> serviceVersions = new ConcurrentHashMap<>(16);
+
 	private final AtomicBoolean running = new AtomicBoolean(false);
 
+	private final AtomicBoolean publishScheduled = new AtomicBoolean(false);
+
 	private final AtomicLong nacosWatchIndex = new AtomicLong(0);
 
+	private final Consumer<String> serviceLookupListener = this::watchService;
+
+	/**
+	 * service names of the last watch, {@code null} until the first one.
+	 */
+	private volatile Set<String> watchedServiceNames;
+
 	private ApplicationEventPublisher publisher;
 
 	private ScheduledFuture<?> watchFuture;
 
+	private ScheduledFuture<?> publishFuture;
+
 	private NacosServiceManager nacosServiceManager;
 
+	private NacosServiceDiscovery nacosServiceDiscovery;
+
 	private final NacosDiscoveryProperties properties;
 
 	private final ThreadPoolTaskScheduler taskScheduler;
@@ -70,15 +108,26 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 			NacosDiscoveryProperties properties) {
 		this.nacosServiceManager = nacosServiceManager;
 		this.properties = properties;
+		this.nacosServiceDiscovery = new NacosServiceDiscovery(properties,
+				nacosServiceManager);
 		this.taskScheduler = getTaskScheduler();
 	}
 
+	public NacosWatch(NacosServiceManager nacosServiceManager,
+			NacosDiscoveryProperties properties,
+			NacosServiceDiscovery nacosServiceDiscovery) {
+		this(nacosServiceManager, properties);
+		this.nacosServiceDiscovery = nacosServiceDiscovery;
+	}
+
 	@Deprecated
 	public NacosWatch(NacosServiceManager nacosServiceManager,
 			NacosDiscoveryProperties properties,
 			ObjectProvider<ThreadPoolTaskScheduler> taskScheduler) {
 		this.nacosServiceManager = nacosServiceManager;
 		this.properties = properties;
+		this.nacosServiceDiscovery = new NacosServiceDiscovery(properties,
+				nacosServiceManager);
 		this.taskScheduler = taskScheduler.stream().findAny()
 				.orElseGet(NacosWatch::getTaskScheduler);
 	}
@@ -135,11 +184,92 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 				log.error("namingService subscribe failed, properties:{}", properties, e);
 			}
 
+			nacosServiceDiscovery.addServiceLookupListener(serviceLookupListener);
+			nacosServiceDiscovery.setServiceIndexWatched(true);
+
 			this.watchFuture = this.taskScheduler.scheduleWithFixedDelay(
 					this::nacosServicesWatch, this.properties.getWatchDelay());
 		}
 	}
 
+	/**
+	 * Subscribe to the naming events of the given service, if not subscribed yet.
+	 * @param serviceId id of service
+	 */
+	public void watchService(String serviceId) {
+		if (!isRunning() || serviceListenerMap.containsKey(serviceId)) {
+			return;
+		}
+		EventListener eventListener = event -> {
+			if (event instanceof NamingEvent) {
+				onServiceInstancesChanged(serviceId,
+						((NamingEvent) event).getInstances());
+			}
+		};
+		if (serviceListenerMap.putIfAbsent(serviceId, eventListener) != null) {
+			return;
+		}
+		NamingService namingService = nacosServiceManager
+				.getNamingService(properties.getNacosProperties());
+		try {
+			// served from the local cache filled by the lookup, used as the baseline
+			serviceSnapshots.putIfAbsent(serviceId, NacosInstancesSnapshot
+					.of(namingService.getAllInstances(serviceId, properties.getGroup())));
+			namingService.subscribe(serviceId, properties.getGroup(), eventListener);
+		}
+		catch (Exception e) {
+			serviceListenerMap.remove(serviceId);
+			log.error("namingService subscribe failed, service:{}", serviceId, e);
+		}
+	}
+
+	/**
+	 * Return the version of the given service, which is increased every time its
+	 * instances changed.
+	 * @param serviceId id of service
+	 * @return version of service, 0 if the service has not changed since watched
+	 */
+	public long getServiceVersion(String serviceId) {
+		AtomicLong version = serviceVersions.get(serviceId);
+		return version == null ? 0 : version.get();
+	}
+
+	private void onServiceInstancesChanged(String serviceId, List<Instance> instances) {
+		NacosDiscoveryMetrics discoveryMetrics = nacosServiceManager
+				.getDiscoveryMetrics();
+		discoveryMetrics.recordPushEvent(serviceId);
+		discoveryMetrics.recordInstanceCount(serviceId,
+				instances == null ? 0 : instances.size());
+		NacosInstancesSnapshot snapshot = NacosInstancesSnapshot.of(instances);
+		NacosInstancesSnapshot.Diff diff = snapshot
+				.diff(serviceSnapshots.put(serviceId, snapshot));
+		if (diff.isEmpty()) {
+			return;
+		}
+		if (snapshot.size() > 0) {
+			// lookups cached as empty before the push are stale now
+			nacosServiceManager.getInstanceLoader().invalidate(
+					nacosServiceManager.getNamingService(properties.getNacosProperties()),
+					properties, serviceId);
+		}
+		long version = serviceVersions
+				.computeIfAbsent(serviceId, key -> new AtomicLong(0)).incrementAndGet();
+		if (log.isDebugEnabled()) {
+			log.debug(
+					"instances of service {} changed, version: {}, "
+							+ "added: {}, removed: {}, modified: {}",
+					serviceId, version, diff.getAdded().size(), diff.getRemoved().size(),
+					diff.getModified().size());
+		}
+		this.publisher.publishEvent(new NacosServiceInstancesChangedEvent(this, serviceId,
+				properties.getGroup(), version,
+				instances == null ? Collections.emptyList() : instances, diff));
+		if (publishScheduled.compareAndSet(false, true)) {
+			this.publishFuture = this.taskScheduler.schedule(this::publishChanges,
+					new Date(System.currentTimeMillis() + properties.getWatchDebounce()));
+		}
+	}
+
 	private String buildKey() {
 		return String.join(":", properties.getService(), properties.getGroup());
 	}
@@ -160,17 +290,22 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 	@Override
 	public void stop() {
 		if (this.running.compareAndSet(true, false)) {
+			nacosServiceDiscovery.removeServiceLookupListener(serviceLookupListener);
+			nacosServiceDiscovery.setServiceIndexWatched(false);
 			if (this.watchFuture != null) {
-				// shutdown current user-thread,
-				// then the other daemon-threads will terminate automatic.
-				this.taskScheduler.shutdown();
 				this.watchFuture.cancel(true);
 			}
+			if (this.publishFuture != null) {
+				this.publishFuture.cancel(true);
+			}
+			// shutdown current user-thread,
+			// then the other daemon-threads will terminate automatic.
+			this.taskScheduler.shutdown();
 
+			NamingService namingService = nacosServiceManager
+					.getNamingService(properties.getNacosProperties());
 			EventListener eventListener = listenerMap.get(buildKey());
 			try {
-				NamingService namingService = nacosServiceManager
-						.getNamingService(properties.getNacosProperties());
 				namingService.unsubscribe(properties.getService(), properties.getGroup(),
 						Arrays.asList(properties.getClusterName()), eventListener);
 			}
@@ -178,6 +313,17 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 				log.error("namingService unsubscribe failed, properties:{}", properties,
 						e);
 			}
+			serviceListenerMap.forEach((serviceId, listener) -> {
+				try {
+					namingService.unsubscribe(serviceId, properties.getGroup(), listener);
+				}
+				catch (Exception e) {
+					log.error("namingService unsubscribe failed, service:{}", serviceId,
+							e);
+				}
+			});
+			serviceListenerMap.clear();
+			watchedServiceNames = null;
 		}
 	}
 
@@ -193,10 +339,35 @@ public class NacosWatch implements ApplicationEventPublisherAware, SmartLifecycl
 
 	public void nacosServicesWatch() {
 
-		// nacos doesn't support watch now , publish an event every 30 seconds.
-		this.publisher.publishEvent(
-				new HeartbeatEvent(this, nacosWatchIndex.getAndIncrement()));
+		// nacos doesn't push new services, compare the service names every watch delay.
+		Set<String> serviceNames;
+		try {
+			serviceNames = new HashSet<>(
+					nacosServiceDiscovery.refreshServiceIndex(page -> {
+					}));
+		}
+		catch (Exception e) {
+			log.warn("Fetch services of nacos server failed, group:{}",
+					properties.getGroup(), e);
+			return;
+		}
+		Set<String> lastServiceNames = watchedServiceNames;
+		watchedServiceNames = serviceNames;
+		if (!serviceNames.equals(lastServiceNames)) {
+			publishHeartbeat();
+		}
 
 	}
 
+	private void publishChanges() {
+		// the changes of the watched services within the debounce window are coalesced.
+		publishScheduled.set(false);
+		publishHeartbeat();
+	}
+
+	private void publishHeartbeat() {
+		this.publisher.publishEvent(
+				new HeartbeatEvent(this, nacosWatchIndex.incrementAndGet()));
+	}
+
 }
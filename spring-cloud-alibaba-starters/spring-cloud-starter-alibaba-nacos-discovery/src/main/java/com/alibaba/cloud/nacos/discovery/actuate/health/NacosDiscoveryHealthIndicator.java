@@ -16,6 +16,7 @@
 
 package com.alibaba.cloud.nacos.discovery.actuate.health;
 
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
 import com.alibaba.nacos.api.naming.NamingService;
 
 import org.springframework.boot.actuate.health.AbstractHealthIndicator;
@@ -23,7 +24,9 @@ import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 
 /**
- * The {@link HealthIndicator} for Nacos Discovery.
+ * The {@link HealthIndicator} for Nacos Discovery. The server status is reused for
+ * {@code serverStatusCacheTtl} milliseconds, the subscribed services and how long ago
+ * their instances were last updated are read locally.
  *
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
  * @since 2.2.0
@@ -43,14 +46,36 @@ public class NacosDiscoveryHealthIndicator extends AbstractHealthIndicator {
 
 	private final NamingService namingService;
 
+	private final NacosDiscoveryMetrics discoveryMetrics;
+
+	private final long serverStatusCacheTtl;
+
+	private volatile String serverStatus;
+
+	private volatile long serverStatusTimestamp;
+
 	public NacosDiscoveryHealthIndicator(NamingService namingService) {
+		this(namingService, null, 0);
+	}
+
+	public NacosDiscoveryHealthIndicator(NamingService namingService,
+			NacosDiscoveryMetrics discoveryMetrics, long serverStatusCacheTtl) {
 		this.namingService = namingService;
+		this.discoveryMetrics = discoveryMetrics;
+		this.serverStatusCacheTtl = serverStatusCacheTtl;
 	}
 
 	@Override
 	protected void doHealthCheck(Health.Builder builder) throws Exception {
 		// Just return "UP" or "DOWN"
-		String status = namingService.getServerStatus();
+		String status = getServerStatus();
+		if (discoveryMetrics != null) {
+			long now = System.currentTimeMillis();
+			builder.withDetail("serverStatusAge", now - serverStatusTimestamp);
+			builder.withDetail("subscribedServices",
+					namingService.getSubscribeServices().size());
+			builder.withDetail("oldestCacheAge", oldestCacheAge(now));
+		}
 		// Set the status to Builder
 		builder.status(status);
 		switch (status) {
@@ -66,4 +91,33 @@ public class NacosDiscoveryHealthIndicator extends AbstractHealthIndicator {
 		}
 	}
 
+	private String getServerStatus() {
+		String status = serverStatus;
+		if (status != null && System.currentTimeMillis()
+				- serverStatusTimestamp < serverStatusCacheTtl) {
+			return status;
+		}
+		synchronized (this) {
+			if (serverStatus != null && System.currentTimeMillis()
+					- serverStatusTimestamp < serverStatusCacheTtl) {
+				return serverStatus;
+			}
+			status = namingService.getServerStatus();
+			serverStatusTimestamp = System.currentTimeMillis();
+			serverStatus = status;
+			return status;
+		}
+	}
+
+	private long oldestCacheAge(long now) {
+		long oldest = -1;
+		for (NacosDiscoveryMetrics.ServiceMetrics service : discoveryMetrics.getServices()
+				.values()) {
+			if (service.getLastUpdated() >= 0) {
+				oldest = Math.max(oldest, Math.max(0, now - service.getLastUpdated()));
+			}
+		}
+		return oldest;
+	}
+
 }
@@ -16,20 +16,28 @@
 
 package com.alibaba.cloud.nacos.discovery.reactive;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+import com.alibaba.cloud.nacos.discovery.NacosInstanceCache;
 import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
 import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.pojo.Instance;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.ReplayProcessor;
 import reactor.core.scheduler.Schedulers;
 
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
 
+import static com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery.hostToServiceInstanceList;
+
 /**
  * @author <a href="mailto:echooy.mxq@gmail.com">echooymxq</a>
  **/
@@ -40,10 +48,26 @@ public class NacosReactiveDiscoveryClient implements ReactiveDiscoveryClient {
 
 	private NacosServiceDiscovery serviceDiscovery;
 
+	private NacosInstanceCache instanceCache;
+
+	/**
+	 * Latest instances per service, replayed to every new subscriber on the calling
+	 * thread and updated by the pushes of {@link NacosInstanceCache}.
+	 */
+	private final Map<String, ReplayProcessor<List<ServiceInstance>>> instanceProcessors = new ConcurrentHashMap<>(
+			16);
+
 	public NacosReactiveDiscoveryClient(NacosServiceDiscovery nacosServiceDiscovery) {
 		this.serviceDiscovery = nacosServiceDiscovery;
 	}
 
+	public NacosReactiveDiscoveryClient(NacosServiceDiscovery nacosServiceDiscovery,
+			NacosInstanceCache nacosInstanceCache) {
+		this.serviceDiscovery = nacosServiceDiscovery;
+		this.instanceCache = nacosInstanceCache;
+		this.instanceCache.addListener(this::onInstancesChanged);
+	}
+
 	@Override
 	public String description() {
 		return "Spring Cloud Nacos Reactive Discovery Client";
@@ -51,15 +75,30 @@ public class NacosReactiveDiscoveryClient implements ReactiveDiscoveryClient {
 
 	@Override
 	public Flux<ServiceInstance> getInstances(String serviceId) {
-
-		return Mono.justOrEmpty(serviceId).flatMapMany(loadInstancesFromNacos())
-				.subscribeOn(Schedulers.boundedElastic());
+		if (instanceCache == null) {
+			return Mono.justOrEmpty(serviceId).flatMapMany(loadInstancesFromNacos())
+					.subscribeOn(Schedulers.boundedElastic());
+		}
+		return Mono.justOrEmpty(serviceId).flatMapMany(id -> {
+			ReplayProcessor<List<ServiceInstance>> processor = instanceProcessors.get(id);
+			// dropped from the cache when its naming service was shut down
+			if (processor != null && instanceCache.getIfPresent(id) != null) {
+				return processor.next().flatMapIterable(Function.identity());
+			}
+			// only a cache miss goes to the elastic scheduler
+			return Flux.defer(() -> loadInstancesFromNacos().apply(id))
+					.subscribeOn(Schedulers.boundedElastic());
+		});
 	}
 
 	private Function<String, Publisher<ServiceInstance>> loadInstancesFromNacos() {
 		return serviceId -> {
 			try {
-				return Flux.fromIterable(serviceDiscovery.getInstances(serviceId));
+				if (instanceCache == null) {
+					return Flux.fromIterable(serviceDiscovery.getInstances(serviceId));
+				}
+				List<Instance> instances = instanceCache.getInstances(serviceId);
+				return Flux.fromIterable(publishInstances(serviceId, instances));
 			}
 			catch (NacosException e) {
 				log.error("get service instance[{}] from nacos error!", serviceId, e);
@@ -68,17 +107,63 @@ public class NacosReactiveDiscoveryClient implements ReactiveDiscoveryClient {
 		};
 	}
 
+	private void onInstancesChanged(String serviceId, List<Instance> instances) {
+		if (instanceProcessors.containsKey(serviceId)) {
+			publishInstances(serviceId, instances);
+		}
+	}
+
+	private List<ServiceInstance> publishInstances(String serviceId,
+			List<Instance> instances) {
+		List<ServiceInstance> serviceInstances = hostToServiceInstanceList(instances,
+				serviceId);
+		ReplayProcessor<List<ServiceInstance>> processor = instanceProcessors
+				.get(serviceId);
+		if (processor == null) {
+			// emit before exposing, so that a cached processor always has a value
+			ReplayProcessor<List<ServiceInstance>> newProcessor = ReplayProcessor
+					.cacheLast();
+			newProcessor.onNext(serviceInstances);
+			processor = instanceProcessors.putIfAbsent(serviceId, newProcessor);
+			if (processor == null) {
+				// a push arriving before the processor was exposed has been dropped,
+				// catch up with the cache updated ahead of notifying the listeners
+				synchronized (newProcessor) {
+					List<Instance> latest = instanceCache.getIfPresent(serviceId);
+					if (latest != null && latest != instances) {
+						serviceInstances = hostToServiceInstanceList(latest, serviceId);
+						newProcessor.onNext(serviceInstances);
+					}
+				}
+				return serviceInstances;
+			}
+		}
+		// pushes and cache-miss loads may race, keep the emissions serialized
+		synchronized (processor) {
+			processor.onNext(serviceInstances);
+		}
+		return serviceInstances;
+	}
+
 	@Override
 	public Flux<String> getServices() {
 		return Flux.defer(() -> {
-			try {
-				return Flux.fromIterable(serviceDiscovery.getServices());
-			}
-			catch (Exception e) {
-				log.error("get services from nacos server fail,", e);
-				return Flux.empty();
+			List<String> services = serviceDiscovery.getCachedServices();
+			if (services != null) {
+				return Flux.fromIterable(services);
 			}
-		}).subscribeOn(Schedulers.boundedElastic());
+			// stream the names page by page while the index is refreshed
+			return Flux.<List<String>>create(sink -> {
+				try {
+					serviceDiscovery.refreshServiceIndex(sink::next);
+				}
+				catch (Exception e) {
+					log.error("get services from nacos server fail,", e);
+				}
+				sink.complete();
+			}).flatMapIterable(Function.identity())
+					.subscribeOn(Schedulers.boundedElastic());
+		});
 	}
 
 }
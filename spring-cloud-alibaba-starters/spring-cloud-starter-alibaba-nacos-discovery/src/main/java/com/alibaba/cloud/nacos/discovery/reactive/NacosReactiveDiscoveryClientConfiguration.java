@@ -18,6 +18,7 @@ package com.alibaba.cloud.nacos.discovery.reactive;
 
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
 import com.alibaba.cloud.nacos.discovery.NacosDiscoveryAutoConfiguration;
+import com.alibaba.cloud.nacos.discovery.NacosInstanceCache;
 import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
 
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
@@ -45,8 +46,10 @@ public class NacosReactiveDiscoveryClientConfiguration {
 	@Bean
 	@ConditionalOnMissingBean
 	public NacosReactiveDiscoveryClient nacosReactiveDiscoveryClient(
-			NacosServiceDiscovery nacosServiceDiscovery) {
-		return new NacosReactiveDiscoveryClient(nacosServiceDiscovery);
+			NacosServiceDiscovery nacosServiceDiscovery,
+			NacosInstanceCache nacosInstanceCache) {
+		return new NacosReactiveDiscoveryClient(nacosServiceDiscovery,
+				nacosInstanceCache);
 	}
 
 }
@@ -16,29 +16,52 @@
 
 package com.alibaba.cloud.nacos.endpoint;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
 import com.alibaba.nacos.api.naming.NamingService;
 import com.alibaba.nacos.api.naming.pojo.Instance;
 import com.alibaba.nacos.api.naming.pojo.ServiceInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
 
 /**
  * Endpoint for nacos discovery, get nacos properties and subscribed services.
  *
+ * <p>
+ * The subscribed services are read from the local cache of the naming client, together
+ * with how long ago they were last updated, so scraping the endpoint sends no request to
+ * nacos server. With {@code verify=true} they are also compared with the instances nacos
+ * server holds, waiting at most
+ * {@link NacosDiscoveryProperties#getEndpointVerifyTimeout()}; concurrent verifications
+ * share one run.
+ *
  * @author xiaojing
  */
 @Endpoint(id = "nacosdiscovery")
-public class NacosDiscoveryEndpoint {
+public class NacosDiscoveryEndpoint implements DisposableBean {
 
 	private static final Logger log = LoggerFactory
 			.getLogger(NacosDiscoveryEndpoint.class);
@@ -47,6 +70,12 @@ public class NacosDiscoveryEndpoint {
 
 	private NacosDiscoveryProperties nacosDiscoveryProperties;
 
+	private final Object verificationMonitor = new Object();
+
+	private ExecutorService verificationExecutor;
+
+	private Verification verification;
+
 	public NacosDiscoveryEndpoint(NacosServiceManager nacosServiceManager,
 			NacosDiscoveryProperties nacosDiscoveryProperties) {
 		this.nacosServiceManager = nacosServiceManager;
@@ -56,28 +85,208 @@ public class NacosDiscoveryEndpoint {
 	/**
 	 * @return nacos discovery endpoint
 	 */
-	@ReadOperation
 	public Map<String, Object> nacosDiscovery() {
+		return nacosDiscovery(null);
+	}
+
+	/**
+	 * @param verify whether to compare the subscribed services with nacos server
+	 * @return nacos discovery endpoint
+	 */
+	@ReadOperation
+	public Map<String, Object> nacosDiscovery(@Nullable Boolean verify) {
 		Map<String, Object> result = new HashMap<>();
 		result.put("NacosDiscoveryProperties", nacosDiscoveryProperties);
 
 		NamingService namingService = nacosServiceManager
 				.getNamingService(nacosDiscoveryProperties.getNacosProperties());
+		NacosDiscoveryMetrics discoveryMetrics = nacosServiceManager
+				.getDiscoveryMetrics();
 		List<ServiceInfo> subscribe = Collections.emptyList();
+		Map<String, Object> cacheAges = new TreeMap<>();
 
 		try {
 			subscribe = namingService.getSubscribeServices();
+			long now = System.currentTimeMillis();
 			for (ServiceInfo serviceInfo : subscribe) {
-				List<Instance> instances = namingService.getAllInstances(
-						serviceInfo.getName(), serviceInfo.getGroupName());
-				serviceInfo.setHosts(instances);
+				serviceInfo.setHosts(getLocalInstances(namingService, serviceInfo));
+				cacheAges.put(serviceInfo.getKey(),
+						cacheAge(discoveryMetrics, serviceInfo.getName(), now));
 			}
 		}
 		catch (Exception e) {
 			log.error("get subscribe services from nacos fail,", e);
 		}
 		result.put("subscribe", subscribe);
+		result.put("cacheAges", cacheAges);
+		if (Boolean.TRUE.equals(verify)) {
+			result.put("verify", verify(namingService, subscribe));
+		}
+		result.put("metrics", metrics(discoveryMetrics));
+		return result;
+	}
+
+	@Override
+	public void destroy() {
+		synchronized (verificationMonitor) {
+			if (verificationExecutor != null) {
+				verificationExecutor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Instances of a subscribed service. Passing the clusters it was subscribed with
+	 * makes the naming client serve them from its cache, any other clusters would query
+	 * nacos server and start polling the service.
+	 */
+	private static List<Instance> getLocalInstances(NamingService namingService,
+			ServiceInfo serviceInfo) throws Exception {
+		return namingService.getAllInstances(serviceInfo.getName(),
+				serviceInfo.getGroupName(), clusters(serviceInfo), true);
+	}
+
+	private static List<String> clusters(ServiceInfo serviceInfo) {
+		return StringUtils.isEmpty(serviceInfo.getClusters()) ? Collections.emptyList()
+				: Arrays.asList(serviceInfo.getClusters().split(","));
+	}
+
+	private static long cacheAge(NacosDiscoveryMetrics discoveryMetrics, String serviceId,
+			long now) {
+		NacosDiscoveryMetrics.ServiceMetrics service = discoveryMetrics.getServices()
+				.get(serviceId);
+		if (service == null || service.getLastUpdated() < 0) {
+			return -1;
+		}
+		return Math.max(0, now - service.getLastUpdated());
+	}
+
+	private Map<String, Object> verify(NamingService namingService,
+			List<ServiceInfo> subscribe) {
+		Verification current = startVerification(namingService, subscribe);
+		boolean completed = true;
+		try {
+			current.future.get(nacosDiscoveryProperties.getEndpointVerifyTimeout(),
+					TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			completed = false;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			completed = false;
+		}
+		catch (Exception e) {
+			log.error("verify subscribe services with nacos fail,", e);
+		}
+
+		Map<String, Object> services = new TreeMap<>();
+		for (String key : current.keys) {
+			services.put(key, current.results.getOrDefault(key,
+					Collections.singletonMap("status", "PENDING")));
+		}
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("completed", completed);
+		result.put("services", services);
 		return result;
 	}
 
+	private Verification startVerification(NamingService namingService,
+			List<ServiceInfo> subscribe) {
+		synchronized (verificationMonitor) {
+			if (verification != null && !verification.future.isDone()) {
+				return verification;
+			}
+			if (verificationExecutor == null) {
+				CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+						"Nacos-Discovery-Verify-");
+				threadFactory.setDaemon(true);
+				verificationExecutor = Executors.newSingleThreadExecutor(threadFactory);
+			}
+			Verification next = new Verification(subscribe);
+			next.future = CompletableFuture.runAsync(() -> {
+				for (ServiceInfo serviceInfo : subscribe) {
+					next.results.put(serviceInfo.getKey(),
+							verify(namingService, serviceInfo));
+				}
+			}, verificationExecutor);
+			verification = next;
+			return next;
+		}
+	}
+
+	private static Map<String, Object> verify(NamingService namingService,
+			ServiceInfo serviceInfo) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		try {
+			int local = getLocalInstances(namingService, serviceInfo).size();
+			int remote = namingService.getAllInstances(serviceInfo.getName(),
+					serviceInfo.getGroupName(), clusters(serviceInfo), false).size();
+			result.put("status", local == remote ? "CONSISTENT" : "INCONSISTENT");
+			result.put("localInstances", local);
+			result.put("remoteInstances", remote);
+		}
+		catch (Exception e) {
+			result.put("status", "ERROR");
+			result.put("error", e.getMessage());
+		}
+		return result;
+	}
+
+	private static Map<String, Object> metrics(NacosDiscoveryMetrics metrics) {
+		Map<String, Object> caches = new LinkedHashMap<>();
+		metrics.getCaches().forEach((name, cache) -> {
+			Map<String, Object> summary = new LinkedHashMap<>();
+			summary.put("hits", cache.getHits());
+			summary.put("misses", cache.getMisses());
+			caches.put(name, summary);
+		});
+
+		Map<String, Object> registration = new LinkedHashMap<>();
+		registration.put("count", metrics.getRegistrations());
+		registration.put("failures", metrics.getRegistrationFailures());
+		registration.put("meanMillis",
+				meanMillis(metrics.getRegistrationNanos(), metrics.getRegistrations()));
+
+		Map<String, Object> services = new TreeMap<>();
+		metrics.getServices().forEach((serviceId, service) -> {
+			Map<String, Object> summary = new LinkedHashMap<>();
+			summary.put("lookups", service.getLookups());
+			summary.put("lookupMeanMillis",
+					meanMillis(service.getLookupNanos(), service.getLookups()));
+			summary.put("coalescedLookups", service.getCoalescedLookups());
+			summary.put("instances", service.getInstances());
+			summary.put("pushEvents", service.getPushEvents());
+			summary.put("crossClusterSelections", service.getCrossClusterSelections());
+			services.put(serviceId, summary);
+		});
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("caches", caches);
+		result.put("registration", registration);
+		result.put("services", services);
+		return result;
+	}
+
+	private static double meanMillis(long nanos, long count) {
+		return count == 0 ? 0D : nanos / 1e6 / count;
+	}
+
+	private static final class Verification {
+
+		private final List<String> keys;
+
+		private final Map<String, Object> results = new ConcurrentHashMap<>(16);
+
+		private CompletableFuture<Void> future;
+
+		private Verification(List<ServiceInfo> subscribe) {
+			this.keys = new ArrayList<>(subscribe.size());
+			for (ServiceInfo serviceInfo : subscribe) {
+				this.keys.add(serviceInfo.getKey());
+			}
+		}
+
+	}
+
 }
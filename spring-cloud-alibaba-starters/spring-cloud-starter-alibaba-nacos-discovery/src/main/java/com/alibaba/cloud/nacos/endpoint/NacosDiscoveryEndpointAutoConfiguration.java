@@ -59,7 +59,9 @@ public class NacosDiscoveryEndpointAutoConfiguration {
 			NacosDiscoveryProperties nacosDiscoveryProperties) {
 		Properties nacosProperties = nacosDiscoveryProperties.getNacosProperties();
 		return new NacosDiscoveryHealthIndicator(
-				nacosServiceManager.getNamingService(nacosProperties));
+				nacosServiceManager.getNamingService(nacosProperties),
+				nacosServiceManager.getDiscoveryMetrics(),
+				nacosDiscoveryProperties.getServerStatusCacheTtl());
 	}
 
 }
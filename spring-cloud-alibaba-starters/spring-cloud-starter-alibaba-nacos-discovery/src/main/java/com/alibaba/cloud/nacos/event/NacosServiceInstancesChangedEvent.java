@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.event;
+
+import java.util.List;
+
+import com.alibaba.cloud.nacos.discovery.NacosInstancesSnapshot;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published once per naming event that really changed the instances of a watched service,
+ * carrying the instances added, removed and modified since the previous one.
+ */
+public class NacosServiceInstancesChangedEvent extends ApplicationEvent {
+
+	private final String serviceId;
+
+	private final String groupName;
+
+	private final long version;
+
+	private final List<Instance> instances;
+
+	private final NacosInstancesSnapshot.Diff diff;
+
+	public NacosServiceInstancesChangedEvent(Object source, String serviceId,
+			String groupName, long version, List<Instance> instances,
+			NacosInstancesSnapshot.Diff diff) {
+		super(source);
+		this.serviceId = serviceId;
+		this.groupName = groupName;
+		this.version = version;
+		this.instances = instances;
+		this.diff = diff;
+	}
+
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	public String getGroupName() {
+		return groupName;
+	}
+
+	/**
+	 * @return version of the service after the change, see
+	 * {@link com.alibaba.cloud.nacos.discovery.NacosWatch#getServiceVersion(String)}
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return all instances of the service after the change
+	 */
+	public List<Instance> getInstances() {
+		return instances;
+	}
+
+	public List<Instance> getAdded() {
+		return diff.getAdded();
+	}
+
+	public List<Instance> getRemoved() {
+		return diff.getRemoved();
+	}
+
+	/**
+	 * @return instances whose weight, health, enabled flag or metadata changed
+	 */
+	public List<Instance> getModified() {
+		return diff.getModified();
+	}
+
+}
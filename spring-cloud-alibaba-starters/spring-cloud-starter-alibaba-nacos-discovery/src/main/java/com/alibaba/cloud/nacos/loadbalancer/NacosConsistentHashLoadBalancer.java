@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+import com.alibaba.cloud.nacos.balancer.NacosConsistentHashProperties;
+import com.alibaba.cloud.nacos.balancer.NacosConsistentHashRing;
+import com.alibaba.cloud.nacos.balancer.NacosHashKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.reactive.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.reactive.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.reactive.Request;
+import org.springframework.cloud.client.loadbalancer.reactive.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Spring Cloud LoadBalancer counterpart of
+ * {@link com.alibaba.cloud.nacos.ribbon.NacosConsistentHashRule}: sends the calls with
+ * the same hash key to the same instance. The key is read from the Reactor context, or
+ * else from {@link NacosHashKey} on the calling thread. Calls without a key are balanced
+ * by weight.
+ */
+public class NacosConsistentHashLoadBalancer
+		implements ReactorServiceInstanceLoadBalancer {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosConsistentHashLoadBalancer.class);
+
+	private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+
+	private final String serviceId;
+
+	private final NacosDiscoveryProperties nacosDiscoveryProperties;
+
+	private final AtomicReference<NacosConsistentHashRing<ServiceInstance>> ring;
+
+	public NacosConsistentHashLoadBalancer(
+			ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+			String serviceId, NacosDiscoveryProperties nacosDiscoveryProperties,
+			NacosConsistentHashProperties nacosConsistentHashProperties) {
+		this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+		this.serviceId = serviceId;
+		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
+		this.ring = new AtomicReference<>(NacosConsistentHashRing
+				.empty(nacosConsistentHashProperties.getVirtualNodes()));
+	}
+
+	@Override
+	public Mono<Response<ServiceInstance>> choose(Request request) {
+		// the instances may be supplied on another thread, read the key on this one
+		String threadKey = NacosHashKey.get();
+		ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+				.getIfAvailable(NoopServiceInstanceListSupplier::new);
+		return Mono.subscriberContext().flatMap(context -> {
+			String key = context.getOrDefault(NacosHashKey.CONTEXT_KEY, threadKey);
+			return supplier.get().next()
+					.map(serviceInstances -> getInstanceResponse(serviceInstances, key));
+		});
+	}
+
+	private Response<ServiceInstance> getInstanceResponse(
+			List<ServiceInstance> serviceInstances, String key) {
+		if (CollectionUtils.isEmpty(serviceInstances)) {
+			log.warn("no instance in service {}", serviceId);
+			return new EmptyResponse();
+		}
+
+		ServiceInstance instance;
+		if (key == null) {
+			instance = NacosBalancer.getHostByRandomWeight3(serviceInstances,
+					nacosDiscoveryProperties.getWarmupCurve());
+		}
+		else {
+			instance = ring.updateAndGet(current -> current.update(serviceInstances,
+					NacosConsistentHashLoadBalancer::address, NacosBalancer::getWeight))
+					.select(key);
+		}
+		return instance == null ? new EmptyResponse() : new DefaultResponse(instance);
+	}
+
+	private static String address(ServiceInstance serviceInstance) {
+		return serviceInstance.getHost() + ":" + serviceInstance.getPort();
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import com.alibaba.cloud.commons.lang.StringUtils;
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceInstanceMetadata;
+import com.alibaba.cloud.nacos.balancer.NacosBalancer;
+import com.alibaba.cloud.nacos.balancer.NacosOutlierDetector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.reactive.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.reactive.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.reactive.Request;
+import org.springframework.cloud.client.loadbalancer.reactive.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Spring Cloud LoadBalancer counterpart of
+ * {@link com.alibaba.cloud.nacos.ribbon.NacosRule}: prefers the instances of the same
+ * cluster and chooses among them by weight.
+ */
+public class NacosLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+	private static final Logger log = LoggerFactory.getLogger(NacosLoadBalancer.class);
+
+	private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+
+	private final String serviceId;
+
+	private final NacosDiscoveryProperties nacosDiscoveryProperties;
+
+	private final NacosOutlierDetector outlierDetector;
+
+	public NacosLoadBalancer(
+			ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+			String serviceId, NacosDiscoveryProperties nacosDiscoveryProperties) {
+		this(serviceInstanceListSupplierProvider, serviceId, nacosDiscoveryProperties,
+				null);
+	}
+
+	public NacosLoadBalancer(
+			ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+			String serviceId, NacosDiscoveryProperties nacosDiscoveryProperties,
+			NacosOutlierDetector outlierDetector) {
+		this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+		this.serviceId = serviceId;
+		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
+		this.outlierDetector = outlierDetector;
+	}
+
+	@Override
+	public Mono<Response<ServiceInstance>> choose(Request request) {
+		ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+				.getIfAvailable(NoopServiceInstanceListSupplier::new);
+		return supplier.get().next().map(this::getInstanceResponse);
+	}
+
+	private Response<ServiceInstance> getInstanceResponse(
+			List<ServiceInstance> serviceInstances) {
+		if (CollectionUtils.isEmpty(serviceInstances)) {
+			log.warn("no instance in service {}", serviceId);
+			return new EmptyResponse();
+		}
+
+		List<ServiceInstance> instancesToChoose = serviceInstances;
+		String clusterName = nacosDiscoveryProperties.getClusterName();
+		if (StringUtils.isNotBlank(clusterName)) {
+			List<ServiceInstance> sameClusterInstances = serviceInstances.stream()
+					.filter(instance -> Objects.equals(clusterName,
+							instance.getMetadata()
+									.get(NacosServiceInstanceMetadata.CLUSTER)))
+					.collect(Collectors.toList());
+			if (!CollectionUtils.isEmpty(sameClusterInstances)) {
+				instancesToChoose = sameClusterInstances;
+			}
+			else {
+				log.warn(
+						"A cross-cluster call occurs，name = {}, clusterName = {}, instance = {}",
+						serviceId, clusterName, serviceInstances);
+			}
+		}
+
+		ServiceInstance instance = NacosBalancer.getHostByRandomWeight3(instancesToChoose,
+				nacosDiscoveryProperties.getWarmupCurve(), outlierDetector);
+		return instance == null ? new EmptyResponse() : new DefaultResponse(instance);
+	}
+
+}
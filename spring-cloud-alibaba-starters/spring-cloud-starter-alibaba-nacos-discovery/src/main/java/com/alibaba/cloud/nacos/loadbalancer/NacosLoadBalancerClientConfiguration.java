@@ -0,0 +1,67 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.balancer.NacosConsistentHashProperties;
+import com.alibaba.cloud.nacos.balancer.NacosOutlierDetector;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnLoadBalancerNacos
+public class NacosLoadBalancerClientConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "spring.cloud.nacos.discovery.consistent-hash.enabled",
+			havingValue = "true")
+	public ReactorLoadBalancer<ServiceInstance> nacosConsistentHashLoadBalancer(
+			Environment environment, LoadBalancerClientFactory loadBalancerClientFactory,
+			NacosDiscoveryProperties nacosDiscoveryProperties,
+			ObjectProvider<NacosConsistentHashProperties> nacosConsistentHashProperties) {
+		String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+		return new NacosConsistentHashLoadBalancer(
+				loadBalancerClientFactory.getLazyProvider(name,
+						ServiceInstanceListSupplier.class),
+				name, nacosDiscoveryProperties, nacosConsistentHashProperties
+						.getIfAvailable(NacosConsistentHashProperties::new));
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public ReactorLoadBalancer<ServiceInstance> nacosLoadBalancer(Environment environment,
+			LoadBalancerClientFactory loadBalancerClientFactory,
+			NacosDiscoveryProperties nacosDiscoveryProperties,
+			ObjectProvider<NacosOutlierDetector> nacosOutlierDetector) {
+		String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+		return new NacosLoadBalancer(
+				loadBalancerClientFactory.getLazyProvider(name,
+						ServiceInstanceListSupplier.class),
+				name, nacosDiscoveryProperties, nacosOutlierDetector.getIfAvailable());
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics.CacheMetrics;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics.ServiceMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes {@link NacosDiscoveryMetrics} as Micrometer meters. Meters of a service are
+ * registered the first time statistics are recorded for it.
+ */
+public class NacosDiscoveryMeterBinder implements MeterBinder {
+
+	private final NacosDiscoveryMetrics metrics;
+
+	public NacosDiscoveryMeterBinder(NacosDiscoveryMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		metrics.getCaches().forEach((cache, cacheMetrics) -> {
+			FunctionCounter
+					.builder("nacos.discovery.cache", cacheMetrics, CacheMetrics::getHits)
+					.tags("cache", cache, "result", "hit")
+					.description("Lookups served from the local cache")
+					.register(registry);
+			FunctionCounter
+					.builder("nacos.discovery.cache", cacheMetrics,
+							CacheMetrics::getMisses)
+					.tags("cache", cache, "result", "miss")
+					.description("Lookups that missed the local cache")
+					.register(registry);
+		});
+		FunctionTimer
+				.builder("nacos.discovery.registration", metrics,
+						NacosDiscoveryMetrics::getRegistrations,
+						NacosDiscoveryMetrics::getRegistrationNanos, TimeUnit.NANOSECONDS)
+				.description("Registration attempts to the Nacos server")
+				.register(registry);
+		FunctionCounter
+				.builder("nacos.discovery.registration.failures", metrics,
+						NacosDiscoveryMetrics::getRegistrationFailures)
+				.description("Failed registration attempts to the Nacos server")
+				.register(registry);
+		metrics.addServiceListener((serviceId, serviceMetrics) -> bindTo(registry,
+				serviceId, serviceMetrics));
+	}
+
+	private static void bindTo(MeterRegistry registry, String serviceId,
+			ServiceMetrics serviceMetrics) {
+		FunctionTimer
+				.builder("nacos.discovery.lookup", serviceMetrics,
+						ServiceMetrics::getLookups, ServiceMetrics::getLookupNanos,
+						TimeUnit.NANOSECONDS)
+				.tag("service", serviceId)
+				.description("Instance lookups against the Nacos client")
+				.register(registry);
+		FunctionCounter
+				.builder("nacos.discovery.lookup.coalesced", serviceMetrics,
+						ServiceMetrics::getCoalescedLookups)
+				.tag("service", serviceId)
+				.description("Lookups that shared the identical lookup in flight")
+				.register(registry);
+		Gauge.builder("nacos.discovery.instances", serviceMetrics,
+				stats -> stats.getInstances() < 0 ? Double.NaN : stats.getInstances())
+				.tag("service", serviceId)
+				.description("Instances of the subscribed service").register(registry);
+		FunctionCounter
+				.builder("nacos.discovery.push.events", serviceMetrics,
+						ServiceMetrics::getPushEvents)
+				.tag("service", serviceId)
+				.description("Instance change events pushed by the Nacos server")
+				.register(registry);
+		FunctionCounter
+				.builder("nacos.discovery.cross.cluster.selections", serviceMetrics,
+						ServiceMetrics::getCrossClusterSelections)
+				.tag("service", serviceId)
+				.description("Selections outside the local cluster by NacosRule")
+				.register(registry);
+	}
+
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Statistics of Nacos discovery, recorded by the discovery, caching, watching,
+ * registration and load balancing components and shared through
+ * {@link com.alibaba.cloud.nacos.NacosServiceManager#getDiscoveryMetrics()}. It has no
+ * dependency on Micrometer, {@link NacosDiscoveryMeterBinder} exposes it as meters.
+ */
+public class NacosDiscoveryMetrics {
+
+	/**
+	 * Name of the cache of healthy instances per service.
+	 */
+	public static final String INSTANCE_CACHE = "instances";
+
+	/**
+	 * Name of the cache of the names of all services.
+	 */
+	public static final String SERVICE_INDEX = "services";
+
+	/**
+	 * Name of the cache of empty and failed instance lookups.
+	 */
+	public static final String NEGATIVE_CACHE = "negative";
+
+	private final Map<String, ServiceMetrics> services = new ConcurrentHashMap<>(16);
+
+	private final List<BiConsumer<String, ServiceMetrics>> serviceListeners = new CopyOnWriteArrayList<>();
+
+	private final Map<String, CacheMetrics> caches;
+
+	private final LongAdder registrations = new LongAdder();
+
+	private final LongAdder registrationNanos = new LongAdder();
+
+	private final LongAdder registrationFailures = new LongAdder();
+
+	public NacosDiscoveryMetrics() {
+		Map<String, CacheMetrics> caches = new LinkedHashMap<>(4);
+		caches.put(INSTANCE_CACHE, new CacheMetrics());
+		caches.put(SERVICE_INDEX, new CacheMetrics());
+		caches.put(NEGATIVE_CACHE, new CacheMetrics());
+		this.caches = Collections.unmodifiableMap(caches);
+	}
+
+	public void recordLookup(String serviceId, long nanos) {
+		ServiceMetrics metrics = getServiceMetrics(serviceId);
+		metrics.lookups.increment();
+		metrics.lookupNanos.add(nanos);
+	}
+
+	public void recordCacheHit(String cache) {
+		caches.get(cache).hits.increment();
+	}
+
+	public void recordCacheMiss(String cache) {
+		caches.get(cache).misses.increment();
+	}
+
+	/**
+	 * Record the number of instances of a service the local cache was just updated with.
+	 * @param serviceId id of service
+	 * @param count number of instances
+	 */
+	public void recordInstanceCount(String serviceId, int count) {
+		ServiceMetrics metrics = getServiceMetrics(serviceId);
+		metrics.instances = count;
+		metrics.lastUpdated = System.currentTimeMillis();
+	}
+
+	/**
+	 * Record a lookup that waited for the identical lookup already in flight instead of
+	 * reaching the Nacos client.
+	 * @param serviceId id of service
+	 */
+	public void recordCoalescedLookup(String serviceId) {
+		getServiceMetrics(serviceId).coalescedLookups.increment();
+	}
+
+	public void recordPushEvent(String serviceId) {
+		getServiceMetrics(serviceId).pushEvents.increment();
+	}
+
+	public void recordCrossClusterSelection(String serviceId) {
+		getServiceMetrics(serviceId).crossClusterSelections.increment();
+	}
+
+	/**
+	 * Record a registration attempt.
+	 * @param nanos duration of the attempt
+	 * @param success false if the attempt failed
+	 */
+	public void recordRegistration(long nanos, boolean success) {
+		registrations.increment();
+		registrationNanos.add(nanos);
+		if (!success) {
+			registrationFailures.increment();
+		}
+	}
+
+	/**
+	 * @return statistics per service, keyed by service name
+	 */
+	public Map<String, ServiceMetrics> getServices() {
+		return Collections.unmodifiableMap(services);
+	}
+
+	/**
+	 * @return statistics per cache, keyed by {@link #INSTANCE_CACHE},
+	 * {@link #SERVICE_INDEX} and {@link #NEGATIVE_CACHE}
+	 */
+	public Map<String, CacheMetrics> getCaches() {
+		return caches;
+	}
+
+	public long getRegistrations() {
+		return registrations.sum();
+	}
+
+	public long getRegistrationNanos() {
+		return registrationNanos.sum();
+	}
+
+	public long getRegistrationFailures() {
+		return registrationFailures.sum();
+	}
+
+	/**
+	 * Add a listener notified of every service statistics are recorded for, including the
+	 * services already known.
+	 * @param listener callback receiving the service name and its statistics
+	 */
+	public void addServiceListener(BiConsumer<String, ServiceMetrics> listener) {
+		serviceListeners.add(listener);
+		services.forEach(listener);
+	}
+
+	private ServiceMetrics getServiceMetrics(String serviceId) {
+		ServiceMetrics metrics = services.get(serviceId);
+		if (metrics != null) {
+			return metrics;
+		}
+		metrics = new ServiceMetrics();
+		ServiceMetrics previous = services.putIfAbsent(serviceId, metrics);
+		if (previous != null) {
+			return previous;
+		}
+		for (BiConsumer<String, ServiceMetrics> listener : serviceListeners) {
+			listener.accept(serviceId, metrics);
+		}
+		return metrics;
+	}
+
+	/**
+	 * Statistics of one service.
+	 */
+	public static final class ServiceMetrics {
+
+		private final LongAdder lookups = new LongAdder();
+
+		private final LongAdder lookupNanos = new LongAdder();
+
+		private final LongAdder coalescedLookups = new LongAdder();
+
+		private final LongAdder pushEvents = new LongAdder();
+
+		private final LongAdder crossClusterSelections = new LongAdder();
+
+		private volatile int instances = -1;
+
+		private volatile long lastUpdated = -1;
+
+		public long getLookups() {
+			return lookups.sum();
+		}
+
+		public long getLookupNanos() {
+			return lookupNanos.sum();
+		}
+
+		public long getCoalescedLookups() {
+			return coalescedLookups.sum();
+		}
+
+		public long getPushEvents() {
+			return pushEvents.sum();
+		}
+
+		public long getCrossClusterSelections() {
+			return crossClusterSelections.sum();
+		}
+
+		/**
+		 * @return last known number of instances, or {@code -1} if unknown
+		 */
+		public int getInstances() {
+			return instances;
+		}
+
+		/**
+		 * @return time in milliseconds the instances of the service were last updated
+		 * locally, or {@code -1} if unknown
+		 */
+		public long getLastUpdated() {
+			return lastUpdated;
+		}
+
+	}
+
+	/**
+	 * Hits and misses of one cache.
+	 */
+	public static final class CacheMetrics {
+
+		private final LongAdder hits = new LongAdder();
+
+		private final LongAdder misses = new LongAdder();
+
+		public long getHits() {
+			return hits.sum();
+		}
+
+		public long getMisses() {
+			return misses.sum();
+		}
+
+	}
+
+}
@@ -16,10 +16,23 @@
 
 package com.alibaba.cloud.nacos.registry;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.balancer.NacosWarmup;
 import com.alibaba.cloud.nacos.event.NacosDiscoveryInfoChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
 import org.springframework.cloud.client.serviceregistry.AbstractAutoServiceRegistration;
 import org.springframework.cloud.client.serviceregistry.AutoServiceRegistrationProperties;
 import org.springframework.cloud.client.serviceregistry.Registration;
@@ -29,6 +42,13 @@ import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 /**
+ * Registers the application once its web server is up. With
+ * {@link NacosDiscoveryProperties#isRegisterWhenReady()} the application is only made
+ * discoverable once it reports {@link ReadinessState#ACCEPTING_TRAFFIC} and the
+ * {@link NacosRegistrationWarmupHook}s have run, either by registering it then or, with
+ * {@link NacosDiscoveryProperties#isRegisterDisabledUntilReady()}, by enabling the
+ * instance registered disabled before.
+ *
  * @author xiaojing
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
  */
@@ -40,6 +60,16 @@ public class NacosAutoServiceRegistration
 
 	private NacosRegistration registration;
 
+	private NacosRegistration managementRegistration;
+
+	private List<NacosRegistrationWarmupHook> warmupHooks = Collections.emptyList();
+
+	private final AtomicBoolean warmedUp = new AtomicBoolean(false);
+
+	private volatile boolean ready;
+
+	private volatile boolean deferred;
+
 	public NacosAutoServiceRegistration(ServiceRegistry<Registration> serviceRegistry,
 			AutoServiceRegistrationProperties autoServiceRegistrationProperties,
 			NacosRegistration registration) {
@@ -47,6 +77,13 @@ public class NacosAutoServiceRegistration
 		this.registration = registration;
 	}
 
+	/**
+	 * @param warmupHooks hooks run in order before the application is made discoverable
+	 */
+	public void setWarmupHooks(List<NacosRegistrationWarmupHook> warmupHooks) {
+		this.warmupHooks = warmupHooks;
+	}
+
 	@Deprecated
 	public void setPort(int port) {
 		getPort().set(port);
@@ -63,18 +100,55 @@ public class NacosAutoServiceRegistration
 
 	@Override
 	protected NacosRegistration getManagementRegistration() {
-		return null;
+		NacosDiscoveryProperties properties = this.registration
+				.getNacosDiscoveryProperties();
+		if (!properties.isManagementRegisterEnabled() || getManagementPort() == null) {
+			return null;
+		}
+		if (this.managementRegistration == null) {
+			this.managementRegistration = new NacosManagementRegistration(properties,
+					getManagementServiceName(), getManagementPort());
+		}
+		return this.managementRegistration;
 	}
 
 	@Override
 	protected void register() {
-		if (!this.registration.getNacosDiscoveryProperties().isRegisterEnabled()) {
+		NacosDiscoveryProperties properties = this.registration
+				.getNacosDiscoveryProperties();
+		if (!properties.isRegisterEnabled()) {
 			log.debug("Registration disabled.");
 			return;
 		}
+		if (properties.isRegisterWhenReady()) {
+			if (this.ready) {
+				// readiness was reported before the web server came up
+				warmup();
+			}
+			else if (properties.isRegisterDisabledUntilReady()) {
+				this.registration.setAwaitingReadiness(true);
+			}
+			else {
+				this.deferred = true;
+				log.info("Registration deferred until the application is ready.");
+				return;
+			}
+		}
+		doRegister();
+	}
+
+	private void doRegister() {
 		if (this.registration.getPort() < 0) {
 			this.registration.setPort(getPort().get());
 		}
+		NacosRegistration managementRegistration = shouldRegisterManagement()
+				? getManagementRegistration() : null;
+		if (managementRegistration != null
+				&& getServiceRegistry() instanceof NacosServiceRegistry) {
+			((NacosServiceRegistry) getServiceRegistry())
+					.register(Arrays.asList(getRegistration(), managementRegistration));
+			return;
+		}
 		super.register();
 	}
 
@@ -83,6 +157,10 @@ public class NacosAutoServiceRegistration
 		if (!this.registration.getNacosDiscoveryProperties().isRegisterEnabled()) {
 			return;
 		}
+		// already registered in parallel with the application by register()
+		if (getServiceRegistry() instanceof NacosServiceRegistry) {
+			return;
+		}
 		super.registerManagement();
 
 	}
@@ -104,11 +182,115 @@ public class NacosAutoServiceRegistration
 		return StringUtils.isEmpty(appName) ? super.getAppName() : appName;
 	}
 
+	@EventListener
+	public void onReadinessStateChanged(AvailabilityChangeEvent<ReadinessState> event) {
+		if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || this.ready) {
+			return;
+		}
+		this.ready = true;
+		// not started yet, register() takes care of it once the web server is up
+		if (!isRunning() || !this.deferred && !this.registration.isAwaitingReadiness()) {
+			return;
+		}
+		warmup();
+		restartWeightWarmup();
+		if (this.deferred) {
+			this.deferred = false;
+			doRegister();
+			return;
+		}
+		this.registration.setAwaitingReadiness(false);
+		enable();
+	}
+
+	/**
+	 * The instance received no traffic so far, its weight warm-up starts now.
+	 */
+	private void restartWeightWarmup() {
+		if (this.registration.getMetadata().containsKey(NacosWarmup.START_TIMESTAMP)) {
+			this.registration.getMetadata().put(NacosWarmup.START_TIMESTAMP,
+					String.valueOf(System.currentTimeMillis()));
+		}
+	}
+
+	/**
+	 * Enable the instance registered disabled, in place together with its metadata.
+	 */
+	private void enable() {
+		if (getServiceRegistry() instanceof NacosServiceRegistry
+				&& ((NacosServiceRegistry) getServiceRegistry())
+						.update(getRegistration())) {
+			log.info("Registration enabled, the application is ready.");
+			return;
+		}
+		if (this.registration.getNacosDiscoveryProperties().isInstanceEnabled()) {
+			getServiceRegistry().setStatus(getRegistration(), "UP");
+		}
+	}
+
+	/**
+	 * Run the warm-up hooks once, waiting for them at most
+	 * {@link NacosDiscoveryProperties#getWarmupHookTimeout()}.
+	 */
+	private void warmup() {
+		if (this.warmupHooks.isEmpty() || !this.warmedUp.compareAndSet(false, true)) {
+			return;
+		}
+		FutureTask<Void> task = new FutureTask<>(() -> {
+			for (NacosRegistrationWarmupHook hook : this.warmupHooks) {
+				try {
+					hook.warmup(this.registration);
+				}
+				catch (Exception e) {
+					log.warn("Warm-up hook {} failed", hook, e);
+				}
+			}
+			return null;
+		});
+		Thread thread = new Thread(task, "Nacos-Registration-Warmup");
+		thread.setDaemon(true);
+		thread.start();
+		long timeout = this.registration.getNacosDiscoveryProperties()
+				.getWarmupHookTimeout();
+		try {
+			task.get(timeout, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			log.warn("Warm-up hooks did not finish within {} ms, registering anyway.",
+					timeout);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			log.warn("Warm-up hooks failed", e.getCause());
+		}
+	}
+
 	@EventListener
 	public void onNacosDiscoveryInfoChangedEvent(NacosDiscoveryInfoChangedEvent event) {
+		if (isRunning() && isEnabled() && update()) {
+			return;
+		}
 		restart();
 	}
 
+	/**
+	 * Apply changed properties to the registered instances in place.
+	 * @return false if a full re-registration is needed
+	 */
+	private boolean update() {
+		if (!(getServiceRegistry() instanceof NacosServiceRegistry)) {
+			return false;
+		}
+		NacosServiceRegistry serviceRegistry = (NacosServiceRegistry) getServiceRegistry();
+		NacosRegistration managementRegistration = shouldRegisterManagement()
+				? getManagementRegistration() : null;
+		return serviceRegistry.update(getRegistration())
+				&& (managementRegistration == null
+						|| serviceRegistry.update(managementRegistration));
+	}
+
 	private void restart() {
 		this.stop();
 		this.start();
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+
+/**
+ * Registration of the management port as an instance of its own service, see
+ * {@link NacosDiscoveryProperties#isManagementRegisterEnabled()}.
+ */
+public class NacosManagementRegistration extends NacosRegistration {
+
+	private final String serviceId;
+
+	private volatile int port;
+
+	public NacosManagementRegistration(NacosDiscoveryProperties nacosDiscoveryProperties,
+			String serviceId, int port) {
+		super(null, nacosDiscoveryProperties, null);
+		this.serviceId = serviceId;
+		this.port = port;
+	}
+
+	@Override
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	@Override
+	public int getPort() {
+		return port;
+	}
+
+	@Override
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@Override
+	public String toString() {
+		return "NacosManagementRegistration{" + "serviceId='" + serviceId + '\''
+				+ ", port=" + port + '}';
+	}
+
+}
@@ -23,6 +23,7 @@ import java.util.Map;
 import javax.annotation.PostConstruct;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.balancer.NacosWarmup;
 import com.alibaba.nacos.api.naming.PreservedMetadataKeys;
 
 import org.springframework.cloud.client.DefaultServiceInstance;
@@ -64,6 +65,8 @@ public class NacosRegistration implements Registration, ServiceInstance {
 
 	private ApplicationContext context;
 
+	private volatile boolean awaitingReadiness;
+
 	public NacosRegistration(List<NacosRegistrationCustomizer> registrationCustomizers,
 			NacosDiscoveryProperties nacosDiscoveryProperties,
 			ApplicationContext context) {
@@ -97,6 +100,12 @@ public class NacosRegistration implements Registration, ServiceInstance {
 			}
 		}
 
+		// the start timestamp is stamped once the instance is registered
+		if (nacosDiscoveryProperties.getWarmupDuration() > 0) {
+			metadata.put(NacosWarmup.DURATION,
+					String.valueOf(nacosDiscoveryProperties.getWarmupDuration()));
+		}
+
 		if (null != nacosDiscoveryProperties.getHeartBeatInterval()) {
 			metadata.put(PreservedMetadataKeys.HEART_BEAT_INTERVAL,
 					nacosDiscoveryProperties.getHeartBeatInterval().toString());
@@ -168,6 +177,18 @@ public class NacosRegistration implements Registration, ServiceInstance {
 		return nacosDiscoveryProperties.getWeight();
 	}
 
+	/**
+	 * @return true if the instance is registered disabled until the application is ready
+	 * @see NacosDiscoveryProperties#isRegisterDisabledUntilReady()
+	 */
+	public boolean isAwaitingReadiness() {
+		return awaitingReadiness;
+	}
+
+	public void setAwaitingReadiness(boolean awaitingReadiness) {
+		this.awaitingReadiness = awaitingReadiness;
+	}
+
 	public NacosDiscoveryProperties getNacosDiscoveryProperties() {
 		return nacosDiscoveryProperties;
 	}
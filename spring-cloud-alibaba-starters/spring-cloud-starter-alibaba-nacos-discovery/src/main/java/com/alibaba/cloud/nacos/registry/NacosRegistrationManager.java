@@ -0,0 +1,461 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import static org.springframework.util.ReflectionUtils.rethrowRuntimeException;
+
+/**
+ * Applies registrations to the Nacos server for {@link NacosServiceRegistry}. It keeps
+ * what has been registered, so that a later change of the registration is applied in
+ * place through {@code updateInstance} instead of a deregister/register cycle. Several
+ * registrations are registered in parallel, and with
+ * {@link NacosDiscoveryProperties#isRegisterAsync()} registration happens in the
+ * background with a bounded number of retries.
+ */
+public class NacosRegistrationManager implements DisposableBean {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosRegistrationManager.class);
+
+	private final Map<Registration, RegisteredInstance> registered = new ConcurrentHashMap<>(
+			4);
+
+	private final Map<Registration, AsyncRegistration> pending = new ConcurrentHashMap<>(
+			4);
+
+	private final NacosServiceManager nacosServiceManager;
+
+	private final NacosDiscoveryProperties nacosDiscoveryProperties;
+
+	private final ThreadPoolTaskScheduler taskScheduler;
+
+	public NacosRegistrationManager(NacosServiceManager nacosServiceManager,
+			NacosDiscoveryProperties nacosDiscoveryProperties) {
+		this.nacosServiceManager = nacosServiceManager;
+		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
+		this.taskScheduler = getTaskScheduler();
+	}
+
+	private static ThreadPoolTaskScheduler getTaskScheduler() {
+		ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+		taskScheduler.setBeanName("Nacos-Registration-Task-Scheduler");
+		taskScheduler.setPoolSize(2);
+		taskScheduler.setDaemon(true);
+		taskScheduler.initialize();
+		return taskScheduler;
+	}
+
+	/**
+	 * Register all the given registrations, in parallel if there are several of them.
+	 * @param registrations registrations to register
+	 */
+	public void register(List<? extends Registration> registrations) {
+		if (registrations.size() < 2 || nacosDiscoveryProperties.isRegisterAsync()) {
+			registrations.forEach(this::register);
+			return;
+		}
+		List<CompletableFuture<Void>> futures = new ArrayList<>(registrations.size());
+		for (Registration registration : registrations) {
+			futures.add(CompletableFuture.runAsync(() -> register(registration),
+					taskScheduler));
+		}
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+		}
+		catch (CompletionException e) {
+			rethrowRuntimeException(e.getCause());
+		}
+	}
+
+	public void register(Registration registration) {
+		register(registration, null);
+	}
+
+	/**
+	 * Register the registration, and once that succeeded deregister the instance it
+	 * replaces, if any.
+	 */
+	private void register(Registration registration, RegisteredInstance replaced) {
+		String serviceId = registration.getServiceId();
+		String group = nacosDiscoveryProperties.getGroup();
+		Instance instance = getNacosInstanceFromRegistration(registration);
+
+		if (nacosDiscoveryProperties.isRegisterAsync()) {
+			AsyncRegistration asyncRegistration = new AsyncRegistration(registration,
+					serviceId, group, instance, replaced);
+			AsyncRegistration previous = pending.put(registration, asyncRegistration);
+			if (previous != null) {
+				previous.cancel();
+			}
+			asyncRegistration.schedule(0);
+			return;
+		}
+
+		try {
+			registered.put(registration, registerInstance(serviceId, group, instance));
+			if (replaced != null) {
+				deregisterInstance(replaced);
+			}
+		}
+		catch (Exception e) {
+			if (nacosDiscoveryProperties.isFailFast()) {
+				log.error("nacos registry, {} register failed...{},", serviceId,
+						registration.toString(), e);
+				rethrowRuntimeException(e);
+			}
+			else {
+				log.warn("Failfast is false. {} register failed...{},", serviceId,
+						registration.toString(), e);
+			}
+		}
+	}
+
+	/**
+	 * Apply the current state of a registration that has been registered before. Only a
+	 * change of weight, enabled flag or metadata is sent through {@code updateInstance};
+	 * a new service id, group, ip, port, cluster or ephemeral flag registers the new
+	 * instance, and the old one is deregistered only once that succeeded.
+	 * @param registration registration to update
+	 * @return false if the registration is unknown or the Nacos connection properties
+	 * changed, in which case it has to be registered again from scratch
+	 */
+	public boolean update(Registration registration) {
+		RegisteredInstance last = registered.get(registration);
+		if (last == null || !last.nacosProperties
+				.equals(nacosDiscoveryProperties.getNacosProperties())) {
+			return false;
+		}
+
+		String serviceId = registration.getServiceId();
+		String group = nacosDiscoveryProperties.getGroup();
+		Instance instance = getNacosInstanceFromRegistration(registration);
+
+		if (!serviceId.equals(last.serviceId) || !group.equals(last.group)
+				|| !isSameInstance(last.instance, instance)) {
+			register(registration, last);
+			return true;
+		}
+
+		List<String> changes = getChanges(last.instance, instance);
+		if (changes.isEmpty()) {
+			return true;
+		}
+		try {
+			updateInstance(registration, serviceId, group, instance);
+			log.info("nacos registry, {} {} {}:{} update finished, changed {}", group,
+					serviceId, instance.getIp(), instance.getPort(), changes);
+			return true;
+		}
+		catch (Exception e) {
+			log.warn("nacos registry, {} update failed...{},", serviceId,
+					registration.toString(), e);
+			return false;
+		}
+	}
+
+	public void setEnabled(Registration registration, boolean enabled)
+			throws NacosException {
+		RegisteredInstance last = registered.get(registration);
+		Instance instance = last == null ? getNacosInstanceFromRegistration(registration)
+				: copyOf(last.instance);
+		instance.setEnabled(enabled);
+		updateInstance(registration, registration.getServiceId(),
+				nacosDiscoveryProperties.getGroup(), instance);
+	}
+
+	public void deregister(Registration registration) {
+		AsyncRegistration asyncRegistration = pending.remove(registration);
+		if (asyncRegistration != null) {
+			asyncRegistration.cancel();
+		}
+
+		RegisteredInstance last = registered.remove(registration);
+		if (last != null) {
+			deregisterInstance(last);
+			return;
+		}
+
+		try {
+			namingService().deregisterInstance(registration.getServiceId(),
+					nacosDiscoveryProperties.getGroup(), registration.getHost(),
+					registration.getPort(), nacosDiscoveryProperties.getClusterName());
+		}
+		catch (Exception e) {
+			log.error("ERR_NACOS_DEREGISTER, de-register failed...{},",
+					registration.toString(), e);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		pending.values().forEach(AsyncRegistration::cancel);
+		pending.clear();
+		taskScheduler.shutdown();
+	}
+
+	private RegisteredInstance registerInstance(String serviceId, String group,
+			Instance instance) throws NacosException {
+		Properties nacosProperties = nacosDiscoveryProperties.getNacosProperties();
+		long start = System.nanoTime();
+		try {
+			nacosServiceManager.getNamingService(nacosProperties)
+					.registerInstance(serviceId, group, instance);
+		}
+		catch (NacosException | RuntimeException e) {
+			discoveryMetrics().recordRegistration(System.nanoTime() - start, false);
+			throw e;
+		}
+		discoveryMetrics().recordRegistration(System.nanoTime() - start, true);
+		log.info("nacos registry, {} {} {}:{} register finished", group, serviceId,
+				instance.getIp(), instance.getPort());
+		return new RegisteredInstance(serviceId, group, instance, nacosProperties);
+	}
+
+	private void updateInstance(Registration registration, String serviceId, String group,
+			Instance instance) throws NacosException {
+		Properties nacosProperties = nacosDiscoveryProperties.getNacosProperties();
+		nacosServiceManager.getNamingMaintainService(nacosProperties)
+				.updateInstance(serviceId, group, instance);
+		registered.computeIfPresent(registration,
+				(key, last) -> new RegisteredInstance(serviceId, group, instance,
+						last.nacosProperties));
+	}
+
+	private void deregisterInstance(RegisteredInstance last) {
+		try {
+			namingService().deregisterInstance(last.serviceId, last.group, last.instance);
+		}
+		catch (Exception e) {
+			log.error("ERR_NACOS_DEREGISTER, de-register {} {}:{} failed,",
+					last.serviceId, last.instance.getIp(), last.instance.getPort(), e);
+		}
+	}
+
+	/**
+	 * Whether a later registration of the same registration keeps the given instance
+	 * registered, pending or done.
+	 */
+	private boolean isKeptBySuccessor(Registration registration, Instance instance) {
+		AsyncRegistration successor = pending.get(registration);
+		if (successor != null) {
+			return isSameInstance(successor.instance, instance);
+		}
+		RegisteredInstance current = registered.get(registration);
+		return current != null && isSameInstance(current.instance, instance);
+	}
+
+	private static boolean isSameInstance(Instance last, Instance current) {
+		return Objects.equals(last.getIp(), current.getIp())
+				&& last.getPort() == current.getPort()
+				&& Objects.equals(last.getClusterName(), current.getClusterName())
+				&& last.isEphemeral() == current.isEphemeral();
+	}
+
+	private static List<String> getChanges(Instance last, Instance current) {
+		List<String> changes = new ArrayList<>(3);
+		if (Double.compare(last.getWeight(), current.getWeight()) != 0) {
+			changes.add("weight");
+		}
+		if (last.isEnabled() != current.isEnabled()) {
+			changes.add("enabled");
+		}
+		if (!Objects.equals(last.getMetadata(), current.getMetadata())) {
+			changes.add("metadata");
+		}
+		return changes;
+	}
+
+	private Instance getNacosInstanceFromRegistration(Registration registration) {
+		Instance instance = new Instance();
+		instance.setIp(registration.getHost());
+		instance.setPort(registration.getPort());
+		instance.setWeight(nacosDiscoveryProperties.getWeight());
+		instance.setClusterName(nacosDiscoveryProperties.getClusterName());
+		instance.setEnabled(nacosDiscoveryProperties.isInstanceEnabled()
+				&& !isAwaitingReadiness(registration));
+		// copied, the registration may change its metadata in place later on
+		instance.setMetadata(new HashMap<>(registration.getMetadata()));
+		instance.setEphemeral(nacosDiscoveryProperties.isEphemeral());
+		return instance;
+	}
+
+	private static boolean isAwaitingReadiness(Registration registration) {
+		return registration instanceof NacosRegistration
+				&& ((NacosRegistration) registration).isAwaitingReadiness();
+	}
+
+	private static Instance copyOf(Instance source) {
+		Instance instance = new Instance();
+		instance.setIp(source.getIp());
+		instance.setPort(source.getPort());
+		instance.setWeight(source.getWeight());
+		instance.setClusterName(source.getClusterName());
+		instance.setEnabled(source.isEnabled());
+		instance.setMetadata(new HashMap<>(source.getMetadata()));
+		instance.setEphemeral(source.isEphemeral());
+		return instance;
+	}
+
+	private NacosDiscoveryMetrics discoveryMetrics() {
+		return nacosServiceManager.getDiscoveryMetrics();
+	}
+
+	private NamingService namingService() {
+		return nacosServiceManager
+				.getNamingService(nacosDiscoveryProperties.getNacosProperties());
+	}
+
+	private static final class RegisteredInstance {
+
+		private final String serviceId;
+
+		private final String group;
+
+		private final Instance instance;
+
+		private final Properties nacosProperties;
+
+		private RegisteredInstance(String serviceId, String group, Instance instance,
+				Properties nacosProperties) {
+			this.serviceId = serviceId;
+			this.group = group;
+			this.instance = instance;
+			this.nacosProperties = nacosProperties;
+		}
+
+	}
+
+	/**
+	 * A background registration, retried with a doubling delay until it succeeds, the
+	 * retries are used up or it is cancelled by a deregistration. An instance registered
+	 * while it was cancelled is deregistered again instead of being recorded.
+	 */
+	private final class AsyncRegistration implements Runnable {
+
+		private final Registration registration;
+
+		private final String serviceId;
+
+		private final String group;
+
+		private final Instance instance;
+
+		private final RegisteredInstance replaced;
+
+		private volatile boolean cancelled;
+
+		private volatile ScheduledFuture<?> future;
+
+		private int attempt;
+
+		private AsyncRegistration(Registration registration, String serviceId,
+				String group, Instance instance, RegisteredInstance replaced) {
+			this.registration = registration;
+			this.serviceId = serviceId;
+			this.group = group;
+			this.instance = instance;
+			this.replaced = replaced;
+		}
+
+		private void schedule(long delay) {
+			future = taskScheduler.schedule(this,
+					new Date(System.currentTimeMillis() + delay));
+		}
+
+		private synchronized void cancel() {
+			cancelled = true;
+			ScheduledFuture<?> current = future;
+			if (current != null) {
+				current.cancel(false);
+			}
+		}
+
+		@Override
+		public void run() {
+			if (cancelled) {
+				return;
+			}
+			RegisteredInstance current;
+			try {
+				current = registerInstance(serviceId, group, instance);
+			}
+			catch (Exception e) {
+				int retryTimes = nacosDiscoveryProperties.getRegisterRetryTimes();
+				if (attempt < retryTimes && !cancelled) {
+					long delay = nacosDiscoveryProperties
+							.getRegisterRetryInterval() << Math.min(attempt, 16);
+					attempt++;
+					log.warn("nacos registry, {} register failed, retry {}/{} in {} ms",
+							serviceId, attempt, retryTimes, delay, e);
+					schedule(delay);
+				}
+				else {
+					pending.remove(registration, this);
+					log.error("nacos registry, {} register failed...{},", serviceId,
+							registration.toString(), e);
+				}
+				return;
+			}
+			// cancel() waits for this, so a deregistration finds what is recorded
+			boolean recorded;
+			synchronized (this) {
+				recorded = !cancelled;
+				if (recorded) {
+					pending.remove(registration, this);
+					registered.put(registration, current);
+				}
+			}
+			if (recorded) {
+				if (replaced != null) {
+					deregisterInstance(replaced);
+				}
+			}
+			else if (!isKeptBySuccessor(registration, instance)) {
+				log.info("nacos registry, {} cancelled while registering, de-register",
+						serviceId);
+				deregisterInstance(current);
+			}
+		}
+
+	}
+
+}
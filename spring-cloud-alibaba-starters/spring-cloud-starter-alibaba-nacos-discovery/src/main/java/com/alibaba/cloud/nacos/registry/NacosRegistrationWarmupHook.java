@@ -0,0 +1,34 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+/**
+ * Warms the application up, e.g. fills caches or opens connection pools, before it is
+ * made discoverable. Hooks run in order once the application is ready, when
+ * {@code spring.cloud.nacos.discovery.register-when-ready} is enabled.
+ */
+@FunctionalInterface
+public interface NacosRegistrationWarmupHook {
+
+	/**
+	 * warm up before the registration is made discoverable.
+	 * @param registration registration about to be made discoverable
+	 * @throws Exception if warming up failed, the registration goes on anyway
+	 */
+	void warmup(NacosRegistration registration) throws Exception;
+
+}
@@ -16,11 +16,12 @@
 
 package com.alibaba.cloud.nacos.registry;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Properties;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.balancer.NacosWarmup;
 import com.alibaba.nacos.api.exception.NacosException;
 import com.alibaba.nacos.api.naming.NamingService;
 import com.alibaba.nacos.api.naming.pojo.Instance;
@@ -32,8 +33,6 @@ import org.springframework.cloud.client.serviceregistry.Registration;
 import org.springframework.cloud.client.serviceregistry.ServiceRegistry;
 import org.springframework.util.StringUtils;
 
-import static org.springframework.util.ReflectionUtils.rethrowRuntimeException;
-
 /**
  * @author xiaojing
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
@@ -52,10 +51,24 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 	@Autowired
 	private NacosServiceManager nacosServiceManager;
 
+	private NacosRegistrationManager nacosRegistrationManager;
+
+	/**
+	 * whether the registration manager has been created by this registry, rather than
+	 * injected as a bean, and has to be destroyed along with it.
+	 */
+	private boolean ownsRegistrationManager;
+
 	public NacosServiceRegistry(NacosDiscoveryProperties nacosDiscoveryProperties) {
 		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
 	}
 
+	public NacosServiceRegistry(NacosDiscoveryProperties nacosDiscoveryProperties,
+			NacosRegistrationManager nacosRegistrationManager) {
+		this.nacosDiscoveryProperties = nacosDiscoveryProperties;
+		this.nacosRegistrationManager = nacosRegistrationManager;
+	}
+
 	@Override
 	public void register(Registration registration) {
 
@@ -64,28 +77,40 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 			return;
 		}
 
-		NamingService namingService = namingService();
-		String serviceId = registration.getServiceId();
-		String group = nacosDiscoveryProperties.getGroup();
-
-		Instance instance = getNacosInstanceFromRegistration(registration);
+		stampWarmupStart(registration);
+		registrationManager().register(registration);
+	}
 
-		try {
-			namingService.registerInstance(serviceId, group, instance);
-			log.info("nacos registry, {} {} {}:{} register finished", group, serviceId,
-					instance.getIp(), instance.getPort());
-		}
-		catch (Exception e) {
-			if (nacosDiscoveryProperties.isFailFast()) {
-				log.error("nacos registry, {} register failed...{},", serviceId,
-						registration.toString(), e);
-				rethrowRuntimeException(e);
+	/**
+	 * Register all the given registrations in parallel, e.g. the application and its
+	 * management port.
+	 * @param registrations registrations to register
+	 */
+	public void register(List<? extends Registration> registrations) {
+		List<Registration> toRegister = new ArrayList<>(registrations.size());
+		for (Registration registration : registrations) {
+			if (StringUtils.isEmpty(registration.getServiceId())) {
+				log.warn("No service to register for nacos client...");
 			}
 			else {
-				log.warn("Failfast is false. {} register failed...{},", serviceId,
-						registration.toString(), e);
+				stampWarmupStart(registration);
+				toRegister.add(registration);
 			}
 		}
+		registrationManager().register(toRegister);
+	}
+
+	/**
+	 * Apply the current state of an already registered registration in place.
+	 * @param registration registration to update
+	 * @return false if the registration has to be registered again from scratch
+	 * @see NacosRegistrationManager#update(Registration)
+	 */
+	public boolean update(Registration registration) {
+		if (StringUtils.isEmpty(registration.getServiceId())) {
+			return false;
+		}
+		return registrationManager().update(registration);
 	}
 
 	@Override
@@ -98,26 +123,23 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 			return;
 		}
 
-		NamingService namingService = namingService();
-		String serviceId = registration.getServiceId();
-		String group = nacosDiscoveryProperties.getGroup();
-
-		try {
-			namingService.deregisterInstance(serviceId, group, registration.getHost(),
-					registration.getPort(), nacosDiscoveryProperties.getClusterName());
-		}
-		catch (Exception e) {
-			log.error("ERR_NACOS_DEREGISTER, de-register failed...{},",
-					registration.toString(), e);
-		}
+		registrationManager().deregister(registration);
 
 		log.info("De-registration finished.");
 	}
 
 	@Override
 	public void close() {
+		if (ownsRegistrationManager) {
+			nacosRegistrationManager.destroy();
+			// created again on the next use, e.g. when the lifecycle is restarted
+			nacosRegistrationManager = null;
+			ownsRegistrationManager = false;
+		}
 		try {
-			nacosServiceManager.nacosServiceShutDown();
+			// only the own connection, the manager shuts down the others itself
+			nacosServiceManager
+					.nacosServiceShutDown(nacosDiscoveryProperties.getNacosProperties());
 		}
 		catch (NacosException e) {
 			log.error("Nacos namingService shutDown failed", e);
@@ -133,21 +155,9 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 			return;
 		}
 
-		String serviceId = registration.getServiceId();
-
-		Instance instance = getNacosInstanceFromRegistration(registration);
-
-		if (STATUS_DOWN.equalsIgnoreCase(status)) {
-			instance.setEnabled(false);
-		}
-		else {
-			instance.setEnabled(true);
-		}
-
 		try {
-			Properties nacosProperties = nacosDiscoveryProperties.getNacosProperties();
-			nacosServiceManager.getNamingMaintainService(nacosProperties).updateInstance(
-					serviceId, nacosDiscoveryProperties.getGroup(), instance);
+			registrationManager().setEnabled(registration,
+					!STATUS_DOWN.equalsIgnoreCase(status));
 		}
 		catch (Exception e) {
 			throw new RuntimeException("update nacos instance status fail", e);
@@ -176,16 +186,25 @@ public class NacosServiceRegistry implements ServiceRegistry<Registration> {
 		return null;
 	}
 
-	private Instance getNacosInstanceFromRegistration(Registration registration) {
-		Instance instance = new Instance();
-		instance.setIp(registration.getHost());
-		instance.setPort(registration.getPort());
-		instance.setWeight(nacosDiscoveryProperties.getWeight());
-		instance.setClusterName(nacosDiscoveryProperties.getClusterName());
-		instance.setEnabled(nacosDiscoveryProperties.isInstanceEnabled());
-		instance.setMetadata(registration.getMetadata());
-		instance.setEphemeral(nacosDiscoveryProperties.isEphemeral());
-		return instance;
+	/**
+	 * The weight warm-up of the instance starts when it is registered, not when the
+	 * registration has been created, context startup may take longer than the warm-up.
+	 */
+	private void stampWarmupStart(Registration registration) {
+		if (registration instanceof NacosRegistration
+				&& nacosDiscoveryProperties.getWarmupDuration() > 0) {
+			registration.getMetadata().put(NacosWarmup.START_TIMESTAMP,
+					String.valueOf(System.currentTimeMillis()));
+		}
+	}
+
+	private NacosRegistrationManager registrationManager() {
+		if (nacosRegistrationManager == null) {
+			nacosRegistrationManager = new NacosRegistrationManager(nacosServiceManager,
+					nacosDiscoveryProperties);
+			ownsRegistrationManager = true;
+		}
+		return nacosRegistrationManager;
 	}
 
 	private NamingService namingService() {
@@ -17,9 +17,11 @@
 package com.alibaba.cloud.nacos.registry;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import com.alibaba.cloud.nacos.ConditionalOnNacosDiscoveryEnabled;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
 import com.alibaba.cloud.nacos.discovery.NacosDiscoveryAutoConfiguration;
 
 import org.springframework.beans.factory.ObjectProvider;
@@ -49,9 +51,19 @@ import org.springframework.context.annotation.Configuration;
 public class NacosServiceRegistryAutoConfiguration {
 
 	@Bean
-	public NacosServiceRegistry nacosServiceRegistry(
+	public NacosRegistrationManager nacosRegistrationManager(
+			NacosServiceManager nacosServiceManager,
 			NacosDiscoveryProperties nacosDiscoveryProperties) {
-		return new NacosServiceRegistry(nacosDiscoveryProperties);
+		return new NacosRegistrationManager(nacosServiceManager,
+				nacosDiscoveryProperties);
+	}
+
+	@Bean
+	public NacosServiceRegistry nacosServiceRegistry(
+			NacosDiscoveryProperties nacosDiscoveryProperties,
+			NacosRegistrationManager nacosRegistrationManager) {
+		return new NacosServiceRegistry(nacosDiscoveryProperties,
+				nacosRegistrationManager);
 	}
 
 	@Bean
@@ -69,9 +81,13 @@ public class NacosServiceRegistryAutoConfiguration {
 	public NacosAutoServiceRegistration nacosAutoServiceRegistration(
 			NacosServiceRegistry registry,
 			AutoServiceRegistrationProperties autoServiceRegistrationProperties,
-			NacosRegistration registration) {
-		return new NacosAutoServiceRegistration(registry,
-				autoServiceRegistrationProperties, registration);
+			NacosRegistration registration,
+			ObjectProvider<NacosRegistrationWarmupHook> warmupHooks) {
+		NacosAutoServiceRegistration autoServiceRegistration = new NacosAutoServiceRegistration(
+				registry, autoServiceRegistrationProperties, registration);
+		autoServiceRegistration
+				.setWarmupHooks(warmupHooks.orderedStream().collect(Collectors.toList()));
+		return autoServiceRegistration;
 	}
 
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.ribbon;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.balancer.NacosConsistentHashProperties;
+import com.alibaba.cloud.nacos.balancer.NacosConsistentHashRing;
+import com.alibaba.cloud.nacos.balancer.NacosHashKey;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.AbstractLoadBalancerRule;
+import com.netflix.loadbalancer.DynamicServerListLoadBalancer;
+import com.netflix.loadbalancer.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Ribbon rule sending the calls with the same hash key to the same instance, see
+ * {@link NacosConsistentHashRing}. The key is the one handed over through
+ * {@link NacosHashKey}, or else the load balancer key of the call unless it is the
+ * default one. Calls without a key are balanced by weight, like {@link NacosRule}.
+ */
+public class NacosConsistentHashRule extends AbstractLoadBalancerRule {
+
+	private static final Logger LOGGER = LoggerFactory
+			.getLogger(NacosConsistentHashRule.class);
+
+	private static final String DEFAULT_KEY = "default";
+
+	@Autowired
+	private NacosDiscoveryProperties nacosDiscoveryProperties;
+
+	@Autowired
+	private NacosServiceManager nacosServiceManager;
+
+	@Autowired(required = false)
+	private NacosConsistentHashProperties nacosConsistentHashProperties;
+
+	private final AtomicReference<NacosConsistentHashRing<Instance>> ring = new AtomicReference<>();
+
+	@Override
+	public Server choose(Object key) {
+		try {
+			DynamicServerListLoadBalancer loadBalancer = (DynamicServerListLoadBalancer) getLoadBalancer();
+			String name = loadBalancer.getName();
+
+			NamingService namingService = nacosServiceManager
+					.getNamingService(nacosDiscoveryProperties.getNacosProperties());
+			List<Instance> instances = nacosServiceManager.getInstanceLoader()
+					.selectInstances(namingService, nacosDiscoveryProperties, name);
+			if (CollectionUtils.isEmpty(instances)) {
+				LOGGER.warn("no instance in service {}", name);
+				return null;
+			}
+
+			String hashKey = NacosHashKey.get();
+			if (hashKey == null && key instanceof String && !DEFAULT_KEY.equals(key)) {
+				hashKey = (String) key;
+			}
+			if (hashKey == null) {
+				return new NacosServer(ExtendBalancer.getHostByRandomWeight2(instances));
+			}
+			NacosConsistentHashRing<Instance> current = ring
+					.updateAndGet(previous -> (previous == null
+							? NacosConsistentHashRing.<Instance>empty(getVirtualNodes())
+							: previous).update(instances,
+									NacosConsistentHashRule::address,
+									Instance::getWeight));
+			return new NacosServer(current.select(hashKey));
+		}
+		catch (Exception e) {
+			LOGGER.warn("NacosConsistentHashRule error", e);
+			return null;
+		}
+	}
+
+	private static String address(Instance instance) {
+		return instance.getIp() + ":" + instance.getPort();
+	}
+
+	private int getVirtualNodes() {
+		return nacosConsistentHashProperties == null
+				? new NacosConsistentHashProperties().getVirtualNodes()
+				: nacosConsistentHashProperties.getVirtualNodes();
+	}
+
+	@Override
+	public void initWithNiwsConfig(IClientConfig iClientConfig) {
+	}
+
+}
@@ -17,11 +17,17 @@
 package com.alibaba.cloud.nacos.ribbon;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.discovery.NacosInstanceCache;
 import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.PollingServerListUpdater;
 import com.netflix.loadbalancer.ServerList;
+import com.netflix.loadbalancer.ServerListUpdater;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.netflix.ribbon.PropertiesFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -42,17 +48,34 @@ public class NacosRibbonClientConfiguration {
 	@Bean
 	@ConditionalOnMissingBean
 	public ServerList<?> ribbonServerList(IClientConfig config,
-			NacosDiscoveryProperties nacosDiscoveryProperties) {
+			NacosDiscoveryProperties nacosDiscoveryProperties,
+			ObjectProvider<NacosServiceManager> nacosServiceManager,
+			ObjectProvider<NacosInstanceCache> nacosInstanceCache) {
 		if (this.propertiesFactory.isSet(ServerList.class, config.getClientName())) {
 			ServerList serverList = this.propertiesFactory.get(ServerList.class, config,
 					config.getClientName());
 			return serverList;
 		}
-		NacosServerList serverList = new NacosServerList(nacosDiscoveryProperties);
+		NacosServerList serverList = new NacosServerList(nacosDiscoveryProperties,
+				nacosServiceManager.getIfAvailable(),
+				nacosInstanceCache.getIfAvailable());
 		serverList.initWithNiwsConfig(config);
 		return serverList;
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "ribbon.nacos.push-update.enabled",
+			matchIfMissing = true)
+	public ServerListUpdater ribbonServerListUpdater(IClientConfig config,
+			ObjectProvider<NacosInstanceCache> nacosInstanceCache) {
+		NacosInstanceCache instanceCache = nacosInstanceCache.getIfAvailable();
+		if (instanceCache == null) {
+			return new PollingServerListUpdater(config);
+		}
+		return new NacosServerListUpdater(instanceCache, config);
+	}
+
 	@Bean
 	@ConditionalOnMissingBean
 	public NacosServerIntrospector nacosServerIntrospector() {
@@ -23,6 +23,9 @@ import java.util.stream.Collectors;
 import com.alibaba.cloud.commons.lang.StringUtils;
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.balancer.NacosOutlierDetector;
+import com.alibaba.cloud.nacos.balancer.NacosWarmup;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
 import com.alibaba.nacos.api.naming.NamingService;
 import com.alibaba.nacos.api.naming.pojo.Instance;
 import com.netflix.client.config.IClientConfig;
@@ -51,17 +54,22 @@ public class NacosRule extends AbstractLoadBalancerRule {
 	@Autowired
 	private NacosServiceManager nacosServiceManager;
 
+	@Autowired(required = false)
+	private NacosOutlierDetector nacosOutlierDetector;
+
 	@Override
 	public Server choose(Object key) {
 		try {
 			String clusterName = this.nacosDiscoveryProperties.getClusterName();
-			String group = this.nacosDiscoveryProperties.getGroup();
 			DynamicServerListLoadBalancer loadBalancer = (DynamicServerListLoadBalancer) getLoadBalancer();
 			String name = loadBalancer.getName();
 
 			NamingService namingService = nacosServiceManager
 					.getNamingService(nacosDiscoveryProperties.getNacosProperties());
-			List<Instance> instances = namingService.selectInstances(name, group, true);
+			NacosDiscoveryMetrics discoveryMetrics = nacosServiceManager
+					.getDiscoveryMetrics();
+			List<Instance> instances = nacosServiceManager.getInstanceLoader()
+					.selectInstances(namingService, nacosDiscoveryProperties, name);
 			if (CollectionUtils.isEmpty(instances)) {
 				LOGGER.warn("no instance in service {}", name);
 				return null;
@@ -77,12 +85,21 @@ public class NacosRule extends AbstractLoadBalancerRule {
 					instancesToChoose = sameClusterInstances;
 				}
 				else {
+					discoveryMetrics.recordCrossClusterSelection(name);
 					LOGGER.warn(
 							"A cross-cluster call occurs，name = {}, clusterName = {}, instance = {}",
 							name, clusterName, instances);
 				}
 			}
 
+			instancesToChoose = NacosWarmup.warmup(instancesToChoose,
+					this.nacosDiscoveryProperties.getWarmupCurve());
+			if (nacosOutlierDetector != null) {
+				List<Instance> inliers = nacosOutlierDetector.apply(instancesToChoose);
+				if (!inliers.isEmpty()) {
+					instancesToChoose = inliers;
+				}
+			}
 			Instance instance = ExtendBalancer.getHostByRandomWeight2(instancesToChoose);
 
 			return new NacosServer(instance);
@@ -17,15 +17,25 @@
 package com.alibaba.cloud.nacos.ribbon;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.discovery.NacosInstanceCache;
+import com.alibaba.cloud.nacos.discovery.NacosInstancesSnapshot;
 import com.alibaba.nacos.api.naming.pojo.Instance;
 import com.alibaba.nacos.client.naming.utils.CollectionUtils;
 import com.netflix.client.config.IClientConfig;
 import com.netflix.loadbalancer.AbstractServerList;
 
 /**
+ * Server list of a service, read from the {@link NacosInstanceCache} kept up to date by
+ * Nacos pushes when available. A {@link NacosServer} is reused as long as its instance is
+ * unchanged, so that an update allocates servers only for the instances that changed.
+ *
  * @author xiaojing
  * @author renhaojun
  */
@@ -33,12 +43,35 @@ public class NacosServerList extends AbstractServerList<NacosServer> {
 
 	private NacosDiscoveryProperties discoveryProperties;
 
+	private NacosServiceManager nacosServiceManager;
+
+	private NacosInstanceCache nacosInstanceCache;
+
 	private String serviceId;
 
+	private List<Instance> lastInstances;
+
+	private List<NacosServer> lastServers = Collections.emptyList();
+
+	private Map<String, CachedServer> cachedServers = Collections.emptyMap();
+
 	public NacosServerList(NacosDiscoveryProperties discoveryProperties) {
 		this.discoveryProperties = discoveryProperties;
 	}
 
+	public NacosServerList(NacosDiscoveryProperties discoveryProperties,
+			NacosServiceManager nacosServiceManager) {
+		this(discoveryProperties);
+		this.nacosServiceManager = nacosServiceManager;
+	}
+
+	public NacosServerList(NacosDiscoveryProperties discoveryProperties,
+			NacosServiceManager nacosServiceManager,
+			NacosInstanceCache nacosInstanceCache) {
+		this(discoveryProperties, nacosServiceManager);
+		this.nacosInstanceCache = nacosInstanceCache;
+	}
+
 	@Override
 	public List<NacosServer> getInitialListOfServers() {
 		return getServers();
@@ -51,10 +84,7 @@ public class NacosServerList extends AbstractServerList<NacosServer> {
 
 	private List<NacosServer> getServers() {
 		try {
-			String group = discoveryProperties.getGroup();
-			List<Instance> instances = discoveryProperties.namingServiceInstance()
-					.selectInstances(serviceId, group, true);
-			return instancesToServerList(instances);
+			return instancesToServerList(selectInstances());
 		}
 		catch (Exception e) {
 			throw new IllegalStateException(
@@ -63,16 +93,48 @@ public class NacosServerList extends AbstractServerList<NacosServer> {
 		}
 	}
 
-	private List<NacosServer> instancesToServerList(List<Instance> instances) {
-		List<NacosServer> result = new ArrayList<>();
+	private List<Instance> selectInstances() throws Exception {
+		if (nacosInstanceCache != null) {
+			return nacosInstanceCache.getInstances(serviceId);
+		}
+		if (nacosServiceManager == null) {
+			return discoveryProperties.namingServiceInstance().selectInstances(serviceId,
+					discoveryProperties.getGroup(), true);
+		}
+		return nacosServiceManager.getInstanceLoader().selectInstances(
+				nacosServiceManager
+						.getNamingService(discoveryProperties.getNacosProperties()),
+				discoveryProperties, serviceId);
+	}
+
+	private synchronized List<NacosServer> instancesToServerList(
+			List<Instance> instances) {
 		if (CollectionUtils.isEmpty(instances)) {
-			return result;
+			lastInstances = null;
+			lastServers = Collections.emptyList();
+			cachedServers = Collections.emptyMap();
+			return new ArrayList<>();
+		}
+		// the cache hands out the same list until Nacos pushes a change
+		if (instances == lastInstances) {
+			return new ArrayList<>(lastServers);
 		}
+		List<NacosServer> result = new ArrayList<>(instances.size());
+		Map<String, CachedServer> servers = new HashMap<>(instances.size() * 4 / 3 + 1);
 		for (Instance instance : instances) {
-			result.add(new NacosServer(instance));
+			String identity = NacosInstancesSnapshot.identity(instance);
+			long fingerprint = NacosInstancesSnapshot.fingerprint(instance);
+			CachedServer cached = cachedServers.get(identity);
+			if (cached == null || cached.fingerprint != fingerprint) {
+				cached = new CachedServer(new NacosServer(instance), fingerprint);
+			}
+			servers.put(identity, cached);
+			result.add(cached.server);
 		}
-
-		return result;
+		lastInstances = instances;
+		lastServers = result;
+		cachedServers = servers;
+		return new ArrayList<>(result);
 	}
 
 	public String getServiceId() {
@@ -84,4 +146,17 @@ public class NacosServerList extends AbstractServerList<NacosServer> {
 		this.serviceId = iClientConfig.getClientName();
 	}
 
+	private static final class CachedServer {
+
+		private final NacosServer server;
+
+		private final long fingerprint;
+
+		private CachedServer(NacosServer server, long fingerprint) {
+			this.server = server;
+			this.fingerprint = fingerprint;
+		}
+
+	}
+
 }
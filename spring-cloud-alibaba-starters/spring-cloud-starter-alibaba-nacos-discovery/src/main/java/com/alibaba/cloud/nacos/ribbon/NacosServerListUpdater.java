@@ -0,0 +1,162 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.ribbon;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import com.alibaba.cloud.nacos.discovery.NacosInstanceCache;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.ServerListUpdater;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * {@link ServerListUpdater} updating the server list of a service whenever Nacos pushes a
+ * change of its instances into the {@link NacosInstanceCache}, instead of polling. Until
+ * the service is cached, e.g. because its first lookup failed, it falls back to polling
+ * at the server list refresh interval. Updates queued while one is pending are coalesced.
+ */
+public class NacosServerListUpdater implements ServerListUpdater {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(NacosServerListUpdater.class);
+
+	private static final int DEFAULT_REFRESH_INTERVAL = 30000;
+
+	private final NacosInstanceCache instanceCache;
+
+	private final String serviceId;
+
+	private final long refreshInterval;
+
+	private final AtomicBoolean running = new AtomicBoolean(false);
+
+	private final AtomicBoolean updateQueued = new AtomicBoolean(false);
+
+	private volatile long lastUpdated = System.currentTimeMillis();
+
+	private volatile BiConsumer<String, List<Instance>> listener;
+
+	private volatile ScheduledFuture<?> fallback;
+
+	public NacosServerListUpdater(NacosInstanceCache instanceCache,
+			IClientConfig clientConfig) {
+		this(instanceCache, clientConfig.getClientName(),
+				clientConfig.get(CommonClientConfigKey.ServerListRefreshInterval,
+						DEFAULT_REFRESH_INTERVAL));
+	}
+
+	public NacosServerListUpdater(NacosInstanceCache instanceCache, String serviceId,
+			long refreshInterval) {
+		this.instanceCache = instanceCache;
+		this.serviceId = serviceId;
+		this.refreshInterval = refreshInterval;
+	}
+
+	@Override
+	public synchronized void start(UpdateAction updateAction) {
+		if (!running.compareAndSet(false, true)) {
+			return;
+		}
+		listener = (service, instances) -> {
+			if (serviceId.equals(service)) {
+				update(updateAction);
+			}
+		};
+		instanceCache.addListener(listener);
+		// no push arrives for a service that has not been looked up successfully yet
+		fallback = UpdaterExecutor.EXECUTOR.scheduleWithFixedDelay(() -> {
+			if (instanceCache.getIfPresent(serviceId) == null) {
+				update(updateAction);
+			}
+		}, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (running.compareAndSet(true, false)) {
+			instanceCache.removeListener(listener);
+			fallback.cancel(false);
+		}
+	}
+
+	private void update(UpdateAction updateAction) {
+		if (!updateQueued.compareAndSet(false, true)) {
+			return;
+		}
+		UpdaterExecutor.EXECUTOR.execute(() -> {
+			updateQueued.set(false);
+			try {
+				updateAction.doUpdate();
+				lastUpdated = System.currentTimeMillis();
+			}
+			catch (Exception e) {
+				log.warn("Failed to update the server list of {}", serviceId, e);
+			}
+		});
+	}
+
+	@Override
+	public String getLastUpdate() {
+		return new Date(lastUpdated).toString();
+	}
+
+	@Override
+	public long getDurationSinceLastUpdateMs() {
+		return System.currentTimeMillis() - lastUpdated;
+	}
+
+	@Override
+	public int getNumberMissedCycles() {
+		return 0;
+	}
+
+	@Override
+	public int getCoreThreads() {
+		return 1;
+	}
+
+	/**
+	 * One thread shared by the updaters of all services, created on first use.
+	 */
+	private static final class UpdaterExecutor {
+
+		private static final ScheduledThreadPoolExecutor EXECUTOR = create();
+
+		private static ScheduledThreadPoolExecutor create() {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+					"Nacos-ServerList-Updater-");
+			threadFactory.setDaemon(true);
+			ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+					threadFactory);
+			executor.setRemoveOnCancelPolicy(true);
+			return executor;
+		}
+
+	}
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.alibaba.cloud.nacos.test.NacosMockTest.serviceInstance;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosInstanceLoader}.
+ */
+public class NacosInstanceLoaderTests {
+
+	private static final String SERVICE = "test-service";
+
+	private static final String GROUP = "DEFAULT_GROUP";
+
+	private NacosDiscoveryMetrics discoveryMetrics;
+
+	private NacosInstanceLoader instanceLoader;
+
+	private NamingService namingService;
+
+	private NacosDiscoveryProperties properties;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		discoveryMetrics = new NacosDiscoveryMetrics();
+		instanceLoader = new NacosInstanceLoader(discoveryMetrics);
+		namingService = mock(NamingService.class);
+		properties = new NacosDiscoveryProperties();
+		properties.setGroup(GROUP);
+		executor = Executors.newFixedThreadPool(8);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testConcurrentLookupsAreCoalesced() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(namingService.selectInstances(eq(SERVICE), eq(GROUP), eq(true)))
+				.thenAnswer(invocation -> {
+					release.await(5, TimeUnit.SECONDS);
+					return instances("1.1.1.1");
+				});
+
+		List<Future<List<Instance>>> lookups = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			lookups.add(executor.submit(() -> instanceLoader
+					.selectInstances(namingService, properties, SERVICE)));
+		}
+		long deadline = System.currentTimeMillis() + 5000;
+		while (coalescedLookups() < 7 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		release.countDown();
+
+		for (Future<List<Instance>> lookup : lookups) {
+			assertThat(lookup.get(5, TimeUnit.SECONDS)).extracting(Instance::getIp)
+					.containsExactly("1.1.1.1");
+		}
+		verify(namingService, times(1)).selectInstances(SERVICE, GROUP, true);
+		assertThat(coalescedLookups()).isEqualTo(7);
+		assertThat(discoveryMetrics.getServices().get(SERVICE).getLookups()).isEqualTo(1);
+	}
+
+	@Test
+	public void testEmptyLookupIsCachedUntilInvalidated() throws Exception {
+		when(namingService.selectInstances(SERVICE, GROUP, true))
+				.thenReturn(Collections.emptyList());
+
+		assertThat(instanceLoader.selectInstances(namingService, properties, SERVICE))
+				.isEmpty();
+		assertThat(instanceLoader.selectInstances(namingService, properties, SERVICE))
+				.isEmpty();
+		verify(namingService, times(1)).selectInstances(SERVICE, GROUP, true);
+		assertThat(discoveryMetrics.getCaches().get(NacosDiscoveryMetrics.NEGATIVE_CACHE)
+				.getHits()).isEqualTo(1);
+
+		instanceLoader.invalidate(namingService, properties, SERVICE);
+		instanceLoader.selectInstances(namingService, properties, SERVICE);
+		verify(namingService, times(2)).selectInstances(SERVICE, GROUP, true);
+	}
+
+	@Test
+	public void testInvalidateKeepsOtherNamespaces() throws Exception {
+		NamingService otherNamespace = mock(NamingService.class);
+		when(namingService.selectInstances(SERVICE, GROUP, true))
+				.thenReturn(Collections.emptyList());
+		when(otherNamespace.selectInstances(SERVICE, GROUP, true))
+				.thenReturn(Collections.emptyList());
+		instanceLoader.selectInstances(namingService, properties, SERVICE);
+		instanceLoader.selectInstances(otherNamespace, properties, SERVICE);
+
+		instanceLoader.invalidate(namingService, properties, SERVICE);
+		instanceLoader.selectInstances(namingService, properties, SERVICE);
+		instanceLoader.selectInstances(otherNamespace, properties, SERVICE);
+		verify(namingService, times(2)).selectInstances(SERVICE, GROUP, true);
+		verify(otherNamespace, times(1)).selectInstances(SERVICE, GROUP, true);
+	}
+
+	@Test
+	public void testWaitingLookupsFailWhenLeaderThrowsError() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(namingService.selectInstances(eq(SERVICE), eq(GROUP), eq(true)))
+				.thenAnswer(invocation -> {
+					release.await(5, TimeUnit.SECONDS);
+					throw new StackOverflowError();
+				});
+
+		List<Future<List<Instance>>> lookups = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			lookups.add(executor.submit(() -> instanceLoader
+					.selectInstances(namingService, properties, SERVICE)));
+		}
+		long deadline = System.currentTimeMillis() + 5000;
+		while (coalescedLookups() < 1 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		release.countDown();
+
+		for (Future<List<Instance>> lookup : lookups) {
+			assertThatThrownBy(() -> lookup.get(5, TimeUnit.SECONDS))
+					.isInstanceOf(ExecutionException.class);
+		}
+	}
+
+	@Test
+	public void testFailedLookupIsCached() throws Exception {
+		when(namingService.selectInstances(SERVICE, GROUP, true))
+				.thenThrow(new NacosException(NacosException.SERVER_ERROR, "down"));
+
+		for (int i = 0; i < 2; i++) {
+			assertThatThrownBy(() -> instanceLoader.selectInstances(namingService,
+					properties, SERVICE)).isInstanceOf(NacosException.class);
+		}
+		verify(namingService, times(1)).selectInstances(SERVICE, GROUP, true);
+	}
+
+	@Test
+	public void testNegativeCacheDisabled() throws Exception {
+		properties.setNegativeCacheTtl(0);
+		when(namingService.selectInstances(SERVICE, GROUP, true))
+				.thenReturn(Collections.emptyList());
+
+		instanceLoader.selectInstances(namingService, properties, SERVICE);
+		instanceLoader.selectInstances(namingService, properties, SERVICE);
+		verify(namingService, times(2)).selectInstances(SERVICE, GROUP, true);
+	}
+
+	@Test
+	public void testClustersAreLookedUpSeparately() throws Exception {
+		List<String> clusters = Collections.singletonList("c1");
+		when(namingService.selectInstances(SERVICE, GROUP, true))
+				.thenReturn(instances("1.1.1.1", "2.2.2.2"));
+		when(namingService.selectInstances(SERVICE, GROUP, clusters, true))
+				.thenReturn(instances("1.1.1.1"));
+
+		assertThat(instanceLoader.selectInstances(namingService, properties, SERVICE))
+				.hasSize(2);
+		assertThat(instanceLoader.selectInstances(namingService, properties, SERVICE,
+				clusters)).hasSize(1);
+	}
+
+	private long coalescedLookups() {
+		NacosDiscoveryMetrics.ServiceMetrics service = discoveryMetrics.getServices()
+				.get(SERVICE);
+		return service == null ? 0 : service.getCoalescedLookups();
+	}
+
+	private static List<Instance> instances(String... hosts) {
+		List<Instance> instances = new ArrayList<>();
+		for (String host : hosts) {
+			instances.add(serviceInstance(SERVICE, true, host, 8080, new HashMap<>()));
+		}
+		return instances;
+	}
+
+}
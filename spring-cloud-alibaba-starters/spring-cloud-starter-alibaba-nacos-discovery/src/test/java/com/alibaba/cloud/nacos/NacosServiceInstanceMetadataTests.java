@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.Test;
+
+import static com.alibaba.cloud.nacos.test.NacosMockTest.serviceInstance;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link NacosServiceInstanceMetadata}.
+ */
+public class NacosServiceInstanceMetadataTests {
+
+	@Test
+	public void testSameContentAsCopiedMetadata() {
+		Map<String, String> source = new HashMap<>();
+		source.put("secure", "true");
+		source.put("nacos.weight", "overridden");
+		source.put("nacos.ephemeral", "ignored");
+		Instance instance = serviceInstance("test-service", true, source);
+		instance.setWeight(2.5);
+		instance.setClusterName("DEFAULT");
+
+		Map<String, String> metadata = new NacosServiceInstanceMetadata(instance);
+
+		assertThat(metadata).isEqualTo(copy(instance));
+		assertThat(metadata.hashCode()).isEqualTo(copy(instance).hashCode());
+		assertThat(metadata).hasSize(6);
+		assertThat(metadata.get("nacos.weight")).isEqualTo("overridden");
+		assertThat(metadata.get("nacos.ephemeral")).isEqualTo("true");
+		assertThat(metadata.get("nacos.cluster")).isEqualTo("DEFAULT");
+		assertThat(metadata.get("unknown")).isNull();
+	}
+
+	@Test
+	public void testWithoutInstanceMetadata() {
+		Instance instance = serviceInstance("test-service", true, null);
+
+		Map<String, String> metadata = new NacosServiceInstanceMetadata(instance);
+
+		assertThat(metadata).isEqualTo(copy(instance));
+		assertThat(metadata).containsKeys("nacos.instanceId", "nacos.weight",
+				"nacos.healthy", "nacos.cluster", "nacos.ephemeral");
+		assertThatThrownBy(() -> metadata.put("key", "value"))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	/**
+	 * The metadata as it was built before the view existed.
+	 */
+	private Map<String, String> copy(Instance instance) {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put("nacos.instanceId", instance.getInstanceId());
+		metadata.put("nacos.weight", instance.getWeight() + "");
+		metadata.put("nacos.healthy", instance.isHealthy() + "");
+		metadata.put("nacos.cluster", instance.getClusterName() + "");
+		if (instance.getMetadata() != null) {
+			metadata.putAll(instance.getMetadata());
+		}
+		metadata.put("nacos.ephemeral", String.valueOf(instance.isEphemeral()));
+		return metadata;
+	}
+
+}
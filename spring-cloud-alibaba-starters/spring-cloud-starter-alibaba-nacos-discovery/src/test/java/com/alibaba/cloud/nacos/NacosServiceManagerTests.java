@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.nacos.api.PropertyKeyConst;
+import com.alibaba.nacos.api.naming.NamingService;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for the registry of naming services of {@link NacosServiceManager}.
+ */
+public class NacosServiceManagerTests {
+
+	private final AtomicInteger created = new AtomicInteger();
+
+	private NacosServiceManager nacosServiceManager;
+
+	@Before
+	public void setUp() {
+		nacosServiceManager = new NacosServiceManager() {
+			@Override
+			NamingService createNewNamingService(Properties properties) {
+				created.incrementAndGet();
+				return mock(NamingService.class);
+			}
+		};
+	}
+
+	@Test
+	public void testSameConnectionSharesNamingService() {
+		Properties properties = properties("tenant-a");
+		Properties tuned = properties("tenant-a");
+		tuned.setProperty(PropertyKeyConst.NAMING_LOAD_CACHE_AT_START, "true");
+
+		assertThat(nacosServiceManager.getNamingService(tuned))
+				.isSameAs(nacosServiceManager.getNamingService(properties));
+		assertThat(created).hasValue(1);
+	}
+
+	@Test
+	public void testNamingServicePerNamespace() {
+		NamingService tenantA = nacosServiceManager
+				.getNamingService(properties("tenant-a"));
+		NamingService tenantB = nacosServiceManager
+				.getNamingService(properties("tenant-b"));
+
+		assertThat(tenantA).isNotSameAs(tenantB);
+		assertThat(nacosServiceManager.getNamingServices())
+				.containsExactlyInAnyOrder(tenantA, tenantB);
+	}
+
+	@Test
+	public void testConcurrentCreationOnce() {
+		List<CompletableFuture<NamingService>> futures = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			futures.add(CompletableFuture.supplyAsync(
+					() -> nacosServiceManager.getNamingService(properties("tenant-a"))));
+		}
+
+		NamingService first = futures.get(0).join();
+		futures.forEach(future -> assertThat(future.join()).isSameAs(first));
+		assertThat(created).hasValue(1);
+	}
+
+	@Test
+	public void testShutDown() throws Exception {
+		NamingService tenantA = nacosServiceManager
+				.getNamingService(properties("tenant-a"));
+		NamingService tenantB = nacosServiceManager
+				.getNamingService(properties("tenant-b"));
+
+		nacosServiceManager.nacosServiceShutDown(properties("tenant-a"));
+		verify(tenantA).shutDown();
+		assertThat(nacosServiceManager.getNamingServices()).containsExactly(tenantB);
+
+		nacosServiceManager.destroy();
+		verify(tenantB).shutDown();
+		assertThat(nacosServiceManager.getNamingServices()).isEmpty();
+		assertThat(nacosServiceManager.getNamingService(properties("tenant-b")))
+				.isNotSameAs(tenantB);
+	}
+
+	@Test
+	public void testNotifyShutDown() throws Exception {
+		List<NamingService> shutDown = new ArrayList<>();
+		nacosServiceManager.addNamingServiceShutDownListener(shutDown::add);
+		NamingService tenantA = nacosServiceManager
+				.getNamingService(properties("tenant-a"));
+		NamingService tenantB = nacosServiceManager
+				.getNamingService(properties("tenant-b"));
+
+		nacosServiceManager.nacosServiceShutDown(properties("tenant-a"));
+		assertThat(shutDown).containsExactly(tenantA);
+
+		nacosServiceManager.destroy();
+		assertThat(shutDown).containsExactly(tenantA, tenantB);
+	}
+
+	private static Properties properties(String namespace) {
+		Properties properties = new Properties();
+		properties.setProperty(PropertyKeyConst.SERVER_ADDR, "127.0.0.1:8848");
+		properties.setProperty(PropertyKeyConst.NAMESPACE, namespace);
+		return properties;
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.http.HttpHeaders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link NacosConsistentHashRing} and {@link NacosHashKey}.
+ */
+public class NacosConsistentHashRingTests {
+
+	private static final int KEYS = 10000;
+
+	@Test
+	public void testSameKeySameInstance() {
+		NacosConsistentHashRing<String> ring = ring(160, "a:1", "b:1", "c:1");
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(ring.select("key-" + i)).isEqualTo(ring.select("key-" + i));
+		}
+		assertThat(NacosConsistentHashRing.<String>empty(160).select("key")).isNull();
+	}
+
+	@Test
+	public void testKeysSpreadEvenly() {
+		NacosConsistentHashRing<String> ring = ring(160, "a:1", "b:1", "c:1", "d:1");
+
+		Map<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			counts.merge(ring.select("key-" + i), 1, Integer::sum);
+		}
+		assertThat(counts).hasSize(4);
+		assertThat(counts.values()).allMatch(count -> count > KEYS / 8);
+	}
+
+	@Test
+	public void testWeightScalesPoints() {
+		NacosConsistentHashRing<String> ring = NacosConsistentHashRing.<String>empty(10)
+				.update(Arrays.asList("a:1", "b:1"), instance -> instance,
+						instance -> instance.startsWith("a") ? 2D : 1D);
+
+		assertThat(ring.size()).isEqualTo(30);
+	}
+
+	@Test
+	public void testRemovedInstanceOnlyMovesItsKeys() {
+		NacosConsistentHashRing<String> ring = ring(160, "a:1", "b:1", "c:1");
+		NacosConsistentHashRing<String> removed = ring.update(Arrays.asList("a:1", "c:1"),
+				instance -> instance, instance -> 1D);
+
+		for (int i = 0; i < KEYS; i++) {
+			String before = ring.select("key-" + i);
+			if (!"b:1".equals(before)) {
+				assertThat(removed.select("key-" + i)).isEqualTo(before);
+			}
+		}
+	}
+
+	@Test
+	public void testIncrementalUpdateMatchesFullBuild() {
+		NacosConsistentHashRing<String> incremental = ring(160, "a:1", "b:1", "c:1")
+				.update(Arrays.asList("a:1", "c:1", "d:1", "e:1"), instance -> instance,
+						instance -> 1D);
+		NacosConsistentHashRing<String> full = ring(160, "a:1", "c:1", "d:1", "e:1");
+
+		assertThat(incremental.size()).isEqualTo(full.size());
+		for (int i = 0; i < KEYS; i++) {
+			assertThat(incremental.select("key-" + i)).isEqualTo(full.select("key-" + i));
+		}
+	}
+
+	@Test
+	public void testUnchangedMembersReuseRing() {
+		List<String> instances = Arrays.asList("a:1", "b:1");
+		NacosConsistentHashRing<String> ring = NacosConsistentHashRing.<String>empty(160)
+				.update(instances, instance -> instance, instance -> 1D);
+
+		assertThat(ring.update(instances, instance -> instance, instance -> 1D))
+				.isSameAs(ring);
+		NacosConsistentHashRing<String> copy = ring.update(new ArrayList<>(instances),
+				instance -> instance, instance -> 1D);
+		assertThat(copy.size()).isEqualTo(ring.size());
+		assertThat(copy.select("key")).isEqualTo(ring.select("key"));
+	}
+
+	@Test
+	public void testExtractHashKey() {
+		NacosConsistentHashProperties properties = new NacosConsistentHashProperties();
+		properties.setParameter("user");
+		HttpHeaders headers = new HttpHeaders();
+		URI uri = URI.create("http://service/echo?user=42");
+
+		assertThat(NacosHashKey.extract(headers, uri, properties)).isEqualTo("42");
+		headers.set("X-Nacos-Hash-Key", "7");
+		assertThat(NacosHashKey.extract(headers, uri, properties)).isEqualTo("7");
+		assertThat(NacosHashKey.extract(new HttpHeaders(),
+				URI.create("http://service/echo"), properties)).isNull();
+	}
+
+	private static NacosConsistentHashRing<String> ring(int virtualNodes,
+			String... instances) {
+		return NacosConsistentHashRing.<String>empty(virtualNodes)
+				.update(Arrays.asList(instances), instance -> instance, instance -> 1D);
+	}
+
+}
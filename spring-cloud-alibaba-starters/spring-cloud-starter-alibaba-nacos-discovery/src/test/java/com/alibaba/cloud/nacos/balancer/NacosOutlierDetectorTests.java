@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for {@link NacosOutlierDetector}.
+ */
+public class NacosOutlierDetectorTests {
+
+	private static final long NOW = 1_000_000L;
+
+	private static final long MILLIS = 1_000_000L;
+
+	private NacosOutlierDetector outlierDetector;
+
+	@Before
+	public void setUp() {
+		NacosOutlierDetectionProperties properties = new NacosOutlierDetectionProperties();
+		properties.setMinRequests(4);
+		properties.setEjectionDuration(1000);
+		properties.setRecoveryDuration(1000);
+		outlierDetector = new NacosOutlierDetector(properties);
+	}
+
+	@Test
+	public void testEjectAndRecover() {
+		List<Instance> instances = Arrays.asList(instance("10.0.0.1"),
+				instance("10.0.0.2"));
+		record("10.0.0.2", 4, 10, true);
+		record("10.0.0.1", 3, 10, false);
+
+		assertThat(outlierDetector.getWeightRatios(instances, NOW)).isNull();
+
+		record("10.0.0.1", 1, 10, false);
+
+		assertThat(outlierDetector.getWeightRatios(instances, NOW + 10))
+				.containsExactly(0D, 1D);
+		assertThat(outlierDetector.getWeightRatios(instances, NOW + 1500)[0])
+				.isCloseTo(0.5D, within(1e-9));
+		assertThat(outlierDetector.getWeightRatios(instances, NOW + 2500)).isNull();
+	}
+
+	@Test
+	public void testMaxEjectionPercent() {
+		List<Instance> instances = Arrays.asList(instance("10.0.0.1"),
+				instance("10.0.0.2"));
+		record("10.0.0.1", 4, 10, false);
+		record("10.0.0.2", 4, 10, false);
+
+		assertThat(outlierDetector.getWeightRatios(instances, NOW + 10))
+				.containsExactly(0D, 0.01D);
+	}
+
+	@Test
+	public void testDownWeightSlowInstance() {
+		List<Instance> instances = Arrays.asList(instance("10.0.0.1"),
+				instance("10.0.0.2"), instance("10.0.0.3"));
+		record("10.0.0.1", 4, 10, true);
+		record("10.0.0.2", 4, 10, true);
+		record("10.0.0.3", 4, 100, true);
+
+		double[] ratios = outlierDetector.getWeightRatios(instances, NOW);
+
+		assertThat(ratios[0]).isEqualTo(1D);
+		assertThat(ratios[1]).isEqualTo(1D);
+		assertThat(ratios[2]).isCloseTo(0.1D, within(1e-9));
+	}
+
+	@Test
+	public void testApplyCopiesAdjustedInstances() {
+		Instance slow = instance("10.0.0.3");
+		List<Instance> instances = Arrays.asList(instance("10.0.0.1"),
+				instance("10.0.0.2"), slow, instance("10.0.0.4"));
+		record("10.0.0.1", 4, 10, true);
+		record("10.0.0.2", 4, 10, true);
+		record("10.0.0.3", 4, 100, true);
+		record("10.0.0.4", 4, 10, false);
+
+		List<Instance> result = outlierDetector.apply(instances, NOW);
+
+		assertThat(result).hasSize(3);
+		assertThat(result.get(2).getIp()).isEqualTo("10.0.0.3");
+		assertThat(result.get(2).getWeight()).isCloseTo(0.2D, within(1e-9));
+		assertThat(slow.getWeight()).isEqualTo(2D);
+	}
+
+	@Test
+	public void testInterceptorRecordsServerErrors() throws Exception {
+		NacosOutlierDetectionInterceptor interceptor = new NacosOutlierDetectionInterceptor(
+				outlierDetector);
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+				URI.create("http://10.0.0.1:8080/echo"));
+
+		interceptor.intercept(request, new byte[0],
+				(req, body) -> new MockClientHttpResponse(new byte[0],
+						HttpStatus.SERVICE_UNAVAILABLE));
+
+		assertThat(outlierDetector.getStats().get("10.0.0.1:8080").getErrorRate())
+				.isEqualTo(1D);
+	}
+
+	private void record(String ip, int times, long latencyMillis, boolean success) {
+		for (int i = 0; i < times; i++) {
+			outlierDetector.record(ip, 8080, latencyMillis * MILLIS, success, NOW);
+		}
+	}
+
+	private static Instance instance(String ip) {
+		Instance instance = new Instance();
+		instance.setIp(ip);
+		instance.setPort(8080);
+		instance.setWeight(2D);
+		return instance;
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.balancer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for {@link NacosWarmup}.
+ */
+public class NacosWarmupTests {
+
+	private static final long NOW = 1_000_000L;
+
+	@Test
+	public void testWeightWithoutWarmupMetadata() {
+		assertThat(NacosWarmup.getWeight(2D, Collections.emptyMap(), 1D, NOW))
+				.isEqualTo(2D);
+	}
+
+	@Test
+	public void testLinearWarmup() {
+		Map<String, String> metadata = warmupMetadata(NOW - 2500, 10000);
+
+		assertThat(NacosWarmup.getWeight(2D, metadata, 1D, NOW)).isCloseTo(0.5D,
+				within(1e-9));
+	}
+
+	@Test
+	public void testCurvedWarmup() {
+		Map<String, String> metadata = warmupMetadata(NOW - 5000, 10000);
+
+		assertThat(NacosWarmup.getWeight(1D, metadata, 2D, NOW)).isCloseTo(0.25D,
+				within(1e-9));
+	}
+
+	@Test
+	public void testWarmupFinished() {
+		Map<String, String> metadata = warmupMetadata(NOW - 10000, 10000);
+
+		assertThat(NacosWarmup.getWeight(3D, metadata, 1D, NOW)).isEqualTo(3D);
+	}
+
+	@Test
+	public void testJustStartedKeepsMinimalWeight() {
+		Map<String, String> metadata = warmupMetadata(NOW + 1000, 10000);
+
+		assertThat(NacosWarmup.getWeight(1D, metadata, 1D, NOW)).isEqualTo(0.01D);
+	}
+
+	@Test
+	public void testInvalidMetadataIsIgnored() {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put(NacosWarmup.START_TIMESTAMP, "yesterday");
+		metadata.put(NacosWarmup.DURATION, "10000");
+
+		assertThat(NacosWarmup.getWeight(1D, metadata, 1D, NOW)).isEqualTo(1D);
+	}
+
+	@Test
+	public void testWarmupCopiesOnlyWarmingInstances() {
+		Instance warm = instance(Collections.emptyMap());
+		Instance warming = instance(
+				warmupMetadata(System.currentTimeMillis() - 1000, 60000));
+		List<Instance> instances = Arrays.asList(warm, warming);
+
+		List<Instance> result = NacosWarmup.warmup(instances, 1D);
+
+		assertThat(result.get(0)).isSameAs(warm);
+		assertThat(result.get(1)).isNotSameAs(warming);
+		assertThat(result.get(1).getWeight()).isLessThan(0.1D);
+		assertThat(result.get(1).getIp()).isEqualTo(warming.getIp());
+		assertThat(warming.getWeight()).isEqualTo(1D);
+	}
+
+	@Test
+	public void testWarmupWithoutWarmingInstances() {
+		List<Instance> instances = Collections
+				.singletonList(instance(Collections.emptyMap()));
+
+		assertThat(NacosWarmup.warmup(instances, 1D)).isSameAs(instances);
+	}
+
+	private static Map<String, String> warmupMetadata(long startTimestamp,
+			long duration) {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put(NacosWarmup.START_TIMESTAMP, String.valueOf(startTimestamp));
+		metadata.put(NacosWarmup.DURATION, String.valueOf(duration));
+		return metadata;
+	}
+
+	private static Instance instance(Map<String, String> metadata) {
+		Instance instance = new Instance();
+		instance.setIp("127.0.0.1");
+		instance.setPort(8080);
+		instance.setWeight(1D);
+		instance.setMetadata(metadata);
+		return instance;
+	}
+
+}
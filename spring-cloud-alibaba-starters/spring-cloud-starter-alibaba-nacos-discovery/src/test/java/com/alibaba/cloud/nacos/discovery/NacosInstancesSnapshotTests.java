@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.Test;
+
+import static com.alibaba.cloud.nacos.test.NacosMockTest.serviceInstance;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link NacosInstancesSnapshot}.
+ */
+public class NacosInstancesSnapshotTests {
+
+	@Test
+	public void testDiff() {
+		Instance kept = instance("1.1.1.1", "v1");
+		Instance removed = instance("2.2.2.2", "v1");
+		Instance modified = instance("3.3.3.3", "v1");
+		NacosInstancesSnapshot previous = NacosInstancesSnapshot
+				.of(Arrays.asList(kept, removed, modified));
+
+		Instance added = instance("4.4.4.4", "v1");
+		NacosInstancesSnapshot.Diff diff = NacosInstancesSnapshot.of(Arrays
+				.asList(instance("1.1.1.1", "v1"), instance("3.3.3.3", "v2"), added))
+				.diff(previous);
+
+		assertThat(diff.isEmpty()).isFalse();
+		assertThat(diff.getAdded()).containsExactly(added);
+		assertThat(diff.getRemoved()).containsExactly(removed);
+		assertThat(diff.getModified()).extracting(Instance::getIp)
+				.containsExactly("3.3.3.3");
+	}
+
+	@Test
+	public void testDiffIgnoresOrder() {
+		Map<String, String> metadata = new LinkedHashMap<>();
+		metadata.put("a", "1");
+		metadata.put("b", "2");
+		Map<String, String> reordered = new LinkedHashMap<>();
+		reordered.put("b", "2");
+		reordered.put("a", "1");
+		NacosInstancesSnapshot previous = NacosInstancesSnapshot
+				.of(Arrays.asList(serviceInstance("s", true, "1.1.1.1", 80, metadata),
+						instance("2.2.2.2", "v1")));
+
+		NacosInstancesSnapshot.Diff diff = NacosInstancesSnapshot
+				.of(Arrays.asList(instance("2.2.2.2", "v1"),
+						serviceInstance("s", true, "1.1.1.1", 80, reordered)))
+				.diff(previous);
+
+		assertThat(diff.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void testDiffDetectsStateChanges() {
+		NacosInstancesSnapshot previous = NacosInstancesSnapshot
+				.of(Collections.singletonList(instance("1.1.1.1", "v1")));
+
+		Instance unhealthy = instance("1.1.1.1", "v1");
+		unhealthy.setHealthy(false);
+		Instance weighted = instance("1.1.1.1", "v1");
+		weighted.setWeight(2);
+		Instance swapped = instance("1.1.1.1", "v1");
+		swapped.setMetadata(Collections.singletonMap("v1", "version"));
+
+		for (Instance instance : Arrays.asList(unhealthy, weighted, swapped)) {
+			assertThat(NacosInstancesSnapshot.of(Collections.singletonList(instance))
+					.diff(previous).getModified()).containsExactly(instance);
+		}
+	}
+
+	@Test
+	public void testDiffWithoutPrevious() {
+		Instance instance = instance("1.1.1.1", "v1");
+		NacosInstancesSnapshot.Diff diff = NacosInstancesSnapshot
+				.of(Collections.singletonList(instance)).diff(null);
+
+		assertThat(diff.getAdded()).containsExactly(instance);
+		assertThat(NacosInstancesSnapshot.of(null).diff(null).isEmpty()).isTrue();
+		assertThat(NacosInstancesSnapshot.of(null)
+				.diff(NacosInstancesSnapshot.of(Collections.singletonList(instance)))
+				.getRemoved()).containsExactly(instance);
+	}
+
+	private static Instance instance(String host, String version) {
+		Map<String, String> metadata = new HashMap<>(
+				Collections.singletonMap("version", version));
+		return serviceInstance("s", true, host, 80, metadata);
+	}
+
+}
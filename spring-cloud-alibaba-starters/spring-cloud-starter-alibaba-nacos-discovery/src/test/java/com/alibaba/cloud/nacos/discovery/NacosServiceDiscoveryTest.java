@@ -22,7 +22,9 @@ import java.util.LinkedList;
 import java.util.List;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosInstanceLoader;
 import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
 import com.alibaba.nacos.api.exception.NacosException;
 import com.alibaba.nacos.api.naming.NamingService;
 import com.alibaba.nacos.api.naming.pojo.Instance;
@@ -62,6 +64,10 @@ public class NacosServiceDiscoveryTest {
 		NacosDiscoveryProperties nacosDiscoveryProperties = mock(
 				NacosDiscoveryProperties.class);
 		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NacosDiscoveryMetrics discoveryMetrics = new NacosDiscoveryMetrics();
+		when(nacosServiceManager.getDiscoveryMetrics()).thenReturn(discoveryMetrics);
+		when(nacosServiceManager.getInstanceLoader())
+				.thenReturn(new NacosInstanceLoader(discoveryMetrics));
 
 		NamingService namingService = mock(NamingService.class);
 
@@ -104,6 +110,10 @@ public class NacosServiceDiscoveryTest {
 		NacosDiscoveryProperties nacosDiscoveryProperties = mock(
 				NacosDiscoveryProperties.class);
 		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NacosDiscoveryMetrics discoveryMetrics = new NacosDiscoveryMetrics();
+		when(nacosServiceManager.getDiscoveryMetrics()).thenReturn(discoveryMetrics);
+		when(nacosServiceManager.getInstanceLoader())
+				.thenReturn(new NacosInstanceLoader(discoveryMetrics));
 
 		NamingService namingService = mock(NamingService.class);
 
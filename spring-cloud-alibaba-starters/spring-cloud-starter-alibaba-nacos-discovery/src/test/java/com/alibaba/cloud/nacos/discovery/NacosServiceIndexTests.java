@@ -0,0 +1,183 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosInstanceLoader;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.ListView;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the paged service name index of {@link NacosServiceDiscovery}.
+ */
+public class NacosServiceIndexTests {
+
+	private static final String GROUP = "DEFAULT_GROUP";
+
+	private NacosDiscoveryProperties properties;
+
+	private NamingService namingService;
+
+	private NacosServiceDiscovery serviceDiscovery;
+
+	@Before
+	public void setUp() {
+		properties = mock(NacosDiscoveryProperties.class);
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NacosDiscoveryMetrics discoveryMetrics = new NacosDiscoveryMetrics();
+		when(nacosServiceManager.getDiscoveryMetrics()).thenReturn(discoveryMetrics);
+		when(nacosServiceManager.getInstanceLoader())
+				.thenReturn(new NacosInstanceLoader(discoveryMetrics));
+		namingService = mock(NamingService.class);
+
+		Properties nacosProperties = new Properties();
+		when(properties.getNacosProperties()).thenReturn(nacosProperties);
+		when(nacosServiceManager.getNamingService(nacosProperties))
+				.thenReturn(namingService);
+		when(properties.getGroup()).thenReturn(GROUP);
+		when(properties.getServicePageSize()).thenReturn(2);
+		when(properties.getServiceIndexTtl()).thenReturn(60000L);
+
+		serviceDiscovery = new NacosServiceDiscovery(properties, nacosServiceManager);
+	}
+
+	@Test
+	public void testGetServicesPageByPage() throws Exception {
+		servicesOfServer(1, 5, "a", "b");
+		servicesOfServer(2, 5, "c", "d");
+		servicesOfServer(3, 5, "e");
+
+		List<String> pages = new ArrayList<>();
+		serviceDiscovery.refreshServiceIndex(page -> pages.add(String.join(",", page)));
+
+		assertThat(pages).containsExactly("a,b", "c,d", "e");
+		assertThat(serviceDiscovery.getServices()).containsExactly("a", "b", "c", "d",
+				"e");
+	}
+
+	@Test
+	public void testStopAtTotalCount() throws Exception {
+		servicesOfServer(1, 4, "a", "b");
+		servicesOfServer(2, 4, "c", "d");
+
+		assertThat(serviceDiscovery.getServices()).containsExactly("a", "b", "c", "d");
+		verify(namingService, times(2)).getServicesOfServer(anyInt(), eq(2), eq(GROUP));
+	}
+
+	@Test
+	public void testServeFromIndexWithinTtl() throws Exception {
+		servicesOfServer(1, 1, "a");
+
+		assertThat(serviceDiscovery.getCachedServices()).isNull();
+		assertThat(serviceDiscovery.getServices()).containsExactly("a");
+		assertThat(serviceDiscovery.getServices()).containsExactly("a");
+		assertThat(serviceDiscovery.getCachedServices()).containsExactly("a");
+		verify(namingService, times(1)).getServicesOfServer(1, 2, GROUP);
+	}
+
+	@Test
+	public void testRefreshOnceWhileOthersReadPreviousIndex() throws Exception {
+		when(properties.getServiceIndexTtl()).thenReturn(1L);
+		servicesOfServer(1, 1, "a");
+		assertThat(serviceDiscovery.getServices()).containsExactly("a");
+		Thread.sleep(10);
+
+		CountDownLatch fetching = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ListView<String> view = new ListView<>();
+		view.setCount(2);
+		view.setData(Arrays.asList("a", "b"));
+		when(namingService.getServicesOfServer(1, 2, GROUP)).thenAnswer(invocation -> {
+			fetching.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return view;
+		});
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<List<String>> refreshed = executor
+					.submit(() -> serviceDiscovery.getServices());
+			assertThat(fetching.await(5, TimeUnit.SECONDS)).isTrue();
+
+			assertThat(serviceDiscovery.getServices()).containsExactly("a");
+			release.countDown();
+			assertThat(refreshed.get(5, TimeUnit.SECONDS)).containsExactly("a", "b");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		verify(namingService, times(2)).getServicesOfServer(1, 2, GROUP);
+	}
+
+	@Test
+	public void testRemovedServicesDropOutOfIndex() throws Exception {
+		when(properties.getServiceIndexTtl()).thenReturn(0L);
+		servicesOfServer(1, 2, "a", "b");
+		assertThat(serviceDiscovery.getServices()).containsExactlyInAnyOrder("a", "b");
+
+		servicesOfServer(1, 1, "b");
+		assertThat(serviceDiscovery.getServices()).containsExactly("b");
+		assertThat(serviceDiscovery.getCachedServices()).isNull();
+	}
+
+	@Test
+	public void testServeIndexReloadedByWatch() throws Exception {
+		when(properties.getServiceIndexTtl()).thenReturn(0L);
+		when(properties.getWatchDelay()).thenReturn(60000L);
+		servicesOfServer(1, 1, "a");
+		serviceDiscovery.setServiceIndexWatched(true);
+
+		serviceDiscovery.refreshServiceIndex(page -> {
+		});
+		assertThat(serviceDiscovery.getServices()).containsExactly("a");
+		verify(namingService, times(1)).getServicesOfServer(1, 2, GROUP);
+
+		serviceDiscovery.setServiceIndexWatched(false);
+		assertThat(serviceDiscovery.getServices()).containsExactly("a");
+		verify(namingService, times(2)).getServicesOfServer(1, 2, GROUP);
+	}
+
+	private void servicesOfServer(int pageNo, int count, String... names)
+			throws Exception {
+		ListView<String> view = new ListView<>();
+		view.setCount(count);
+		view.setData(Arrays.asList(names));
+		when(namingService.getServicesOfServer(pageNo, 2, GROUP)).thenReturn(view);
+	}
+
+}
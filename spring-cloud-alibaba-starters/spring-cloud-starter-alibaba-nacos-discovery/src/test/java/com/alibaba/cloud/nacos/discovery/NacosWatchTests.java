@@ -0,0 +1,242 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosInstanceLoader;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.event.NacosServiceInstancesChangedEvent;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.alibaba.nacos.api.naming.pojo.ListView;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static com.alibaba.cloud.nacos.test.NacosMockTest.serviceInstance;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosWatch}.
+ */
+public class NacosWatchTests {
+
+	private static final String SERVICE = "test-service";
+
+	private static final String GROUP = "DEFAULT_GROUP";
+
+	private NacosDiscoveryProperties properties;
+
+	private NamingService namingService;
+
+	private NacosServiceDiscovery serviceDiscovery;
+
+	private ApplicationEventPublisher publisher;
+
+	private NacosWatch nacosWatch;
+
+	@Before
+	public void setUp() throws Exception {
+		properties = mock(NacosDiscoveryProperties.class);
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		NacosDiscoveryMetrics discoveryMetrics = new NacosDiscoveryMetrics();
+		when(nacosServiceManager.getDiscoveryMetrics()).thenReturn(discoveryMetrics);
+		when(nacosServiceManager.getInstanceLoader())
+				.thenReturn(new NacosInstanceLoader(discoveryMetrics));
+		namingService = mock(NamingService.class);
+		publisher = mock(ApplicationEventPublisher.class);
+
+		Properties nacosProperties = new Properties();
+		when(properties.getNacosProperties()).thenReturn(nacosProperties);
+		when(nacosServiceManager.getNamingService(nacosProperties))
+				.thenReturn(namingService);
+		when(properties.getService()).thenReturn("self");
+		when(properties.getGroup()).thenReturn(GROUP);
+		when(properties.getClusterName()).thenReturn("DEFAULT");
+		when(properties.getWatchDelay()).thenReturn(60000L);
+		when(properties.getWatchDebounce()).thenReturn(50L);
+
+		List<Instance> instances = instances("1.1.1.1");
+		when(namingService.selectInstances(eq(SERVICE), eq(GROUP), eq(true)))
+				.thenReturn(instances);
+		when(namingService.getAllInstances(eq(SERVICE), eq(GROUP))).thenReturn(instances);
+
+		serviceDiscovery = new NacosServiceDiscovery(properties, nacosServiceManager);
+		nacosWatch = new NacosWatch(nacosServiceManager, properties, serviceDiscovery);
+		nacosWatch.setApplicationEventPublisher(publisher);
+	}
+
+	@Test
+	public void testPublishOnlyWhenInstancesChanged() throws Exception {
+		nacosWatch.start();
+		serviceDiscovery.getInstances(SERVICE);
+
+		ArgumentCaptor<EventListener> listener = ArgumentCaptor
+				.forClass(EventListener.class);
+		verify(namingService).subscribe(eq(SERVICE), eq(GROUP), listener.capture());
+
+		// the service names of the first watch are published on start
+		Thread.sleep(200);
+		verify(publisher, times(1)).publishEvent(any(HeartbeatEvent.class));
+
+		listener.getValue().onEvent(namingEvent(instances("1.1.1.1")));
+		Thread.sleep(200);
+		verify(publisher, times(1)).publishEvent(any(HeartbeatEvent.class));
+		assertThat(nacosWatch.getServiceVersion(SERVICE)).isEqualTo(0);
+
+		listener.getValue().onEvent(namingEvent(instances("1.1.1.1", "2.2.2.2")));
+		listener.getValue().onEvent(namingEvent(instances("2.2.2.2")));
+		Thread.sleep(200);
+		verify(publisher, times(2)).publishEvent(any(HeartbeatEvent.class));
+		assertThat(nacosWatch.getServiceVersion(SERVICE)).isEqualTo(2);
+
+		ArgumentCaptor<ApplicationEvent> events = ArgumentCaptor
+				.forClass(ApplicationEvent.class);
+		verify(publisher, times(4)).publishEvent(events.capture());
+		List<NacosServiceInstancesChangedEvent> changes = events.getAllValues().stream()
+				.filter(NacosServiceInstancesChangedEvent.class::isInstance)
+				.map(NacosServiceInstancesChangedEvent.class::cast)
+				.collect(Collectors.toList());
+		assertThat(changes).hasSize(2);
+		NacosServiceInstancesChangedEvent first = changes.get(0);
+		assertThat(first.getServiceId()).isEqualTo(SERVICE);
+		assertThat(first.getVersion()).isEqualTo(1);
+		assertThat(first.getAdded()).extracting(Instance::getIp)
+				.containsExactly("2.2.2.2");
+		assertThat(first.getRemoved()).isEmpty();
+		NacosServiceInstancesChangedEvent second = changes.get(1);
+		assertThat(second.getAdded()).isEmpty();
+		assertThat(second.getRemoved()).extracting(Instance::getIp)
+				.containsExactly("1.1.1.1");
+		assertThat(second.getInstances()).hasSize(1);
+
+		nacosWatch.stop();
+		verify(namingService).unsubscribe(eq(SERVICE), eq(GROUP),
+				eq(listener.getValue()));
+	}
+
+	@Test
+	public void testPublishOnlyWhenServiceNamesChanged() throws Exception {
+		when(properties.getWatchDelay()).thenReturn(20L);
+		when(namingService.getServicesOfServer(anyInt(), anyInt(), eq(GROUP)))
+				.thenReturn(services("a", "b"));
+		nacosWatch.start();
+		Thread.sleep(200);
+		verify(namingService, atLeast(3)).getServicesOfServer(anyInt(), anyInt(),
+				eq(GROUP));
+		verify(publisher, times(1)).publishEvent(any(HeartbeatEvent.class));
+
+		when(namingService.getServicesOfServer(anyInt(), anyInt(), eq(GROUP)))
+				.thenReturn(services("b", "a"));
+		Thread.sleep(200);
+		verify(publisher, times(1)).publishEvent(any(HeartbeatEvent.class));
+
+		when(namingService.getServicesOfServer(anyInt(), anyInt(), eq(GROUP)))
+				.thenReturn(services("a", "b", "c"));
+		Thread.sleep(200);
+		nacosWatch.stop();
+
+		ArgumentCaptor<HeartbeatEvent> events = ArgumentCaptor
+				.forClass(HeartbeatEvent.class);
+		verify(publisher, times(2)).publishEvent(events.capture());
+		assertThat(events.getAllValues()).extracting(HeartbeatEvent::getValue)
+				.doesNotHaveDuplicates();
+	}
+
+	@Test
+	public void testKeepServiceNamesWhenFetchFailed() throws Exception {
+		when(properties.getWatchDelay()).thenReturn(20L);
+		when(namingService.getServicesOfServer(anyInt(), anyInt(), eq(GROUP)))
+				.thenReturn(services("a"));
+		nacosWatch.start();
+		Thread.sleep(200);
+
+		when(namingService.getServicesOfServer(anyInt(), anyInt(), eq(GROUP)))
+				.thenThrow(new NacosException(NacosException.SERVER_ERROR, "down"));
+		Thread.sleep(200);
+		when(namingService.getServicesOfServer(anyInt(), anyInt(), eq(GROUP)))
+				.thenReturn(services("a"));
+		Thread.sleep(200);
+		nacosWatch.stop();
+
+		verify(publisher, times(1)).publishEvent(any(HeartbeatEvent.class));
+	}
+
+	@Test
+	public void testWatchServicesLookedUpBeforeStart() throws Exception {
+		serviceDiscovery.getInstances(SERVICE);
+		nacosWatch.start();
+
+		verify(namingService).subscribe(eq("self"), eq(GROUP), anyList(),
+				any(EventListener.class));
+		verify(namingService).subscribe(eq(SERVICE), eq(GROUP), any(EventListener.class));
+
+		serviceDiscovery.getInstances(SERVICE);
+		verify(namingService, times(1)).subscribe(anyString(), anyString(),
+				any(EventListener.class));
+		nacosWatch.stop();
+	}
+
+	private NamingEvent namingEvent(List<Instance> instances) {
+		return new NamingEvent(SERVICE, GROUP, "", instances);
+	}
+
+	private ListView<String> services(String... names) {
+		ListView<String> services = new ListView<>();
+		services.setData(Arrays.asList(names));
+		services.setCount(names.length);
+		return services;
+	}
+
+	private List<Instance> instances(String... hosts) {
+		List<Instance> instances = new ArrayList<>();
+		for (String host : hosts) {
+			Map<String, String> metadata = new HashMap<>(
+					Collections.singletonMap("k", "v"));
+			instances.add(serviceInstance(SERVICE, true, host, 8080, metadata));
+		}
+		return instances;
+	}
+
+}
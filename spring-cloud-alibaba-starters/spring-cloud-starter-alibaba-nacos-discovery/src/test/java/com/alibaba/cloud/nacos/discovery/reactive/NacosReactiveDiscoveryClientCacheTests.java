@@ -0,0 +1,180 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.discovery.reactive;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosInstanceLoader;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.discovery.NacosInstanceCache;
+import com.alibaba.cloud.nacos.discovery.NacosServiceDiscovery;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import static com.alibaba.cloud.nacos.test.NacosMockTest.serviceInstance;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosReactiveDiscoveryClient} backed by {@link NacosInstanceCache}.
+ */
+public class NacosReactiveDiscoveryClientCacheTests {
+
+	private static final String SERVICE = "reactive-service";
+
+	private static final String GROUP = "DEFAULT_GROUP";
+
+	private NacosServiceManager nacosServiceManager;
+
+	private Properties nacosProperties;
+
+	private NamingService namingService;
+
+	private NacosInstanceCache instanceCache;
+
+	private NacosReactiveDiscoveryClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		NacosDiscoveryProperties properties = mock(NacosDiscoveryProperties.class);
+		nacosServiceManager = mock(NacosServiceManager.class);
+		NacosDiscoveryMetrics discoveryMetrics = new NacosDiscoveryMetrics();
+		when(nacosServiceManager.getDiscoveryMetrics()).thenReturn(discoveryMetrics);
+		when(nacosServiceManager.getInstanceLoader())
+				.thenReturn(new NacosInstanceLoader(discoveryMetrics));
+		namingService = mock(NamingService.class);
+
+		nacosProperties = new Properties();
+		when(properties.getNacosProperties()).thenReturn(nacosProperties);
+		when(properties.getGroup()).thenReturn(GROUP);
+		when(nacosServiceManager.getNamingService(nacosProperties))
+				.thenReturn(namingService);
+		when(namingService.selectInstances(eq(SERVICE), eq(GROUP), eq(true)))
+				.thenReturn(instances("1.1.1.1"));
+
+		instanceCache = new NacosInstanceCache(properties, nacosServiceManager);
+		client = new NacosReactiveDiscoveryClient(
+				new NacosServiceDiscovery(properties, nacosServiceManager),
+				instanceCache);
+	}
+
+	@Test
+	public void testServeFromCacheAfterFirstLookup() throws Exception {
+		StepVerifier.create(client.getInstances(SERVICE))
+				.expectNextMatches(instance -> "1.1.1.1".equals(instance.getHost()))
+				.verifyComplete();
+
+		String caller = Thread.currentThread().getName();
+		List<String> threads = new ArrayList<>();
+		Flux<ServiceInstance> cached = client.getInstances(SERVICE)
+				.doOnNext(instance -> threads.add(Thread.currentThread().getName()));
+		StepVerifier.create(cached).expectNextCount(1).verifyComplete();
+
+		assertThat(threads).containsExactly(caller);
+		verify(namingService, times(1)).selectInstances(eq(SERVICE), eq(GROUP), eq(true));
+	}
+
+	@Test
+	public void testPushedInstancesReplaceCache() throws Exception {
+		client.getInstances(SERVICE).blockLast();
+
+		ArgumentCaptor<EventListener> listener = ArgumentCaptor
+				.forClass(EventListener.class);
+		verify(namingService).subscribe(eq(SERVICE), eq(GROUP), listener.capture());
+
+		List<Instance> pushed = instances("2.2.2.2", "3.3.3.3");
+		pushed.get(1).setHealthy(false);
+		listener.getValue().onEvent(new NamingEvent(SERVICE, GROUP, "", pushed));
+
+		StepVerifier.create(client.getInstances(SERVICE))
+				.expectNextMatches(instance -> "2.2.2.2".equals(instance.getHost()))
+				.verifyComplete();
+		assertThat(instanceCache.getIfPresent(SERVICE)).hasSize(1);
+	}
+
+	@Test
+	public void testCatchUpWithPushBeforeFirstLookupCompleted() throws Exception {
+		NacosInstanceCache pushedCache = mock(NacosInstanceCache.class);
+		when(pushedCache.getInstances(SERVICE)).thenReturn(instances("1.1.1.1"));
+		// the push has updated the cache while the first lookup was completing
+		when(pushedCache.getIfPresent(SERVICE)).thenReturn(instances("2.2.2.2"));
+		NacosReactiveDiscoveryClient pushedClient = new NacosReactiveDiscoveryClient(
+				mock(NacosServiceDiscovery.class), pushedCache);
+
+		StepVerifier.create(pushedClient.getInstances(SERVICE))
+				.expectNextMatches(instance -> "2.2.2.2".equals(instance.getHost()))
+				.verifyComplete();
+		StepVerifier.create(pushedClient.getInstances(SERVICE))
+				.expectNextMatches(instance -> "2.2.2.2".equals(instance.getHost()))
+				.verifyComplete();
+	}
+
+	@Test
+	public void testSubscribeAgainAfterNamingServiceShutDown() throws Exception {
+		client.getInstances(SERVICE).blockLast();
+		ArgumentCaptor<Consumer<NamingService>> shutDownListener = ArgumentCaptor
+				.forClass(Consumer.class);
+		verify(nacosServiceManager)
+				.addNamingServiceShutDownListener(shutDownListener.capture());
+
+		NamingService newNamingService = mock(NamingService.class);
+		when(newNamingService.selectInstances(eq(SERVICE), eq(GROUP), eq(true)))
+				.thenReturn(instances("2.2.2.2"));
+		when(nacosServiceManager.getNamingService(nacosProperties))
+				.thenReturn(newNamingService);
+		shutDownListener.getValue().accept(namingService);
+		assertThat(instanceCache.getIfPresent(SERVICE)).isNull();
+
+		StepVerifier.create(client.getInstances(SERVICE))
+				.expectNextMatches(instance -> "2.2.2.2".equals(instance.getHost()))
+				.verifyComplete();
+		verify(newNamingService).subscribe(eq(SERVICE), eq(GROUP),
+				any(EventListener.class));
+		assertThat(instanceCache.getIfPresent(SERVICE)).extracting(Instance::getIp)
+				.containsExactly("2.2.2.2");
+	}
+
+	private List<Instance> instances(String... hosts) {
+		List<Instance> instances = new ArrayList<>();
+		for (String host : hosts) {
+			instances.add(
+					serviceInstance(SERVICE, true, host, 8080, Collections.emptyMap()));
+		}
+		return instances;
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.endpoint;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.discovery.actuate.health.NacosDiscoveryHealthIndicator;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.alibaba.nacos.api.naming.pojo.ServiceInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the local reads and bounded verification of {@link NacosDiscoveryEndpoint}
+ * and {@link NacosDiscoveryHealthIndicator}.
+ */
+public class NacosDiscoveryEndpointTests {
+
+	private static final String GROUP = "DEFAULT_GROUP";
+
+	private NacosDiscoveryProperties properties;
+
+	private NamingService namingService;
+
+	private NacosDiscoveryMetrics discoveryMetrics;
+
+	private NacosDiscoveryEndpoint endpoint;
+
+	@Before
+	public void setUp() throws Exception {
+		properties = mock(NacosDiscoveryProperties.class);
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		discoveryMetrics = new NacosDiscoveryMetrics();
+		when(nacosServiceManager.getDiscoveryMetrics()).thenReturn(discoveryMetrics);
+		namingService = mock(NamingService.class);
+
+		Properties nacosProperties = new Properties();
+		when(properties.getNacosProperties()).thenReturn(nacosProperties);
+		when(nacosServiceManager.getNamingService(nacosProperties))
+				.thenReturn(namingService);
+		when(properties.getEndpointVerifyTimeout()).thenReturn(1000L);
+
+		ServiceInfo serviceInfo = new ServiceInfo("service-a", "cluster-a");
+		serviceInfo.setGroupName(GROUP);
+		when(namingService.getSubscribeServices())
+				.thenReturn(Collections.singletonList(serviceInfo));
+		when(namingService.getAllInstances("service-a", GROUP,
+				Collections.singletonList("cluster-a"), true))
+						.thenReturn(Arrays.asList(new Instance(), new Instance()));
+
+		endpoint = new NacosDiscoveryEndpoint(nacosServiceManager, properties);
+	}
+
+	@After
+	public void tearDown() {
+		endpoint.destroy();
+	}
+
+	@Test
+	public void testReadFromLocalCache() throws Exception {
+		discoveryMetrics.recordInstanceCount("service-a", 2);
+
+		Map<String, Object> result = endpoint.nacosDiscovery();
+
+		List<ServiceInfo> subscribe = (List<ServiceInfo>) result.get("subscribe");
+		assertThat(subscribe).hasSize(1);
+		assertThat(subscribe.get(0).getHosts()).hasSize(2);
+		Map<String, Object> cacheAges = (Map<String, Object>) result.get("cacheAges");
+		assertThat((Long) cacheAges.get(subscribe.get(0).getKey())).isBetween(0L, 60000L);
+		assertThat(result).doesNotContainKey("verify");
+		verify(namingService, never()).getAllInstances(anyString(), anyString(),
+				anyList(), eq(false));
+	}
+
+	@Test
+	public void testVerifyWithServer() throws Exception {
+		when(namingService.getAllInstances("service-a", GROUP,
+				Collections.singletonList("cluster-a"), false))
+						.thenReturn(Collections.singletonList(new Instance()));
+
+		Map<String, Object> verification = (Map<String, Object>) endpoint
+				.nacosDiscovery(true).get("verify");
+
+		assertThat(verification.get("completed")).isEqualTo(true);
+		Map<String, Map<String, Object>> services = (Map<String, Map<String, Object>>) verification
+				.get("services");
+		Map<String, Object> service = services.values().iterator().next();
+		assertThat(service.get("status")).isEqualTo("INCONSISTENT");
+		assertThat(service.get("localInstances")).isEqualTo(2);
+		assertThat(service.get("remoteInstances")).isEqualTo(1);
+	}
+
+	@Test
+	public void testVerifyIsBoundedAndShared() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(properties.getEndpointVerifyTimeout()).thenReturn(50L);
+		when(namingService.getAllInstances(anyString(), anyString(), anyList(),
+				eq(false))).thenAnswer(invocation -> {
+					release.await(5, TimeUnit.SECONDS);
+					return Collections.emptyList();
+				});
+
+		for (int i = 0; i < 2; i++) {
+			Map<String, Object> verification = (Map<String, Object>) endpoint
+					.nacosDiscovery(true).get("verify");
+			assertThat(verification.get("completed")).isEqualTo(false);
+			Map<String, Map<String, Object>> services = (Map<String, Map<String, Object>>) verification
+					.get("services");
+			assertThat(services.values().iterator().next().get("status"))
+					.isEqualTo("PENDING");
+		}
+		release.countDown();
+
+		verify(namingService, times(1)).getAllInstances(anyString(), anyString(),
+				anyList(), eq(false));
+	}
+
+	@Test
+	public void testHealthReusesServerStatus() throws Exception {
+		when(namingService.getServerStatus()).thenReturn("UP");
+		discoveryMetrics.recordInstanceCount("service-a", 2);
+		NacosDiscoveryHealthIndicator healthIndicator = new NacosDiscoveryHealthIndicator(
+				namingService, discoveryMetrics, 60000);
+
+		Health health = healthIndicator.health();
+		healthIndicator.health();
+
+		assertThat(health.getStatus()).isEqualTo(Status.UP);
+		assertThat(health.getDetails().get("subscribedServices")).isEqualTo(1);
+		assertThat((Long) health.getDetails().get("oldestCacheAge")).isBetween(0L,
+				60000L);
+		verify(namingService, times(1)).getServerStatus();
+	}
+
+}
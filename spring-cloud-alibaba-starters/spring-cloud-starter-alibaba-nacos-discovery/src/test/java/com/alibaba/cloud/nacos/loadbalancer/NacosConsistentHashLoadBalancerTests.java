@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceInstanceMetadata;
+import com.alibaba.cloud.nacos.balancer.NacosConsistentHashProperties;
+import com.alibaba.cloud.nacos.balancer.NacosHashKey;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosConsistentHashLoadBalancer}.
+ */
+public class NacosConsistentHashLoadBalancerTests {
+
+	private static final String SERVICE = "test-service";
+
+	private NacosConsistentHashLoadBalancer loadBalancer;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(supplier.get()).thenReturn(Flux.just(
+				Arrays.asList(serviceInstance("1.1.1.1"), serviceInstance("2.2.2.2"),
+						serviceInstance("3.3.3.3"), serviceInstance("4.4.4.4"))));
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		loadBalancer = new NacosConsistentHashLoadBalancer(provider, SERVICE,
+				new NacosDiscoveryProperties(), new NacosConsistentHashProperties());
+	}
+
+	@Test
+	public void testSameContextKeySameInstance() {
+		for (int i = 0; i < 20; i++) {
+			String key = "key-" + i;
+			ServiceInstance first = chooseWithContextKey(key);
+			for (int j = 0; j < 5; j++) {
+				assertThat(chooseWithContextKey(key)).isSameAs(first);
+			}
+		}
+	}
+
+	@Test
+	public void testThreadKeyMatchesContextKey() {
+		String previous = NacosHashKey.set("user-42");
+		try {
+			ServiceInstance chosen = loadBalancer.choose(null).block().getServer();
+			assertThat(chosen).isSameAs(chooseWithContextKey("user-42"));
+		}
+		finally {
+			NacosHashKey.set(previous);
+		}
+	}
+
+	private ServiceInstance chooseWithContextKey(String key) {
+		return loadBalancer.choose(null)
+				.subscriberContext(context -> context.put(NacosHashKey.CONTEXT_KEY, key))
+				.block().getServer();
+	}
+
+	private static ServiceInstance serviceInstance(String host) {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put(NacosServiceInstanceMetadata.WEIGHT, "1.0");
+		metadata.put(NacosServiceInstanceMetadata.HEALTHY, "true");
+		return new DefaultServiceInstance(host + ":8080", SERVICE, host, 8080, false,
+				metadata);
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.loadbalancer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceInstanceMetadata;
+import com.alibaba.cloud.nacos.balancer.NacosWarmup;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.reactive.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosLoadBalancer}.
+ */
+public class NacosLoadBalancerTests {
+
+	private static final String SERVICE = "test-service";
+
+	private NacosDiscoveryProperties properties;
+
+	private ServiceInstanceListSupplier supplier;
+
+	private NacosLoadBalancer loadBalancer;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		properties = new NacosDiscoveryProperties();
+		properties.setClusterName("DEFAULT");
+		supplier = mock(ServiceInstanceListSupplier.class);
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		loadBalancer = new NacosLoadBalancer(provider, SERVICE, properties);
+	}
+
+	@Test
+	public void testPreferSameCluster() {
+		ServiceInstance same = serviceInstance("1.1.1.1", "DEFAULT", 1D);
+		ServiceInstance other = serviceInstance("2.2.2.2", "OTHER", 100D);
+		supplier(same, other);
+
+		for (int i = 0; i < 20; i++) {
+			assertThat(choose().getServer()).isSameAs(same);
+		}
+	}
+
+	@Test
+	public void testCrossClusterWhenNoneInSameCluster() {
+		ServiceInstance other = serviceInstance("2.2.2.2", "OTHER", 1D);
+		supplier(other);
+
+		assertThat(choose().getServer()).isSameAs(other);
+	}
+
+	@Test
+	public void testNoInstance() {
+		supplier();
+
+		assertThat(choose().hasServer()).isFalse();
+	}
+
+	@Test
+	public void testWarmingInstanceIsChosenLess() {
+		ServiceInstance warm = serviceInstance("1.1.1.1", "DEFAULT", 1D);
+		ServiceInstance warming = serviceInstance("2.2.2.2", "DEFAULT", 1D);
+		warming.getMetadata().put(NacosWarmup.START_TIMESTAMP,
+				String.valueOf(System.currentTimeMillis()));
+		warming.getMetadata().put(NacosWarmup.DURATION, "600000");
+		supplier(warm, warming);
+
+		int warmingChosen = 0;
+		for (int i = 0; i < 1000; i++) {
+			if (choose().getServer() == warming) {
+				warmingChosen++;
+			}
+		}
+		assertThat(warmingChosen).isLessThan(100);
+	}
+
+	private Response<ServiceInstance> choose() {
+		return loadBalancer.choose(null).block();
+	}
+
+	private void supplier(ServiceInstance... serviceInstances) {
+		List<ServiceInstance> instances = Arrays.asList(serviceInstances);
+		when(supplier.get()).thenReturn(Flux.just(instances));
+	}
+
+	private static ServiceInstance serviceInstance(String host, String cluster,
+			double weight) {
+		Map<String, String> metadata = new HashMap<>();
+		metadata.put(NacosServiceInstanceMetadata.CLUSTER, cluster);
+		metadata.put(NacosServiceInstanceMetadata.WEIGHT, String.valueOf(weight));
+		metadata.put(NacosServiceInstanceMetadata.HEALTHY, "true");
+		return new DefaultServiceInstance(host + ":8080", SERVICE, host, 8080, false,
+				metadata);
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link NacosDiscoveryMeterBinder}.
+ */
+public class NacosDiscoveryMeterBinderTests {
+
+	private NacosDiscoveryMetrics metrics;
+
+	private SimpleMeterRegistry registry;
+
+	@Before
+	public void setUp() {
+		metrics = new NacosDiscoveryMetrics();
+		registry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	public void testServiceMetersOfKnownAndNewServices() {
+		metrics.recordLookup("known", TimeUnit.MILLISECONDS.toNanos(4));
+		new NacosDiscoveryMeterBinder(metrics).bindTo(registry);
+		metrics.recordLookup("known", TimeUnit.MILLISECONDS.toNanos(2));
+		metrics.recordInstanceCount("new", 3);
+		metrics.recordPushEvent("new");
+		metrics.recordCrossClusterSelection("new");
+
+		FunctionTimer lookup = registry.get("nacos.discovery.lookup")
+				.tag("service", "known").functionTimer();
+		assertThat(lookup.count()).isEqualTo(2D);
+		assertThat(lookup.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(6D);
+		assertThat(registry.get("nacos.discovery.instances").tag("service", "new").gauge()
+				.value()).isEqualTo(3D);
+		assertThat(registry.get("nacos.discovery.instances").tag("service", "known")
+				.gauge().value()).isNaN();
+		assertThat(registry.get("nacos.discovery.push.events").tag("service", "new")
+				.functionCounter().count()).isEqualTo(1D);
+		assertThat(registry.get("nacos.discovery.cross.cluster.selections")
+				.tag("service", "new").functionCounter().count()).isEqualTo(1D);
+	}
+
+	@Test
+	public void testCacheAndRegistrationMeters() {
+		new NacosDiscoveryMeterBinder(metrics).bindTo(registry);
+		metrics.recordCacheHit(NacosDiscoveryMetrics.INSTANCE_CACHE);
+		metrics.recordCacheHit(NacosDiscoveryMetrics.INSTANCE_CACHE);
+		metrics.recordCacheMiss(NacosDiscoveryMetrics.SERVICE_INDEX);
+		metrics.recordRegistration(TimeUnit.MILLISECONDS.toNanos(10), true);
+		metrics.recordRegistration(TimeUnit.MILLISECONDS.toNanos(30), false);
+
+		FunctionCounter instanceHits = registry.get("nacos.discovery.cache")
+				.tags("cache", "instances", "result", "hit").functionCounter();
+		assertThat(instanceHits.count()).isEqualTo(2D);
+		FunctionCounter serviceMisses = registry.get("nacos.discovery.cache")
+				.tags("cache", "services", "result", "miss").functionCounter();
+		assertThat(serviceMisses.count()).isEqualTo(1D);
+		FunctionTimer registration = registry.get("nacos.discovery.registration")
+				.functionTimer();
+		assertThat(registration.count()).isEqualTo(2D);
+		assertThat(registration.mean(TimeUnit.MILLISECONDS)).isEqualTo(20D);
+		assertThat(registry.get("nacos.discovery.registration.failures").functionCounter()
+				.count()).isEqualTo(1D);
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.balancer.NacosWarmup;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
+import com.alibaba.nacos.api.naming.NamingMaintainService;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.cloud.client.serviceregistry.AutoServiceRegistrationProperties;
+import org.springframework.context.support.StaticApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the readiness gated registration of {@link NacosAutoServiceRegistration}.
+ */
+public class NacosAutoServiceRegistrationReadinessTests {
+
+	private static final String SERVICE = "test-service";
+
+	private static final String GROUP = "DEFAULT_GROUP";
+
+	private NacosDiscoveryProperties properties;
+
+	private NamingService namingService;
+
+	private NamingMaintainService namingMaintainService;
+
+	private NacosRegistrationManager registrationManager;
+
+	private StaticApplicationContext context;
+
+	private final AtomicInteger warmups = new AtomicInteger();
+
+	@Before
+	public void setUp() {
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		when(nacosServiceManager.getDiscoveryMetrics())
+				.thenReturn(new NacosDiscoveryMetrics());
+		namingService = mock(NamingService.class);
+		namingMaintainService = mock(NamingMaintainService.class);
+		when(nacosServiceManager.getNamingService(any(Properties.class)))
+				.thenReturn(namingService);
+		when(nacosServiceManager.getNamingMaintainService(any(Properties.class)))
+				.thenReturn(namingMaintainService);
+
+		properties = spy(new NacosDiscoveryProperties());
+		doReturn(new Properties()).when(properties).getNacosProperties();
+		properties.setService(SERVICE);
+		properties.setIp("1.1.1.1");
+		properties.setPort(8080);
+		properties.setRegisterWhenReady(true);
+
+		registrationManager = new NacosRegistrationManager(nacosServiceManager,
+				properties);
+		context = new StaticApplicationContext();
+		context.refresh();
+	}
+
+	@After
+	public void tearDown() {
+		registrationManager.destroy();
+		context.close();
+	}
+
+	@Test
+	public void testRegisterWhenReady() throws Exception {
+		NacosAutoServiceRegistration autoServiceRegistration = autoServiceRegistration();
+		autoServiceRegistration.start();
+		verify(namingService, never()).registerInstance(any(), any(),
+				any(Instance.class));
+
+		autoServiceRegistration.onReadinessStateChanged(readiness());
+		autoServiceRegistration.onReadinessStateChanged(readiness());
+
+		assertThat(warmups.get()).isEqualTo(1);
+		ArgumentCaptor<Instance> instance = ArgumentCaptor.forClass(Instance.class);
+		verify(namingService, times(1)).registerInstance(eq(SERVICE), eq(GROUP),
+				instance.capture());
+		assertThat(instance.getValue().isEnabled()).isTrue();
+	}
+
+	@Test
+	public void testRegisterDisabledUntilReady() throws Exception {
+		properties.setRegisterDisabledUntilReady(true);
+		NacosAutoServiceRegistration autoServiceRegistration = autoServiceRegistration();
+		autoServiceRegistration.start();
+
+		ArgumentCaptor<Instance> registered = ArgumentCaptor.forClass(Instance.class);
+		verify(namingService).registerInstance(eq(SERVICE), eq(GROUP),
+				registered.capture());
+		assertThat(registered.getValue().isEnabled()).isFalse();
+		assertThat(warmups.get()).isEqualTo(0);
+
+		autoServiceRegistration.onReadinessStateChanged(readiness());
+
+		assertThat(warmups.get()).isEqualTo(1);
+		ArgumentCaptor<Instance> updated = ArgumentCaptor.forClass(Instance.class);
+		verify(namingMaintainService).updateInstance(eq(SERVICE), eq(GROUP),
+				updated.capture());
+		assertThat(updated.getValue().isEnabled()).isTrue();
+		verify(namingService, times(1)).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+	}
+
+	@Test
+	public void testWarmupHookTimeout() throws Exception {
+		properties.setWarmupHookTimeout(50);
+		NacosAutoServiceRegistration autoServiceRegistration = autoServiceRegistration();
+		autoServiceRegistration.setWarmupHooks(
+				Collections.singletonList(registration -> Thread.sleep(5000)));
+		autoServiceRegistration.start();
+
+		long start = System.currentTimeMillis();
+		autoServiceRegistration.onReadinessStateChanged(readiness());
+
+		assertThat(System.currentTimeMillis() - start).isLessThan(4000);
+		verify(namingService).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+	}
+
+	@Test
+	public void testRegisterImmediatelyByDefault() throws Exception {
+		properties.setRegisterWhenReady(false);
+		NacosAutoServiceRegistration autoServiceRegistration = autoServiceRegistration();
+		autoServiceRegistration.start();
+		verify(namingService).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+
+		autoServiceRegistration.onReadinessStateChanged(readiness());
+		assertThat(warmups.get()).isEqualTo(0);
+		verify(namingService, times(1)).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+	}
+
+	@Test
+	public void testWarmupStartsWhenRegistered() throws Exception {
+		properties.setRegisterWhenReady(false);
+		properties.setWarmupDuration(60000);
+		NacosAutoServiceRegistration autoServiceRegistration = autoServiceRegistration();
+		autoServiceRegistration.getRegistration().init();
+		assertThat(properties.getMetadata()).containsEntry(NacosWarmup.DURATION, "60000")
+				.doesNotContainKey(NacosWarmup.START_TIMESTAMP);
+
+		long start = System.currentTimeMillis();
+		autoServiceRegistration.start();
+
+		ArgumentCaptor<Instance> registered = ArgumentCaptor.forClass(Instance.class);
+		verify(namingService).registerInstance(eq(SERVICE), eq(GROUP),
+				registered.capture());
+		assertThat(Long.parseLong(
+				registered.getValue().getMetadata().get(NacosWarmup.START_TIMESTAMP)))
+						.isGreaterThanOrEqualTo(start);
+	}
+
+	private NacosAutoServiceRegistration autoServiceRegistration() {
+		NacosServiceRegistry serviceRegistry = new NacosServiceRegistry(properties,
+				registrationManager);
+		NacosRegistration registration = new NacosRegistration(null, properties, context);
+		NacosAutoServiceRegistration autoServiceRegistration = new NacosAutoServiceRegistration(
+				serviceRegistry, new AutoServiceRegistrationProperties(), registration);
+		autoServiceRegistration.setApplicationContext(context);
+		autoServiceRegistration.setWarmupHooks(Collections
+				.singletonList(nacosRegistration -> warmups.incrementAndGet()));
+		return autoServiceRegistration;
+	}
+
+	private AvailabilityChangeEvent<ReadinessState> readiness() {
+		return new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC);
+	}
+
+}
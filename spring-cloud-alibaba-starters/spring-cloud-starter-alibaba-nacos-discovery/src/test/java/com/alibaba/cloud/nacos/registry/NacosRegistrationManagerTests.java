@@ -0,0 +1,307 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingMaintainService;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import org.springframework.cloud.client.serviceregistry.Registration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosRegistrationManager}.
+ */
+public class NacosRegistrationManagerTests {
+
+	private static final String SERVICE = "test-service";
+
+	private static final String GROUP = "DEFAULT_GROUP";
+
+	private NacosDiscoveryProperties properties;
+
+	private NamingService namingService;
+
+	private NamingMaintainService namingMaintainService;
+
+	private NacosRegistrationManager registrationManager;
+
+	private Map<String, String> metadata;
+
+	private Registration registration;
+
+	private NacosDiscoveryMetrics discoveryMetrics;
+
+	@Before
+	public void setUp() {
+		properties = mock(NacosDiscoveryProperties.class);
+		NacosServiceManager nacosServiceManager = mock(NacosServiceManager.class);
+		discoveryMetrics = new NacosDiscoveryMetrics();
+		when(nacosServiceManager.getDiscoveryMetrics()).thenReturn(discoveryMetrics);
+		namingService = mock(NamingService.class);
+		namingMaintainService = mock(NamingMaintainService.class);
+
+		Properties nacosProperties = new Properties();
+		when(properties.getNacosProperties()).thenReturn(nacosProperties);
+		when(nacosServiceManager.getNamingService(nacosProperties))
+				.thenReturn(namingService);
+		when(nacosServiceManager.getNamingMaintainService(nacosProperties))
+				.thenReturn(namingMaintainService);
+		when(properties.getGroup()).thenReturn(GROUP);
+		when(properties.getClusterName()).thenReturn("DEFAULT");
+		when(properties.getWeight()).thenReturn(1F);
+		when(properties.isInstanceEnabled()).thenReturn(true);
+		when(properties.isEphemeral()).thenReturn(true);
+		when(properties.isFailFast()).thenReturn(true);
+		when(properties.getRegisterRetryTimes()).thenReturn(3);
+		when(properties.getRegisterRetryInterval()).thenReturn(10L);
+
+		metadata = new HashMap<>();
+		registration = registration(SERVICE, 8080);
+
+		registrationManager = new NacosRegistrationManager(nacosServiceManager,
+				properties);
+	}
+
+	@After
+	public void tearDown() {
+		registrationManager.destroy();
+	}
+
+	@Test
+	public void testUpdateMetadataInPlace() throws Exception {
+		registrationManager.register(registration);
+
+		metadata.put("version", "2");
+		assertThat(registrationManager.update(registration)).isTrue();
+
+		ArgumentCaptor<Instance> instance = ArgumentCaptor.forClass(Instance.class);
+		verify(namingMaintainService).updateInstance(eq(SERVICE), eq(GROUP),
+				instance.capture());
+		assertThat(instance.getValue().getMetadata()).containsEntry("version", "2");
+		verify(namingService, times(1)).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+		verify(namingService, never()).deregisterInstance(anyString(), anyString(),
+				any(Instance.class));
+	}
+
+	@Test
+	public void testUpdateWithoutChanges() throws Exception {
+		registrationManager.register(registration);
+
+		assertThat(registrationManager.update(registration)).isTrue();
+
+		verify(namingMaintainService, never()).updateInstance(anyString(), anyString(),
+				any(Instance.class));
+		verify(namingService, times(1)).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+	}
+
+	@Test
+	public void testUpdatePortRegistersBeforeDeregistering() throws Exception {
+		registrationManager.register(registration);
+
+		when(registration.getPort()).thenReturn(9090);
+		assertThat(registrationManager.update(registration)).isTrue();
+
+		ArgumentCaptor<Instance> registered = ArgumentCaptor.forClass(Instance.class);
+		verify(namingService, times(2)).registerInstance(eq(SERVICE), eq(GROUP),
+				registered.capture());
+		assertThat(registered.getValue().getPort()).isEqualTo(9090);
+		ArgumentCaptor<Instance> deregistered = ArgumentCaptor.forClass(Instance.class);
+		verify(namingService).deregisterInstance(eq(SERVICE), eq(GROUP),
+				deregistered.capture());
+		assertThat(deregistered.getValue().getPort()).isEqualTo(8080);
+	}
+
+	@Test
+	public void testUpdatePortKeepsOldInstanceWhenRegisterFailed() throws Exception {
+		when(properties.isFailFast()).thenReturn(false);
+		registrationManager.register(registration);
+
+		doThrow(new NacosException(500, "unavailable")).when(namingService)
+				.registerInstance(eq(SERVICE), eq(GROUP), any(Instance.class));
+		when(registration.getPort()).thenReturn(9090);
+		registrationManager.update(registration);
+
+		verify(namingService, times(2)).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+		verify(namingService, never()).deregisterInstance(anyString(), anyString(),
+				any(Instance.class));
+	}
+
+	@Test
+	public void testUpdatePortAsyncDeregistersAfterRegistered() throws Exception {
+		registrationManager.register(registration);
+
+		when(properties.isRegisterAsync()).thenReturn(true);
+		doThrow(new NacosException(500, "unavailable")).doNothing().when(namingService)
+				.registerInstance(eq(SERVICE), eq(GROUP), any(Instance.class));
+		when(registration.getPort()).thenReturn(9090);
+		registrationManager.update(registration);
+
+		verify(namingService, timeout(2000)).deregisterInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+		InOrder inOrder = inOrder(namingService);
+		inOrder.verify(namingService, times(3)).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+		inOrder.verify(namingService).deregisterInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+	}
+
+	@Test
+	public void testUpdateUnknownRegistration() {
+		assertThat(registrationManager.update(registration)).isFalse();
+	}
+
+	@Test
+	public void testUpdateAfterConnectionChanged() {
+		registrationManager.register(registration);
+
+		Properties nacosProperties = new Properties();
+		nacosProperties.setProperty("namespace", "other");
+		when(properties.getNacosProperties()).thenReturn(nacosProperties);
+
+		assertThat(registrationManager.update(registration)).isFalse();
+	}
+
+	@Test
+	public void testRegisterInParallel() throws Exception {
+		Registration management = registration("test-service:management", 8081);
+
+		registrationManager.register(Arrays.asList(registration, management));
+
+		verify(namingService).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+		verify(namingService).registerInstance(eq("test-service:management"), eq(GROUP),
+				any(Instance.class));
+	}
+
+	@Test
+	public void testRegisterAsyncWithRetry() throws Exception {
+		when(properties.isRegisterAsync()).thenReturn(true);
+		doThrow(new NacosException(500, "unavailable"))
+				.doThrow(new NacosException(500, "unavailable")).doNothing()
+				.when(namingService)
+				.registerInstance(eq(SERVICE), eq(GROUP), any(Instance.class));
+
+		registrationManager.register(registration);
+
+		verify(namingService, timeout(2000).times(3)).registerInstance(eq(SERVICE),
+				eq(GROUP), any(Instance.class));
+	}
+
+	@Test
+	public void testRegisterAsyncGivesUp() throws Exception {
+		when(properties.isRegisterAsync()).thenReturn(true);
+		when(properties.getRegisterRetryTimes()).thenReturn(1);
+		doThrow(new NacosException(500, "unavailable")).when(namingService)
+				.registerInstance(eq(SERVICE), eq(GROUP), any(Instance.class));
+
+		registrationManager.register(registration);
+
+		verify(namingService, timeout(2000).times(2)).registerInstance(eq(SERVICE),
+				eq(GROUP), any(Instance.class));
+		Thread.sleep(100);
+		verify(namingService, times(2)).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+		assertThat(registrationManager.update(registration)).isFalse();
+		assertThat(discoveryMetrics.getRegistrations()).isEqualTo(2);
+		assertThat(discoveryMetrics.getRegistrationFailures()).isEqualTo(2);
+	}
+
+	@Test
+	public void testDeregisterCancelsAsyncRegistration() throws Exception {
+		when(properties.isRegisterAsync()).thenReturn(true);
+		when(properties.getRegisterRetryInterval()).thenReturn(60000L);
+		doThrow(new NacosException(500, "unavailable")).doNothing().when(namingService)
+				.registerInstance(eq(SERVICE), eq(GROUP), any(Instance.class));
+
+		registrationManager.register(registration);
+		verify(namingService, timeout(2000)).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+		registrationManager.deregister(registration);
+
+		verify(namingService).deregisterInstance(SERVICE, GROUP, "127.0.0.1", 8080,
+				"DEFAULT");
+		verify(namingService, times(1)).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+	}
+
+	@Test
+	public void testDeregisterWhileAsyncRegistrationInFlight() throws Exception {
+		when(properties.isRegisterAsync()).thenReturn(true);
+		CountDownLatch registering = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			registering.countDown();
+			release.await();
+			return null;
+		}).when(namingService).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+
+		registrationManager.register(registration);
+		assertThat(registering.await(2, TimeUnit.SECONDS)).isTrue();
+		registrationManager.deregister(registration);
+		release.countDown();
+
+		ArgumentCaptor<Instance> deregistered = ArgumentCaptor.forClass(Instance.class);
+		verify(namingService, timeout(2000)).deregisterInstance(eq(SERVICE), eq(GROUP),
+				deregistered.capture());
+		assertThat(deregistered.getValue().getPort()).isEqualTo(8080);
+		assertThat(registrationManager.update(registration)).isFalse();
+	}
+
+	private Registration registration(String serviceId, int port) {
+		Registration registration = mock(Registration.class);
+		when(registration.getServiceId()).thenReturn(serviceId);
+		when(registration.getHost()).thenReturn("127.0.0.1");
+		when(registration.getPort()).thenReturn(port);
+		when(registration.getMetadata()).thenReturn(metadata);
+		return registration;
+	}
+
+}
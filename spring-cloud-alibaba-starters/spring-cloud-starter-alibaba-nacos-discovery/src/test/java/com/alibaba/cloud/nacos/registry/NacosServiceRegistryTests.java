@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.registry;
+
+import java.util.Collections;
+import java.util.Properties;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.cloud.nacos.metrics.NacosDiscoveryMetrics;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link NacosServiceRegistry}.
+ */
+public class NacosServiceRegistryTests {
+
+	private static final String SERVICE = "test-service";
+
+	private static final String GROUP = "DEFAULT_GROUP";
+
+	private NacosDiscoveryProperties properties;
+
+	private NacosServiceManager nacosServiceManager;
+
+	private NamingService namingService;
+
+	private Properties nacosProperties;
+
+	private NacosServiceRegistry serviceRegistry;
+
+	@Before
+	public void setUp() {
+		properties = mock(NacosDiscoveryProperties.class);
+		nacosServiceManager = mock(NacosServiceManager.class);
+		when(nacosServiceManager.getDiscoveryMetrics())
+				.thenReturn(new NacosDiscoveryMetrics());
+		namingService = mock(NamingService.class);
+
+		nacosProperties = new Properties();
+		when(properties.getNacosProperties()).thenReturn(nacosProperties);
+		when(nacosServiceManager.getNamingService(nacosProperties))
+				.thenReturn(namingService);
+		when(properties.getGroup()).thenReturn(GROUP);
+		when(properties.getClusterName()).thenReturn("DEFAULT");
+		when(properties.getWeight()).thenReturn(1F);
+		when(properties.isInstanceEnabled()).thenReturn(true);
+		when(properties.isEphemeral()).thenReturn(true);
+		when(properties.isRegisterAsync()).thenReturn(true);
+
+		serviceRegistry = new NacosServiceRegistry(properties);
+		ReflectionTestUtils.setField(serviceRegistry, "nacosServiceManager",
+				nacosServiceManager);
+	}
+
+	@After
+	public void tearDown() {
+		serviceRegistry.close();
+	}
+
+	@Test
+	public void testRegisterAfterRestart() throws Exception {
+		Registration registration = registration();
+
+		serviceRegistry.register(registration);
+		verify(namingService, timeout(2000)).registerInstance(eq(SERVICE), eq(GROUP),
+				any(Instance.class));
+
+		serviceRegistry.close();
+		serviceRegistry.register(registration);
+		verify(namingService, timeout(2000).times(2)).registerInstance(eq(SERVICE),
+				eq(GROUP), any(Instance.class));
+	}
+
+	@Test
+	public void testCloseShutsDownOwnConnectionOnly() throws Exception {
+		serviceRegistry.close();
+
+		verify(nacosServiceManager).nacosServiceShutDown(nacosProperties);
+		verify(nacosServiceManager, never()).nacosServiceShutDown();
+	}
+
+	private Registration registration() {
+		Registration registration = mock(Registration.class);
+		when(registration.getServiceId()).thenReturn(SERVICE);
+		when(registration.getHost()).thenReturn("127.0.0.1");
+		when(registration.getPort()).thenReturn(8080);
+		when(registration.getMetadata()).thenReturn(Collections.emptyMap());
+		return registration;
+	}
+
+}
@@ -17,12 +17,14 @@
 package com.alibaba.cloud.nacos.ribbon;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.discovery.NacosInstanceCache;
 import com.alibaba.cloud.nacos.test.NacosMockTest;
 import com.alibaba.nacos.api.naming.NamingService;
 import com.alibaba.nacos.api.naming.pojo.Instance;
@@ -162,4 +164,34 @@ public class NacosServerListTests {
 				.isEqualTo("1");
 	}
 
+	@Test
+	public void testReuseServersOfUnchangedInstances() throws Exception {
+		Instance first = NacosMockTest.serviceInstance("test-service", true, "127.0.0.1",
+				8080, Collections.emptyMap());
+		Instance second = NacosMockTest.serviceInstance("test-service", true, "127.0.0.1",
+				8081, Collections.emptyMap());
+		Instance changed = NacosMockTest.serviceInstance("test-service", true,
+				"127.0.0.1", 8081, Collections.emptyMap());
+		changed.setWeight(2);
+
+		NacosInstanceCache instanceCache = mock(NacosInstanceCache.class);
+		when(instanceCache.getInstances("test-service"))
+				.thenReturn(Arrays.asList(first, second))
+				.thenReturn(Arrays.asList(first, changed));
+
+		IClientConfig clientConfig = mock(IClientConfig.class);
+		when(clientConfig.getClientName()).thenReturn("test-service");
+		NacosServerList serverList = new NacosServerList(
+				mock(NacosDiscoveryProperties.class), null, instanceCache);
+		serverList.initWithNiwsConfig(clientConfig);
+
+		List<NacosServer> servers = serverList.getInitialListOfServers();
+		List<NacosServer> updated = serverList.getUpdatedListOfServers();
+
+		assertThat(updated).hasSize(2);
+		assertThat(updated.get(0)).isSameAs(servers.get(0));
+		assertThat(updated.get(1)).isNotSameAs(servers.get(1));
+		assertThat(updated.get(1).getInstance().getWeight()).isEqualTo(2);
+	}
+
 }
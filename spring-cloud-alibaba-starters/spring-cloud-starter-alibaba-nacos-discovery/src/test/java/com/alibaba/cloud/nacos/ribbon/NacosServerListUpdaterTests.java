@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.nacos.ribbon;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import com.alibaba.cloud.nacos.discovery.NacosInstanceCache;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.netflix.loadbalancer.ServerListUpdater;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NacosServerListUpdaterTests {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testUpdateOnPushOfService() throws Exception {
+		NacosInstanceCache instanceCache = mock(NacosInstanceCache.class);
+		ServerListUpdater.UpdateAction updateAction = mock(
+				ServerListUpdater.UpdateAction.class);
+		NacosServerListUpdater updater = new NacosServerListUpdater(instanceCache,
+				"test-service", 60000);
+
+		updater.start(updateAction);
+		ArgumentCaptor<BiConsumer<String, List<Instance>>> listener = ArgumentCaptor
+				.forClass(BiConsumer.class);
+		verify(instanceCache).addListener(listener.capture());
+
+		listener.getValue().accept("other-service", Collections.emptyList());
+		listener.getValue().accept("test-service", Collections.emptyList());
+		verify(updateAction, timeout(5000)).doUpdate();
+
+		updater.stop();
+		verify(instanceCache).removeListener(listener.getValue());
+	}
+
+	@Test
+	public void testPollUntilServiceIsCached() throws Exception {
+		NacosInstanceCache instanceCache = mock(NacosInstanceCache.class);
+		ServerListUpdater.UpdateAction updateAction = mock(
+				ServerListUpdater.UpdateAction.class);
+		when(instanceCache.getIfPresent("test-service")).thenReturn(null);
+		NacosServerListUpdater updater = new NacosServerListUpdater(instanceCache,
+				"test-service", 10);
+
+		updater.start(updateAction);
+		// polled every 10 milliseconds until the service is cached
+		verify(updateAction, timeout(5000).atLeastOnce()).doUpdate();
+		updater.stop();
+	}
+
+}
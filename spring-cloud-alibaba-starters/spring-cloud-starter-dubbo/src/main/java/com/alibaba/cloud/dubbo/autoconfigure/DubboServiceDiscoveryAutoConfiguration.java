@@ -195,8 +195,11 @@ public class DubboServiceDiscoveryAutoConfiguration {
 	 * <a href="https://www.consul.io/api/features/blocking.html">Consul's Blocking
 	 * Queries response</a></li>
 	 * <li>Nacos : {@link NacosWatch#nacosServicesWatch()} publishes a
-	 * {@link HeartbeatEvent} under a {@link TaskScheduler} every
-	 * {@link NacosDiscoveryProperties#getWatchDelay()} milliseconds</li>
+	 * {@link HeartbeatEvent} when the service names reloaded under a
+	 * {@link TaskScheduler} every {@link NacosDiscoveryProperties#getWatchDelay()}
+	 * milliseconds have been changed, and when the instances of a watched service have
+	 * been changed, coalesced within {@link NacosDiscoveryProperties#getWatchDebounce()}
+	 * milliseconds</li>
 	 * </ul>
 	 * <p>
 	 * In order to reduce the duplicated handling for
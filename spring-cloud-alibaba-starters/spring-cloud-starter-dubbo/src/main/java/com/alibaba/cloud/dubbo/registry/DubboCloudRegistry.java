@@ -394,24 +394,33 @@ public class DubboCloudRegistry extends FailbackRegistry
 				return false;
 			}
 
-			boolean matched = newInstances.stream().allMatch(newInstance -> {
-
-				for (ServiceInstance oldInstance : oldInstances) {
-					if (instanceSame(newInstance, oldInstance)) {
-						return true;
-					}
+			Map<String, ServiceInstance> oldInstancesByKey = new HashMap<>(
+					oldInstances.size() * 4 / 3 + 1);
+			for (ServiceInstance oldInstance : oldInstances) {
+				oldInstancesByKey.put(instanceKey(oldInstance), oldInstance);
+			}
+			for (ServiceInstance newInstance : newInstances) {
+				ServiceInstance oldInstance = oldInstancesByKey
+						.get(instanceKey(newInstance));
+				if (oldInstance == null || !instanceSame(newInstance, oldInstance)) {
+					return false;
 				}
-
-				return false;
-			});
-			if (!matched) {
-				return false;
 			}
 		}
 
 		return true;
 	}
 
+	/**
+	 * Key of the fields compared by {@link #instanceSame}, except metadata, so that the
+	 * old instance matching a new one is found with a single lookup.
+	 */
+	private static String instanceKey(ServiceInstance instance) {
+		return instance.getInstanceId() + '|' + instance.getServiceId() + '|'
+				+ instance.getScheme() + '|' + instance.getHost() + ':'
+				+ instance.getPort();
+	}
+
 	private boolean instanceSame(ServiceInstance newInstance,
 			ServiceInstance oldInstance) {
 		if (!StringUtils.equals(newInstance.getInstanceId(),